@@ -0,0 +1,252 @@
+package bdd;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A node table for reduced ordered binary decision diagrams. Variables are identified by their
+ * level in the variable order. A node is an index into parallel int arrays that hold its level
+ * and its two children. The unique table chains nodes with equal hashes through an int array,
+ * and the operation cache is a direct-mapped table of int arrays that may forget results. Nodes
+ * are never freed.
+ */
+final class Bdd {
+
+  static final int FALSE = 0;
+
+  static final int TRUE = 1;
+
+  private static final int INITIAL_CAPACITY = 1 << 10;
+
+  private static final int CACHE_SIZE = 1 << 18;
+
+  private static final int AND = 1;
+
+  private static final int OR = 2;
+
+  private static final int NOT = 3;
+
+  private static final int NONE = -1;
+
+  private final int variableCount;
+
+  @Nonnull
+  private int[] levels;
+
+  @Nonnull
+  private int[] lows;
+
+  @Nonnull
+  private int[] highs;
+
+  private int nodeCount;
+
+  /**
+   * The first node of each bucket of the unique table.
+   */
+  @Nonnull
+  private int[] buckets;
+
+  /**
+   * The next node in the same bucket of the unique table.
+   */
+  @Nonnull
+  private int[] nextNodes;
+
+  @Nonnull
+  private final int[] cacheOperations = new int[CACHE_SIZE];
+
+  @Nonnull
+  private final int[] cacheLefts = new int[CACHE_SIZE];
+
+  @Nonnull
+  private final int[] cacheRights = new int[CACHE_SIZE];
+
+  @Nonnull
+  private final int[] cacheResults = new int[CACHE_SIZE];
+
+  Bdd(int variableCount) {
+    this.variableCount = variableCount;
+    levels = new int[INITIAL_CAPACITY];
+    lows = new int[INITIAL_CAPACITY];
+    highs = new int[INITIAL_CAPACITY];
+    nextNodes = new int[INITIAL_CAPACITY];
+    buckets = new int[INITIAL_CAPACITY];
+    Arrays.fill(buckets, NONE);
+    // the terminals are placed below all variables
+    for (int terminal : new int[]{FALSE, TRUE}) {
+      levels[terminal] = variableCount;
+      lows[terminal] = terminal;
+      highs[terminal] = terminal;
+    }
+    nodeCount = 2;
+  }
+
+  private static int hash(int level, int low, int high) {
+    int h = level * 0x9E3779B1 + low * 0x85EBCA6B + high * 0xC2B2AE35;
+    return h ^ (h >>> 16);
+  }
+
+  int getVariableCount() {
+    return variableCount;
+  }
+
+  int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Returns the level of the variable that the given node tests, or the variable count for the
+   * terminals.
+   */
+  int level(int node) {
+    return levels[node];
+  }
+
+  int low(int node) {
+    return lows[node];
+  }
+
+  int high(int node) {
+    return highs[node];
+  }
+
+  /**
+   * Returns the node that tests the given level, reusing an existing node if possible.
+   */
+  int node(int level, int low, int high) {
+    if (low == high) {
+      return low;
+    }
+    int bucket = hash(level, low, high) & (buckets.length - 1);
+    for (int node = buckets[bucket]; node != NONE; node = nextNodes[node]) {
+      if (levels[node] == level && lows[node] == low && highs[node] == high) {
+        return node;
+      }
+    }
+    if (nodeCount == levels.length) {
+      grow();
+      bucket = hash(level, low, high) & (buckets.length - 1);
+    }
+    int node = nodeCount;
+    nodeCount++;
+    levels[node] = level;
+    lows[node] = low;
+    highs[node] = high;
+    nextNodes[node] = buckets[bucket];
+    buckets[bucket] = node;
+    return node;
+  }
+
+  private void grow() {
+    int capacity = levels.length << 1;
+    levels = Arrays.copyOf(levels, capacity);
+    lows = Arrays.copyOf(lows, capacity);
+    highs = Arrays.copyOf(highs, capacity);
+    nextNodes = Arrays.copyOf(nextNodes, capacity);
+    buckets = new int[capacity];
+    Arrays.fill(buckets, NONE);
+    for (int node = 2; node < nodeCount; node++) {
+      int bucket = hash(levels[node], lows[node], highs[node]) & (capacity - 1);
+      nextNodes[node] = buckets[bucket];
+      buckets[bucket] = node;
+    }
+  }
+
+  /**
+   * Returns the function that is true if the variable at the given level has the given value.
+   */
+  int literal(int level, boolean value) {
+    return value ? node(level, FALSE, TRUE) : node(level, TRUE, FALSE);
+  }
+
+  /**
+   * Returns the function that is true for the given assignment only. The assignment contains 0 or
+   * 1 for each level.
+   */
+  int cube(int[] assignment) {
+    int result = TRUE;
+    for (int level = variableCount - 1; level >= 0; level--) {
+      result = assignment[level] == 1 ? node(level, FALSE, result) : node(level, result, FALSE);
+    }
+    return result;
+  }
+
+  private int cacheSlot(int operation, int left, int right) {
+    return hash(operation, left, right) & (CACHE_SIZE - 1);
+  }
+
+  int and(int left, int right) {
+    if (left == FALSE || right == FALSE) {
+      return FALSE;
+    }
+    if (left == TRUE || left == right) {
+      return right;
+    }
+    if (right == TRUE) {
+      return left;
+    }
+    return apply(AND, left, right);
+  }
+
+  int or(int left, int right) {
+    if (left == TRUE || right == TRUE) {
+      return TRUE;
+    }
+    if (left == FALSE || left == right) {
+      return right;
+    }
+    if (right == FALSE) {
+      return left;
+    }
+    return apply(OR, left, right);
+  }
+
+  private int apply(int operation, int left, int right) {
+    if (left > right) {
+      // both operations are commutative
+      int swap = left;
+      left = right;
+      right = swap;
+    }
+    int slot = cacheSlot(operation, left, right);
+    if (cacheOperations[slot] == operation
+        && cacheLefts[slot] == left
+        && cacheRights[slot] == right) {
+      return cacheResults[slot];
+    }
+    int level = Math.min(levels[left], levels[right]);
+    int leftLow = levels[left] == level ? lows[left] : left;
+    int leftHigh = levels[left] == level ? highs[left] : left;
+    int rightLow = levels[right] == level ? lows[right] : right;
+    int rightHigh = levels[right] == level ? highs[right] : right;
+    int low = operation == AND ? and(leftLow, rightLow) : or(leftLow, rightLow);
+    int high = operation == AND ? and(leftHigh, rightHigh) : or(leftHigh, rightHigh);
+    int result = node(level, low, high);
+    cacheOperations[slot] = operation;
+    cacheLefts[slot] = left;
+    cacheRights[slot] = right;
+    cacheResults[slot] = result;
+    return result;
+  }
+
+  int not(int node) {
+    if (node == FALSE) {
+      return TRUE;
+    }
+    if (node == TRUE) {
+      return FALSE;
+    }
+    int slot = cacheSlot(NOT, node, 0);
+    if (cacheOperations[slot] == NOT && cacheLefts[slot] == node) {
+      return cacheResults[slot];
+    }
+    int result = node(levels[node], not(lows[node]), not(highs[node]));
+    cacheOperations[slot] = NOT;
+    cacheLefts[slot] = node;
+    cacheRights[slot] = 0;
+    cacheResults[slot] = result;
+    return result;
+  }
+}
@@ -0,0 +1,81 @@
+package bdd;
+
+import static bdd.BddHelper.findOptimalAssignment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.BucketSession;
+import spl_conqueror.Configuration;
+
+/**
+ * Keeps a diagram for each bucket that represents the valid configurations with the bucket's
+ * number of selected options which have not been returned yet.
+ */
+final class BddBucketSession implements BucketSession {
+
+  @Nonnull
+  private final Map<Integer, Integer> buckets = new HashMap<>();
+
+  @Nonnull
+  private final BddConstraintSystemContext context;
+
+  BddBucketSession(BddConstraintSystemContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Returns the function that is true if exactly the given number of variables is assigned 1.
+   */
+  private static int exactly(Bdd bdd, int count) {
+    int variableCount = bdd.getVariableCount();
+    // the nodes below the current level, indexed by the number of variables that are already 1
+    int[] below = new int[count + 2];
+    for (int selected = 0; selected <= count + 1; selected++) {
+      below[selected] = selected == count ? Bdd.TRUE : Bdd.FALSE;
+    }
+    for (int level = variableCount - 1; level >= 0; level--) {
+      int[] current = new int[count + 2];
+      for (int selected = 0; selected <= count; selected++) {
+        current[selected] = bdd.node(level, below[selected], below[selected + 1]);
+      }
+      current[count + 1] = Bdd.FALSE;
+      below = current;
+    }
+    return below[0];
+  }
+
+  @Nullable
+  @Override
+  public Configuration generateConfig(int selectedOptionsCount,
+                                      List<Configuration> featureRanking) {
+    Bdd bdd = context.getBdd();
+    int bucket = buckets.computeIfAbsent(
+        selectedOptionsCount,
+        count -> count < 0 ? Bdd.FALSE : bdd.and(context.getRoot(), exactly(bdd, count)));
+
+    // if we have a feature ranking, we can use it to approximate the optimal solution
+    long[] weights = new long[context.getVariableCount()];
+    int[] solution = null;
+    for (Configuration candidates : featureRanking) {
+      solution = findOptimalAssignment(bdd, bucket, context.toAssignment(candidates), weights);
+      if (solution != null) {
+        break;
+      }
+    }
+    if (solution == null) {
+      solution = findOptimalAssignment(bdd, bucket, context.freeAssignment(), weights);
+    }
+    if (solution == null) {
+      return null;
+    }
+
+    // the configuration should not be returned again
+    buckets.put(selectedOptionsCount, bdd.and(bucket, bdd.not(bdd.cube(solution))));
+    return context.toConfiguration(solution);
+  }
+}
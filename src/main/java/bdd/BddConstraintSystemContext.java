@@ -0,0 +1,207 @@
+package bdd;
+
+import static spl_conqueror.ClauseDatabase.isNegated;
+import static spl_conqueror.ClauseDatabase.variable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.BinaryOption;
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * Holds the BDD of a variability model. The options are ordered by a depth-first traversal of
+ * the feature tree, so that an option is placed right before its descendants. Most constraints
+ * of a variability model relate a parent to its children or alternative siblings, which keeps
+ * the diagram small.
+ * <p>
+ * The diagram is built from the original clauses, not from the simplified model of the
+ * variability model. A reduced diagram is canonical for its function and variable order, so
+ * simplifying the clauses first would not change the set of configurations it represents, only
+ * drop the levels of fixed and merged options. Keeping one level per option lets counting,
+ * sampling and restrictions address options directly.
+ */
+final class BddConstraintSystemContext {
+
+  /**
+   * Marks a level that is not fixed by an assignment.
+   */
+  static final int FREE = -1;
+
+  @Nonnull
+  private final VariabilityModel vm;
+
+  @Nonnull
+  private final Bdd bdd;
+
+  /**
+   * The index of the option at each level.
+   */
+  @Nonnull
+  private final int[] levelToOption;
+
+  /**
+   * The level of each option, indexed by {@link BinaryOption#getIndex()}.
+   */
+  @Nonnull
+  private final int[] optionToLevel;
+
+  private int root;
+
+  private BddConstraintSystemContext(VariabilityModel vm, int[] levelToOption) {
+    this.vm = vm;
+    this.levelToOption = levelToOption;
+    optionToLevel = new int[levelToOption.length];
+    for (int level = 0; level < levelToOption.length; level++) {
+      optionToLevel[levelToOption[level]] = level;
+    }
+    bdd = new Bdd(levelToOption.length);
+  }
+
+  @Nonnull
+  static BddConstraintSystemContext from(VariabilityModel vm) {
+    BddConstraintSystemContext context = new BddConstraintSystemContext(vm, orderOptions(vm));
+    context.compileClauses();
+    return context;
+  }
+
+  /**
+   * Orders the options by a depth-first traversal of the feature tree.
+   */
+  @Nonnull
+  private static int[] orderOptions(VariabilityModel vm) {
+    List<BinaryOption> options = vm.getBinaryOptions();
+    List<List<BinaryOption>> children = new ArrayList<>(options.size());
+    for (int i = 0; i < options.size(); i++) {
+      children.add(new ArrayList<>());
+    }
+    Deque<BinaryOption> stack = new ArrayDeque<>();
+    for (BinaryOption option : options) {
+      BinaryOption parent = option.getParent();
+      if (parent == null || option.isRoot()) {
+        stack.push(option);
+      } else {
+        children.get(parent.getIndex()).add(option);
+      }
+    }
+    int[] order = new int[options.size()];
+    int level = 0;
+    while (!stack.isEmpty()) {
+      BinaryOption option = stack.pop();
+      order[level] = option.getIndex();
+      level++;
+      List<BinaryOption> optionChildren = children.get(option.getIndex());
+      for (int i = optionChildren.size() - 1; i >= 0; i--) {
+        stack.push(optionChildren.get(i));
+      }
+    }
+    return order;
+  }
+
+  /**
+   * Conjoins the clauses of the variability model, starting with the clauses whose variables are
+   * placed deepest in the order.
+   */
+  private void compileClauses() {
+    ClauseDatabase clauseDatabase = vm.getClauseDatabase();
+    List<int[]> clauses = new ArrayList<>(clauseDatabase.getClauseCount());
+    for (int i = 0; i < clauseDatabase.getClauseCount(); i++) {
+      int[] levels = clauseDatabase.getClause(i);
+      for (int j = 0; j < levels.length; j++) {
+        // keep the sign in the lowest bit like a literal
+        int lit = levels[j];
+        levels[j] = (optionToLevel[variable(lit)] << 1) | (isNegated(lit) ? 1 : 0);
+      }
+      Arrays.sort(levels);
+      clauses.add(levels);
+    }
+    clauses.sort(Comparator.comparingInt((int[] clause) -> clause.length == 0 ? 0 : clause[0])
+                           .reversed());
+    root = Bdd.TRUE;
+    for (int[] clause : clauses) {
+      root = bdd.and(root, compileClause(clause));
+    }
+  }
+
+  private int compileClause(int[] sortedLiterals) {
+    int result = Bdd.FALSE;
+    for (int i = sortedLiterals.length - 1; i >= 0; i--) {
+      int level = sortedLiterals[i] >>> 1;
+      boolean isNegated = (sortedLiterals[i] & 1) != 0;
+      result = isNegated ? bdd.node(level, Bdd.TRUE, result) : bdd.node(level, result, Bdd.TRUE);
+    }
+    return result;
+  }
+
+  @Nonnull
+  Bdd getBdd() {
+    return bdd;
+  }
+
+  @Nonnull
+  VariabilityModel getVariabilityModel() {
+    return vm;
+  }
+
+  int getVariableCount() {
+    return levelToOption.length;
+  }
+
+  /**
+   * Returns the root of the diagram that represents all valid configurations.
+   */
+  int getRoot() {
+    return root;
+  }
+
+  int getLevel(int optionIndex) {
+    return optionToLevel[optionIndex];
+  }
+
+  /**
+   * Returns an assignment that leaves all levels {@link #FREE}.
+   */
+  @Nonnull
+  int[] freeAssignment() {
+    int[] assignment = new int[levelToOption.length];
+    Arrays.fill(assignment, FREE);
+    return assignment;
+  }
+
+  /**
+   * Returns an assignment that fixes the selected options of the given configuration to 1 and
+   * leaves all other levels {@link #FREE}.
+   */
+  @Nonnull
+  int[] toAssignment(Configuration selectedOptions) {
+    int[] assignment = freeAssignment();
+    for (int i = selectedOptions.nextSelectedIndex(0);
+         i >= 0;
+         i = selectedOptions.nextSelectedIndex(i + 1)) {
+      assignment[optionToLevel[i]] = 1;
+    }
+    return assignment;
+  }
+
+  /**
+   * Returns the configuration that selects the options whose level is assigned 1.
+   */
+  @Nonnull
+  Configuration toConfiguration(int[] assignment) {
+    Configuration.Builder config = new Configuration.Builder(vm);
+    for (int level = 0; level < assignment.length; level++) {
+      if (assignment[level] == 1) {
+        config.select(levelToOption[level]);
+      }
+    }
+    return config.build();
+  }
+}
@@ -0,0 +1,133 @@
+package bdd;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+
+/**
+ * Enumerates the satisfying assignments of a diagram by a depth-first traversal over all levels.
+ * Every node except the false terminal has a path to the true terminal, so the traversal never
+ * runs into a dead end and each assignment costs one pass over the levels at most. The value
+ * that is tried first at each level is chosen randomly.
+ */
+final class BddEnumerationCursor implements EnumerationCursor {
+
+  @Nonnull
+  private final BddConstraintSystemContext context;
+
+  @Nonnull
+  private final Bdd bdd;
+
+  /**
+   * The node that is reached before each level is assigned.
+   */
+  @Nonnull
+  private final int[] nodes;
+
+  @Nonnull
+  private final int[] values;
+
+  /**
+   * Whether the other value of each level still needs to be tried.
+   */
+  @Nonnull
+  private final boolean[] hasAlternative;
+
+  /**
+   * The value that is tried first at each level.
+   */
+  @Nonnull
+  private final int[] firstValues;
+
+  private boolean hasStarted;
+
+  private boolean isExhausted;
+
+  BddEnumerationCursor(BddConstraintSystemContext context, int root, long seed) {
+    this.context = context;
+    bdd = context.getBdd();
+    int variableCount = context.getVariableCount();
+    nodes = new int[variableCount + 1];
+    nodes[0] = root;
+    values = new int[variableCount];
+    hasAlternative = new boolean[variableCount];
+    firstValues = new int[variableCount];
+    Random random = new Random(seed);
+    for (int level = 0; level < variableCount; level++) {
+      firstValues[level] = random.nextInt(2);
+    }
+    isExhausted = root == Bdd.FALSE;
+  }
+
+  private int child(int level, int value) {
+    int node = nodes[level];
+    if (bdd.level(node) != level) {
+      // the level is skipped, so both values lead to the same node
+      return node;
+    }
+    return value == 1 ? bdd.high(node) : bdd.low(node);
+  }
+
+  /**
+   * Assigns the levels from the given one on, preferring the first value of each level.
+   */
+  private void descend(int fromLevel) {
+    for (int level = fromLevel; level < values.length; level++) {
+      int first = firstValues[level];
+      int second = 1 - first;
+      boolean isFirstPossible = child(level, first) != Bdd.FALSE;
+      boolean isSecondPossible = child(level, second) != Bdd.FALSE;
+      values[level] = isFirstPossible ? first : second;
+      hasAlternative[level] = isFirstPossible && isSecondPossible;
+      nodes[level + 1] = child(level, values[level]);
+    }
+  }
+
+  /**
+   * Moves to the next assignment.
+   *
+   * @return False if all assignments have been visited.
+   */
+  private boolean advance() {
+    if (!hasStarted) {
+      hasStarted = true;
+      descend(0);
+      return true;
+    }
+    int level = values.length - 1;
+    while (level >= 0 && !hasAlternative[level]) {
+      level--;
+    }
+    if (level < 0) {
+      return false;
+    }
+    values[level] = 1 - values[level];
+    hasAlternative[level] = false;
+    nodes[level + 1] = child(level, values[level]);
+    descend(level + 1);
+    return true;
+  }
+
+  @Override
+  public int next(int k, Consumer<Configuration> consumer) {
+    int count = 0;
+    while (count < k && !isExhausted) {
+      if (advance()) {
+        consumer.accept(context.toConfiguration(values));
+        count++;
+      } else {
+        isExhausted = true;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void close() {
+    isExhausted = true;
+  }
+}
@@ -0,0 +1,327 @@
+package bdd;
+
+import static bdd.BddConstraintSystemContext.FREE;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Queries on a diagram under an assignment, which fixes some levels to 0 or 1 and leaves the
+ * others {@link BddConstraintSystemContext#FREE}. Each query visits every node at most once, and
+ * no nodes are created.
+ */
+final class BddHelper {
+
+  private static final byte UNKNOWN = 0;
+
+  private static final byte SATISFIABLE = 1;
+
+  private static final byte UNSATISFIABLE = 2;
+
+  private static final long INFEASIBLE = Long.MAX_VALUE;
+
+  private static final long UNKNOWN_COST = Long.MIN_VALUE;
+
+  private BddHelper() {
+  }
+
+  private static boolean isComplete(int[] assignment) {
+    for (int value : assignment) {
+      if (value == FREE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean allows(int[] assignment, int level, int value) {
+    return assignment[level] == FREE || assignment[level] == value;
+  }
+
+  /**
+   * Checks whether the diagram has a path that agrees with the assignment.
+   */
+  static boolean isSatisfiable(Bdd bdd, int root, int[] assignment) {
+    if (isComplete(assignment)) {
+      // a complete assignment selects exactly one path
+      int node = root;
+      while (node != Bdd.FALSE && node != Bdd.TRUE) {
+        node = assignment[bdd.level(node)] == 1 ? bdd.high(node) : bdd.low(node);
+      }
+      return node == Bdd.TRUE;
+    }
+    return isSatisfiable(bdd, root, assignment, new byte[bdd.getNodeCount()]);
+  }
+
+  private static boolean isSatisfiable(Bdd bdd, int node, int[] assignment, byte[] results) {
+    if (node == Bdd.FALSE || node == Bdd.TRUE) {
+      // skipped levels do not restrict the assignment
+      return node == Bdd.TRUE;
+    }
+    if (results[node] == UNKNOWN) {
+      int level = bdd.level(node);
+      boolean isSatisfiable
+          = (allows(assignment, level, 0) && isSatisfiable(bdd, bdd.low(node), assignment, results))
+            || (allows(assignment, level, 1)
+                && isSatisfiable(bdd, bdd.high(node), assignment, results));
+      results[node] = isSatisfiable ? SATISFIABLE : UNSATISFIABLE;
+    }
+    return results[node] == SATISFIABLE;
+  }
+
+  /**
+   * Returns the number of free levels before each level.
+   */
+  @Nonnull
+  private static int[] countFreeLevels(int[] assignment) {
+    int[] freeLevels = new int[assignment.length + 1];
+    for (int level = 0; level < assignment.length; level++) {
+      freeLevels[level + 1] = freeLevels[level] + (assignment[level] == FREE ? 1 : 0);
+    }
+    return freeLevels;
+  }
+
+  /**
+   * Counts the complete assignments that agree with the given one and satisfy the diagram.
+   */
+  @Nonnull
+  static BigInteger count(Bdd bdd, int root, int[] assignment) {
+    int[] freeLevels = countFreeLevels(assignment);
+    BigInteger[] counts = new BigInteger[bdd.getNodeCount()];
+    BigInteger count = count(bdd, root, assignment, freeLevels, counts);
+    return count.shiftLeft(freeLevels[bdd.level(root)]);
+  }
+
+  /**
+   * Counts the assignments of the levels from the level of the given node on.
+   */
+  @Nonnull
+  private static BigInteger count(Bdd bdd,
+                                  int node,
+                                  int[] assignment,
+                                  int[] freeLevels,
+                                  BigInteger[] counts) {
+    if (node == Bdd.FALSE || node == Bdd.TRUE) {
+      return node == Bdd.TRUE ? BigInteger.ONE : BigInteger.ZERO;
+    }
+    if (counts[node] == null) {
+      int level = bdd.level(node);
+      BigInteger count = BigInteger.ZERO;
+      for (int value = 0; value <= 1; value++) {
+        if (allows(assignment, level, value)) {
+          int child = value == 1 ? bdd.high(node) : bdd.low(node);
+          // each free level that the edge skips doubles the count
+          int skippedFreeLevels = freeLevels[bdd.level(child)] - freeLevels[level + 1];
+          count = count.add(count(bdd, child, assignment, freeLevels, counts)
+                                .shiftLeft(skippedFreeLevels));
+        }
+      }
+      counts[node] = count;
+    }
+    return counts[node];
+  }
+
+  /**
+   * Returns the cheapest value of each level if the level is skipped by an edge.
+   */
+  private static int skippedValue(int[] assignment, long[] weights, int level) {
+    if (assignment[level] != FREE) {
+      return assignment[level];
+    }
+    return weights[level] < 0 ? 1 : 0;
+  }
+
+  /**
+   * Returns the cost of the cheapest assignment of the levels before each level if all of them
+   * are skipped.
+   */
+  @Nonnull
+  private static long[] sumSkippedCosts(int[] assignment, long[] weights) {
+    long[] skippedCosts = new long[assignment.length + 1];
+    for (int level = 0; level < assignment.length; level++) {
+      long cost = skippedValue(assignment, weights, level) == 1 ? weights[level] : 0;
+      skippedCosts[level + 1] = skippedCosts[level] + cost;
+    }
+    return skippedCosts;
+  }
+
+  /**
+   * Computes the cost of the cheapest path from the given node to the true terminal.
+   */
+  private static long minimizeCost(Bdd bdd,
+                                   int node,
+                                   int[] assignment,
+                                   long[] weights,
+                                   long[] skippedCosts,
+                                   long[] costs) {
+    if (node == Bdd.FALSE || node == Bdd.TRUE) {
+      return node == Bdd.TRUE ? 0 : INFEASIBLE;
+    }
+    if (costs[node] == UNKNOWN_COST) {
+      long minCost = INFEASIBLE;
+      int level = bdd.level(node);
+      for (int value = 0; value <= 1; value++) {
+        if (allows(assignment, level, value)) {
+          int child = value == 1 ? bdd.high(node) : bdd.low(node);
+          long childCost = minimizeCost(bdd, child, assignment, weights, skippedCosts, costs);
+          if (childCost != INFEASIBLE) {
+            long cost = (value == 1 ? weights[level] : 0)
+                        + skippedCosts[bdd.level(child)] - skippedCosts[level + 1]
+                        + childCost;
+            minCost = Math.min(minCost, cost);
+          }
+        }
+      }
+      costs[node] = minCost;
+    }
+    return costs[node];
+  }
+
+  /**
+   * Returns an assignment that agrees with the given one, satisfies the diagram and minimizes
+   * the sum of the weights of the levels that are assigned 1, or null if there is none.
+   */
+  @Nullable
+  static int[] findOptimalAssignment(Bdd bdd, int root, int[] assignment, long[] weights) {
+    List<int[]> optimalAssignments = findOptimalAssignments(bdd, root, assignment, weights, 1);
+    return optimalAssignments.isEmpty() ? null : optimalAssignments.get(0);
+  }
+
+  /**
+   * Returns up to <code>limit</code> (all if <code>limit <= 0</code>) assignments that agree with
+   * the given one, satisfy the diagram and minimize the sum of the weights of the levels that are
+   * assigned 1.
+   */
+  @Nonnull
+  static List<int[]> findOptimalAssignments(Bdd bdd,
+                                            int root,
+                                            int[] assignment,
+                                            long[] weights,
+                                            int limit) {
+    long[] skippedCosts = sumSkippedCosts(assignment, weights);
+    long[] costs = new long[bdd.getNodeCount()];
+    Arrays.fill(costs, UNKNOWN_COST);
+    List<int[]> optimalAssignments = new ArrayList<>();
+    if (minimizeCost(bdd, root, assignment, weights, skippedCosts, costs) != INFEASIBLE) {
+      OptimalPathCollector collector = new OptimalPathCollector(bdd, assignment, weights,
+                                                                skippedCosts, costs, limit,
+                                                                optimalAssignments);
+      collector.collect(root, 0);
+    }
+    return optimalAssignments;
+  }
+
+  /**
+   * Follows all cheapest paths of a diagram whose costs have been computed.
+   */
+  private static final class OptimalPathCollector {
+
+    @Nonnull
+    private final Bdd bdd;
+
+    @Nonnull
+    private final int[] assignment;
+
+    @Nonnull
+    private final long[] weights;
+
+    @Nonnull
+    private final long[] skippedCosts;
+
+    @Nonnull
+    private final long[] costs;
+
+    private final int limit;
+
+    @Nonnull
+    private final List<int[]> optimalAssignments;
+
+    /**
+     * The values of the path that is being followed.
+     */
+    @Nonnull
+    private final int[] values;
+
+    OptimalPathCollector(Bdd bdd,
+                         int[] assignment,
+                         long[] weights,
+                         long[] skippedCosts,
+                         long[] costs,
+                         int limit,
+                         List<int[]> optimalAssignments) {
+      this.bdd = bdd;
+      this.assignment = assignment;
+      this.weights = weights;
+      this.skippedCosts = skippedCosts;
+      this.costs = costs;
+      this.limit = limit;
+      this.optimalAssignments = optimalAssignments;
+      values = new int[assignment.length];
+    }
+
+    private boolean isDone() {
+      return limit > 0 && optimalAssignments.size() >= limit;
+    }
+
+    /**
+     * Assigns the levels from the given one up to the level of the given node.
+     */
+    void collect(int node, int level) {
+      if (isDone()) {
+        return;
+      }
+      if (level < bdd.level(node)) {
+        // a skipped level takes its cheapest value, or both values if they cost the same
+        values[level] = skippedValue(assignment, weights, level);
+        collect(node, level + 1);
+        if (assignment[level] == FREE && weights[level] == 0) {
+          values[level] = 1;
+          collect(node, level + 1);
+        }
+        return;
+      }
+      if (node == Bdd.TRUE) {
+        optimalAssignments.add(values.clone());
+        return;
+      }
+      long cost = costs[node];
+      for (int value = 0; value <= 1; value++) {
+        if (!allows(assignment, level, value)) {
+          continue;
+        }
+        int child = value == 1 ? bdd.high(node) : bdd.low(node);
+        long childCost = child == Bdd.TRUE ? 0
+                         : child == Bdd.FALSE ? INFEASIBLE
+                         : costs[child];
+        if (childCost == INFEASIBLE || childCost == UNKNOWN_COST) {
+          continue;
+        }
+        if ((value == 1 ? weights[level] : 0)
+            + skippedCosts[bdd.level(child)] - skippedCosts[level + 1]
+            + childCost == cost) {
+          values[level] = value;
+          collect(child, level + 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the weight of each level, given the weights of the options.
+   */
+  @Nonnull
+  static long[] toLevelWeights(BddConstraintSystemContext context,
+                               IntUnaryOperator weightingFunction) {
+    long[] weights = new long[context.getVariableCount()];
+    for (int i = 0; i < weights.length; i++) {
+      weights[context.getLevel(i)] = weightingFunction.applyAsInt(i);
+    }
+    return weights;
+  }
+}
@@ -0,0 +1,29 @@
+package bdd;
+
+import static bdd.BddHelper.count;
+
+import java.math.BigInteger;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.ModelCounter;
+
+/**
+ * Counts the paths of the diagram that agree with a partial configuration in one traversal.
+ */
+final class BddModelCounter implements ModelCounter {
+
+  @Nonnull
+  private final BddConstraintSystemContext context;
+
+  BddModelCounter(BddConstraintSystemContext context) {
+    this.context = context;
+  }
+
+  @Nonnull
+  @Override
+  public BigInteger countConfigurations(Configuration partialConfig) {
+    return count(context.getBdd(), context.getRoot(), context.toAssignment(partialConfig));
+  }
+}
@@ -0,0 +1,37 @@
+package bdd;
+
+import static bdd.BddHelper.isSatisfiable;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.SatisfiabilityChecker;
+
+/**
+ * Checks configurations by following the paths of the diagram that agree with them. A complete
+ * configuration selects exactly one path, a partial one is checked in one traversal of the
+ * diagram.
+ */
+final class BddSatisfiabilityChecker implements SatisfiabilityChecker {
+
+  @Nonnull
+  private final BddConstraintSystemContext context;
+
+  BddSatisfiabilityChecker(BddConstraintSystemContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public boolean isValid(Configuration selectedOptions, boolean isPartialConfiguration) {
+    int[] assignment = context.toAssignment(selectedOptions);
+    if (!isPartialConfiguration) {
+      // deselect all other options
+      for (int level = 0; level < assignment.length; level++) {
+        if (assignment[level] == BddConstraintSystemContext.FREE) {
+          assignment[level] = 0;
+        }
+      }
+    }
+    return isSatisfiable(context.getBdd(), context.getRoot(), assignment);
+  }
+}
@@ -0,0 +1,81 @@
+package bdd;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.ModelCounter;
+import spl_conqueror.SatisfiabilityChecker;
+import spl_conqueror.SolverFacade;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+import utilities.SolverParameterKeys;
+
+/**
+ * Compiles the variability model into a reduced ordered binary decision diagram once and answers
+ * all queries by traversals of the diagram, without any search.
+ */
+public final class BddSolverFacade implements SolverFacade {
+
+  @Nonnull
+  private final BddConstraintSystemContext context;
+
+  @Nullable
+  private BddSatisfiabilityChecker satisfiabilityChecker;
+
+  @Nullable
+  private BddVariantGenerator variantGenerator;
+
+  @Nullable
+  private BddModelCounter modelCounter;
+
+  private int seed = 1;
+
+  public BddSolverFacade(VariabilityModel vm) {
+    context = BddConstraintSystemContext.from(vm);
+  }
+
+  @Nonnull
+  @Override
+  public SatisfiabilityChecker getSatisfiabilityChecker() {
+    if (satisfiabilityChecker == null) {
+      satisfiabilityChecker = new BddSatisfiabilityChecker(context);
+    }
+    return satisfiabilityChecker;
+  }
+
+  @Nonnull
+  @Override
+  public VariantGenerator getVariantGenerator() {
+    if (variantGenerator == null) {
+      variantGenerator = new BddVariantGenerator(context);
+      applyParameters();
+    }
+    return variantGenerator;
+  }
+
+  @Nonnull
+  @Override
+  public ModelCounter getModelCounter() {
+    if (modelCounter == null) {
+      modelCounter = new BddModelCounter(context);
+    }
+    return modelCounter;
+  }
+
+  @Override
+  public void setParameters(Map<String, String> parameters) {
+    if (parameters.containsKey(SolverParameterKeys.RANDOM_SEED)) {
+      seed = Integer.parseInt(parameters.get(SolverParameterKeys.RANDOM_SEED));
+    }
+    applyParameters();
+  }
+
+  private void applyParameters() {
+    if (variantGenerator == null) {
+      return;
+    }
+    variantGenerator.setSeed(seed);
+  }
+}
@@ -0,0 +1,153 @@
+package bdd;
+
+import static bdd.BddHelper.findOptimalAssignment;
+import static bdd.BddHelper.findOptimalAssignments;
+import static bdd.BddHelper.toLevelWeights;
+import static spl_conqueror.ProjectedEnumeration.forEachProjection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.Backbone;
+import spl_conqueror.BinaryOption;
+import spl_conqueror.BucketSession;
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariantGenerator;
+import utilities.Tuple;
+
+/**
+ * Answers the queries by traversals of the compiled diagram. Optimization queries follow the
+ * cheapest paths, which are found in one bottom-up pass.
+ */
+final class BddVariantGenerator implements VariantGenerator {
+
+  @Nonnull
+  private final BddConstraintSystemContext context;
+
+  private int seed = 1;
+
+  BddVariantGenerator(BddConstraintSystemContext context) {
+    this.context = context;
+  }
+
+  void setSeed(int seed) {
+    this.seed = seed;
+  }
+
+  @Nullable
+  @Override
+  public Configuration findMinimizedConfig(Configuration config,
+                                           Configuration unwantedOptions) {
+    // Since we are minimizing, unwanted options which are not part of the original configuration
+    // get a large weight. All other options are assigned 1 as weight.
+    long[] weights = toLevelWeights(
+        context,
+        index -> unwantedOptions.contains(index) && !config.contains(index) ? 100 : 1);
+    int[] optimalAssignment = findOptimalAssignment(context.getBdd(),
+                                                    context.getRoot(),
+                                                    context.toAssignment(config),
+                                                    weights);
+    return optimalAssignment == null ? null : context.toConfiguration(optimalAssignment);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Configuration> findAllMaximizedConfigs(Configuration config,
+                                                           Configuration unwantedOptions) {
+    // The more options selected, the smaller the cost. Unwanted options which are not part of the
+    // original configuration get a large weight.
+    long[] weights = toLevelWeights(
+        context,
+        index -> unwantedOptions.contains(index) && !config.contains(index) ? 100 : -1);
+    List<int[]> optimalAssignments = findOptimalAssignments(context.getBdd(),
+                                                            context.getRoot(),
+                                                            context.toAssignment(config),
+                                                            weights,
+                                                            -1);
+    Collection<Configuration> optimalConfigs = new ArrayList<>(optimalAssignments.size());
+    for (int[] optimalAssignment : optimalAssignments) {
+      optimalConfigs.add(context.toConfiguration(optimalAssignment));
+    }
+    return optimalConfigs;
+  }
+
+  @Override
+  public void generateUpToNConfigs(int n, Consumer<Configuration> consumer) {
+    EnumerationCursor cursor = openEnumeration();
+    cursor.next(n <= 0 ? Integer.MAX_VALUE : n, consumer);
+    cursor.close();
+  }
+
+  @Nullable
+  @Override
+  public Tuple<Configuration, Configuration> generateConfigWithoutOption(
+      Configuration config, BinaryOption optionToRemove) {
+    // forbid the selection of this configuration option
+    int[] assignment = context.freeAssignment();
+    assignment[context.getLevel(optionToRemove.getIndex())] = 0;
+
+    // prefer options of the original configuration and avoid all others
+    long[] weights = toLevelWeights(context, index -> config.contains(index) ? -1000 : 1000);
+    int[] optimalAssignment = findOptimalAssignment(context.getBdd(),
+                                                    context.getRoot(),
+                                                    assignment,
+                                                    weights);
+    if (optimalAssignment == null) {
+      return null;
+    }
+    Configuration optimalConfig = context.toConfiguration(optimalAssignment);
+    // adding the options that have been removed from the original configuration
+    Configuration removedElements = config.difference(optimalConfig);
+    return new Tuple<>(optimalConfig, removedElements);
+  }
+
+  @Override
+  public void generateAllVariants(Configuration optionsToConsider,
+                                  Consumer<Configuration> consumer) {
+    forEachProjection(context.getVariabilityModel(),
+                      optionsToConsider,
+                      this::findExtension,
+                      consumer);
+  }
+
+  @Nullable
+  private Configuration findExtension(Configuration selected, Configuration deselected) {
+    int[] assignment = context.toAssignment(selected);
+    for (int i = deselected.nextSelectedIndex(0);
+         i >= 0;
+         i = deselected.nextSelectedIndex(i + 1)) {
+      assignment[context.getLevel(i)] = 0;
+    }
+    // any path will do, so all weights are 0
+    long[] weights = new long[assignment.length];
+    int[] extension = findOptimalAssignment(context.getBdd(),
+                                            context.getRoot(),
+                                            assignment,
+                                            weights);
+    return extension == null ? null : context.toConfiguration(extension);
+  }
+
+  @Nullable
+  @Override
+  public Tuple<Configuration, Configuration> propagate(Configuration config) {
+    return Backbone.compute(context.getVariabilityModel(), config, this::findExtension);
+  }
+
+  @Nonnull
+  @Override
+  public EnumerationCursor openEnumeration() {
+    return new BddEnumerationCursor(context, context.getRoot(), seed);
+  }
+
+  @Nonnull
+  @Override
+  public BucketSession createBucketSession() {
+    return new BddBucketSession(context);
+  }
+}
@@ -0,0 +1,4 @@
+@ParametersAreNonnullByDefault
+package bdd;
+
+import javax.annotation.ParametersAreNonnullByDefault;
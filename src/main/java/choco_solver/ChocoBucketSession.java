@@ -1,30 +1,38 @@
 package choco_solver;
 
-import static choco_solver.ChocoHelper.findSolution;
+import static choco_solver.ChocoHelper.createSolver;
 import static choco_solver.ChocoHelper.selectFeatures;
+import static choco_solver.ChocoHelper.toConfiguration;
 
-import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.BoolVar;
-import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.IntVar;
 
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import spl_conqueror.BinaryOption;
 import spl_conqueror.BucketSession;
-
+import spl_conqueror.Configuration;
+
+/**
+ * Generates configurations with a given number of selected options, each one different from the
+ * configurations that have already been generated for that number. Each generated configuration
+ * is forbidden by a clause that is posted once and guarded by a variable of its bucket, so the
+ * search never visits it again and the model is only changed by these clauses.
+ */
 public final class ChocoBucketSession implements BucketSession {
 
+  /**
+   * The guard of each bucket, which switches on the clauses that forbid its configurations.
+   */
   @Nonnull
-  private final Map<Integer, Collection<Set<BinaryOption>>> buckets = new HashMap<>();
+  private final Map<Integer, BoolVar> bucketGuards = new HashMap<>();
 
   @Nonnull
   private final ChocoConstraintSystemContext context;
@@ -38,49 +46,39 @@ public final class ChocoBucketSession implements BucketSession {
 
   @Nullable
   @Override
-  public Set<BinaryOption> generateConfig(int selectedOptionsCount,
-                                          List<Set<BinaryOption>> featureRanking) {
-    Collection<Set<BinaryOption>> excludedConfigs =
-        buckets.computeIfAbsent(selectedOptionsCount, n -> new HashSet<>());
-    Set<BinaryOption> config = generateConfig(selectedOptionsCount,
-                                              featureRanking,
-                                              excludedConfigs);
-    excludedConfigs.add(config);
+  public Configuration generateConfig(int selectedOptionsCount,
+                                      List<Configuration> featureRanking) {
+    BoolVar guard = bucketGuards.computeIfAbsent(selectedOptionsCount,
+                                                 n -> context.createGuard("bucket" + n));
+    Configuration config = generateConfig(selectedOptionsCount, featureRanking, guard);
+    if (config != null) {
+      // all configurations of the bucket have the same size, so only this one selects its options
+      context.forbidSupersets(guard, config);
+    }
     return config;
   }
 
   @Nullable
-  private Set<BinaryOption> generateConfig(int selectedOptionsCount,
-                                           Iterable<Set<BinaryOption>> featureRanking,
-                                           Iterable<Set<BinaryOption>> excludedConfigs) {
+  private Configuration generateConfig(int selectedOptionsCount,
+                                       Iterable<Configuration> featureRanking,
+                                       BoolVar guard) {
+    IntVar selectedCount = context.getSelectedCount();
     context.markCheckpoint();
-    Model model = context.getModel();
-
-    // there should be exactly selectedOptionsCount features selected
-    BoolVar[] allVariables = new BoolVar[context.getVariableCount()];
-    int index = 0;
-    for (Entry<BinaryOption, Variable> entry : context.binaryOptions()) {
-      allVariables[index] = entry.getValue().asBoolVar();
-      index++;
-    }
-    model.sum(allVariables, "=", selectedOptionsCount).post();
-
-    // excluded configurations should not be considered as a solution
-    List<BinaryOption> allBinaryOptions = context.getVariabilityModel().getBinaryOptions();
-    for (Set<BinaryOption> excludedConfig : excludedConfigs) {
-      BoolVar[] ands = new BoolVar[allBinaryOptions.size()];
-      for (int i = 0; i < allBinaryOptions.size(); i++) {
-        BinaryOption option = allBinaryOptions.get(i);
-        BoolVar variable = context.getVariable(option).asBoolVar();
-        ands[i] = excludedConfig.contains(option) ? variable : variable.not();
-      }
-      model.not(model.and(ands)).post();
-    }
 
-    // if we have a feature ranking, we can use it to approximate the optimal solution
-    Set<BinaryOption> approximateOptimal = getSmallWeightConfig(featureRanking);
-    Set<BinaryOption> result;
-    result = approximateOptimal == null ? findSolution(context, seed) : approximateOptimal;
+    Configuration result;
+    try {
+      // there should be exactly selectedOptionsCount features selected
+      selectedCount.instantiateTo(selectedOptionsCount, Cause.Null);
+
+      // exclude the configurations that have already been generated for this bucket
+      guard.instantiateTo(1, Cause.Null);
+
+      // if we have a feature ranking, we can use it to approximate the optimal solution
+      Configuration approximateOptimal = getSmallWeightConfig(featureRanking);
+      result = approximateOptimal == null ? findNewSolution() : approximateOptimal;
+    } catch (ContradictionException ignored) {
+      result = null;
+    }
 
     // cleanup
     context.resetToLastCheckpoint();
@@ -88,15 +86,24 @@ public final class ChocoBucketSession implements BucketSession {
   }
 
   @Nullable
-  private Set<BinaryOption> getSmallWeightConfig(Iterable<Set<BinaryOption>> featureRanking) {
-    for (Set<BinaryOption> candidates : featureRanking) {
-      context.markCheckpoint();
+  private Configuration findNewSolution() {
+    Solver solver = createSolver(context, seed);
+    return solver.solve() ? toConfiguration(context) : null;
+  }
 
-      // force features to be selected
-      selectFeatures(context, candidates);
+  @Nullable
+  private Configuration getSmallWeightConfig(Iterable<Configuration> featureRanking) {
+    for (Configuration candidates : featureRanking) {
+      context.markCheckpoint();
 
-      // check if satisfiable
-      Set<BinaryOption> config = findSolution(context, seed);
+      // force features to be selected and check if satisfiable
+      Configuration config;
+      try {
+        selectFeatures(context, candidates);
+        config = findNewSolution();
+      } catch (ContradictionException ignored) {
+        config = null;
+      }
 
       // cleanup
       context.resetToLastCheckpoint();
@@ -1,27 +1,37 @@
 package choco_solver;
 
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.SearchState;
 import org.chocosolver.solver.variables.BoolVar;
-import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.IntVar;
 
 import java.util.ArrayDeque;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import spl_conqueror.BinaryOption;
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+import spl_conqueror.SimplifiedModel;
 import spl_conqueror.VariabilityModel;
-import utilities.Tuple;
 
+/**
+ * The variables and constraints of a variability model in a Choco model. The model is built once
+ * and kept for all queries. A query restricts the model by instantiating variables inside a
+ * world of the environment between {@link #markCheckpoint()} and
+ * {@link #resetToLastCheckpoint()}, and popping the world restores all domains. Thus, queries
+ * never post or unpost constraints. The constraints that some queries need in addition, such as a
+ * weighted sum of the options, are posted once, the first time they are needed, and are
+ * controlled by guard variables that the queries instantiate.
+ */
 final class ChocoConstraintSystemContext {
 
   @Nonnull
@@ -30,16 +40,55 @@ final class ChocoConstraintSystemContext {
   @Nonnull
   private final Model model;
 
+  /**
+   * The variable of each binary option, indexed by {@link BinaryOption#getIndex()}.
+   */
+  @Nonnull
+  private final BoolVar[] optionToVar;
+
+  /**
+   * The variables that the clauses refer to. Without a simplified model, these are the variables
+   * of the binary options.
+   */
+  @Nonnull
+  private BoolVar[] clauseVars;
+
+  /**
+   * The world index before each checkpoint.
+   */
   @Nonnull
-  private final Map<BinaryOption, Variable> optionToVar;
+  private final Deque<Integer> checkpoints;
 
+  /**
+   * The number of selected options, or null if it has not been needed yet.
+   */
+  @Nullable
+  private IntVar selectedCount;
+
+  /**
+   * The guard of each option, which marks the options whose weight differs from the weight of
+   * the others in a weighted query.
+   */
+  @Nullable
+  private BoolVar[] weightGuards;
+
+  /**
+   * The number of selected options whose guard is set.
+   */
+  @Nullable
+  private IntVar guardedCount;
+
+  /**
+   * The weighted sums that have been posted so far, by their weights.
+   */
   @Nonnull
-  private final Deque<Tuple<Integer, Integer>> checkpoints;
+  private final Map<Long, IntVar> weightedSums = new HashMap<>();
 
   private ChocoConstraintSystemContext(VariabilityModel vm) {
     this.vm = vm;
     model = new Model();
-    optionToVar = new HashMap<>();
+    optionToVar = new BoolVar[vm.getOptionCount()];
+    clauseVars = optionToVar;
     checkpoints = new ArrayDeque<>();
   }
 
@@ -47,122 +96,60 @@ final class ChocoConstraintSystemContext {
   static ChocoConstraintSystemContext from(VariabilityModel vm) {
     ChocoConstraintSystemContext context = new ChocoConstraintSystemContext(vm);
     context.createVariables();
-    context.processBinaryOptions();
-    context.processBinaryConstraints();
+    context.processClauses();
     return context;
   }
 
+  /**
+   * Creates a variable for each binary option. If the model has been simplified, core and dead
+   * options become constants and the options of an atomic set share one variable.
+   */
   private void createVariables() {
-    for (BinaryOption option : vm.getBinaryOptions()) {
-      BoolVar variable = model.boolVar(option.getName());
-      optionToVar.put(option, variable);
-    }
-  }
-
-  private void processBinaryOptions() {
-    Collection<BinaryOption> processedAlternatives = new HashSet<>();
-    for (BinaryOption option : vm.getBinaryOptions()) {
-      addVariableConstraints(option);
-      processAlternativeOptions(processedAlternatives, option);
-      processExcludedOptionsAsCrossTreeConstraints(option);
-      processImpliedOptions(option);
-    }
-  }
-
-  private void addVariableConstraints(BinaryOption option) {
-    BoolVar variable = optionToVar.get(option).asBoolVar();
-    if (option.isRoot()) {
-      variable.eq(1).post();
-    } else if (option.getParent() != null) {
-      BoolVar parentVar = optionToVar.get(option.getParent()).asBoolVar();
-      variable.imp(parentVar).post();
-      if (option.isMandatory() && !option.hasExcludedOptions()) {
-        parentVar.imp(variable).post();
+    SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
+    if (simplifiedModel == null) {
+      for (BinaryOption option : vm.getBinaryOptions()) {
+        optionToVar[option.getIndex()] = model.boolVar(option.getName());
       }
-    } else {
-      throw new IllegalArgumentException(option.getName() + " has no parent");
-    }
-  }
-
-  private void processAlternativeOptions(Collection<BinaryOption> processedAlternatives,
-                                         BinaryOption option) {
-    List<BinaryOption> options = option.collectAlternativeOptions();
-    if (options.isEmpty() || processedAlternatives.contains(option)) {
       return;
     }
-    BoolVar parentVar = optionToVar.get(option.getParent()).asBoolVar();
-    BoolVar[] alternativeGroupVars = new BoolVar[options.size() + 1];
-    alternativeGroupVars[0] = optionToVar.get(option).asBoolVar();
-    for (int i = 1; i < alternativeGroupVars.length; i++) {
-      BinaryOption o = options.get(i - 1);
-      alternativeGroupVars[i] = optionToVar.get(o).asBoolVar();
-    }
-    parentVar.imp(model.sum(alternativeGroupVars, "=", 1).reify()).post();
-    processedAlternatives.addAll(options);
-  }
-
-  private void processExcludedOptionsAsCrossTreeConstraints(BinaryOption option) {
-    Collection<List<BinaryOption>> options = option.getNonAlternativeExcludedOptions();
-    for (List<BinaryOption> nonAlternativeOption : options) {
-      BoolVar[] orVars = new BoolVar[nonAlternativeOption.size()];
-      for (int i = 0; i < orVars.length; i++) {
-        BinaryOption o = nonAlternativeOption.get(i);
-        orVars[i] = optionToVar.get(o).asBoolVar();
-      }
-      optionToVar.get(option).asBoolVar().imp(model.not(model.or(orVars)).reify()).post();
+    clauseVars = new BoolVar[simplifiedModel.getVariableCount()];
+    for (int v = 0; v < clauseVars.length; v++) {
+      String name = vm.getBinaryOption(simplifiedModel.getRepresentative(v)).getName();
+      clauseVars[v] = model.boolVar(name);
     }
-  }
-
-  private void processImpliedOptions(BinaryOption option) {
-    for (List<BinaryOption> impliedOptions : option.getImpliedOptions()) {
-      BoolVar[] orVars = new BoolVar[impliedOptions.size()];
-      for (int i = 0; i < orVars.length; i++) {
-        BinaryOption o = impliedOptions.get(i);
-        orVars[i] = optionToVar.get(o).asBoolVar();
-      }
-      optionToVar.get(option).asBoolVar().imp(model.or(orVars).reify()).post();
+    for (int i = 0; i < optionToVar.length; i++) {
+      int variable = simplifiedModel.getVariable(i);
+      optionToVar[i] = variable >= 0 ? clauseVars[variable]
+                                     : model.boolVar(variable == SimplifiedModel.SELECTED);
     }
   }
 
   /**
-   * Handle global cross-tree constraints involving multiple options.
-   * The constraints should be in conjunctive normal form.
+   * Posts each clause of the (simplified) variability model as a disjunction.
    */
-  private void processBinaryConstraints() {
-    for (String constraint : vm.getBinaryConstraints()) {
-      boolean and = false;
-      String[] terms;
-      if (constraint.contains("&")) {
-        and = true;
-        terms = constraint.split("&");
-      } else {
-        terms = constraint.split("\\|");
-      }
-
-      BoolVar[] termVars = new BoolVar[terms.length];
-      for (int i = 0; i < termVars.length; i++) {
-        String term = terms[i];
-        String optionName = term.trim();
-        if (optionName.startsWith("!")) {
-          optionName = optionName.substring(1);
-          BinaryOption option = vm.getBinaryOption(optionName);
-          termVars[i] = optionToVar.get(option).asBoolVar().not();
-        } else {
-          BinaryOption option = vm.getBinaryOption(optionName);
-          termVars[i] = optionToVar.get(option).asBoolVar();
-        }
-      }
-      if (and) {
-        model.and(termVars).post();
-      } else {
-        model.or(termVars).post();
+  private void processClauses() {
+    SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
+    ClauseDatabase clauses = simplifiedModel == null ? vm.getClauseDatabase()
+                                                     : simplifiedModel.getClauseDatabase();
+    for (int clause = 0; clause < clauses.getClauseCount(); clause++) {
+      int start = clauses.getClauseStart(clause);
+      BoolVar[] literalVars = new BoolVar[clauses.getClauseLength(clause)];
+      for (int i = 0; i < literalVars.length; i++) {
+        int literal = clauses.getLiteral(start + i);
+        BoolVar variable = clauseVars[ClauseDatabase.variable(literal)];
+        literalVars[i] = ClauseDatabase.isNegated(literal) ? variable.not() : variable;
       }
+      model.or(literalVars).post();
     }
   }
 
+  /**
+   * Returns the variables of all binary options, indexed by {@link BinaryOption#getIndex()}. The
+   * options of an atomic set share a variable.
+   */
   @Nonnull
-  public Iterable<Entry<BinaryOption, Variable>> binaryOptions() {
-    return optionToVar.entrySet();
+  BoolVar[] getVariables() {
+    return optionToVar;
   }
 
   @Nonnull
@@ -171,15 +158,12 @@ final class ChocoConstraintSystemContext {
   }
 
   int getVariableCount() {
-    return optionToVar.size();
+    return optionToVar.length;
   }
 
   @Nonnull
-  Variable getVariable(BinaryOption option) {
-    if (!optionToVar.containsKey(option)) {
-      throw new IllegalArgumentException(option.getName() + " is not used as variable");
-    }
-    return optionToVar.get(option);
+  BoolVar getVariable(BinaryOption option) {
+    return optionToVar[option.getIndex()];
   }
 
   @Nonnull
@@ -187,24 +171,111 @@ final class ChocoConstraintSystemContext {
     return vm;
   }
 
+  /**
+   * Returns a variable that is bound to the number of selected options. The constraint is posted
+   * the first time, so this must not be called inside a checkpoint.
+   */
+  @Nonnull
+  IntVar getSelectedCount() {
+    if (selectedCount == null) {
+      selectedCount = model.intVar("selectedCount", 0, optionToVar.length);
+      model.sum(optionToVar, "=", selectedCount).post();
+    }
+    return selectedCount;
+  }
+
+  /**
+   * Returns a variable that is bound to the sum of the weights of the selected options. The
+   * options that are passed to {@link #weightOptions(Configuration)} have the given weight, all
+   * others have the other weight. The constraints are posted the first time, so this must not be
+   * called inside a checkpoint.
+   */
+  @Nonnull
+  IntVar getWeightedSum(int weight, int otherWeight) {
+    if (weightGuards == null) {
+      weightGuards = new BoolVar[optionToVar.length];
+      BoolVar[] guardedVars = new BoolVar[optionToVar.length];
+      for (int i = 0; i < optionToVar.length; i++) {
+        weightGuards[i] = model.boolVar("guard" + i);
+        guardedVars[i] = model.boolVar("guarded" + i);
+        model.times(optionToVar[i], weightGuards[i], guardedVars[i]).post();
+      }
+      guardedCount = model.intVar("guardedCount", 0, optionToVar.length);
+      model.sum(guardedVars, "=", guardedCount).post();
+    }
+    long key = ((long) weight << 32) | (otherWeight & 0xFFFFFFFFL);
+    IntVar weightedSum = weightedSums.get(key);
+    if (weightedSum == null) {
+      weightedSum = model.intVar("weightedSum", IntVar.MIN_INT_BOUND, IntVar.MAX_INT_BOUND, true);
+      // each selected option counts with the other weight, guarded ones with the difference
+      model.scalar(new IntVar[]{getSelectedCount(), guardedCount},
+                   new int[]{otherWeight, weight - otherWeight},
+                   "=",
+                   weightedSum).post();
+      weightedSums.put(key, weightedSum);
+    }
+    return weightedSum;
+  }
+
+  /**
+   * Gives the given options the first weight of the weighted sums and all other options the
+   * other weight by instantiating the guards. Must be called inside a checkpoint, after
+   * {@link #getWeightedSum(int, int)}.
+   */
+  void weightOptions(Configuration options) throws ContradictionException {
+    if (weightGuards == null) {
+      throw new IllegalStateException("no weighted sum has been created");
+    }
+    for (int i = 0; i < weightGuards.length; i++) {
+      weightGuards[i].instantiateTo(options.contains(i) ? 1 : 0, Cause.Null);
+    }
+  }
+
+  /**
+   * Creates a variable that switches constraints posted by
+   * {@link #forbidSupersets(BoolVar, Configuration)} on when a query instantiates it to 1.
+   */
+  @Nonnull
+  BoolVar createGuard(String name) {
+    return model.boolVar(name);
+  }
+
+  /**
+   * Forbids all configurations that select every option of the given configuration while the
+   * guard is set. The clause is posted permanently, so this must not be called inside a
+   * checkpoint.
+   */
+  void forbidSupersets(BoolVar guard, Configuration config) {
+    BoolVar[] literalVars = new BoolVar[config.size() + 1];
+    literalVars[0] = guard.not();
+    int n = 1;
+    for (int i = config.nextSelectedIndex(0); i >= 0; i = config.nextSelectedIndex(i + 1)) {
+      literalVars[n] = optionToVar[i].not();
+      n++;
+    }
+    model.or(literalVars).post();
+  }
+
+  /**
+   * Opens a new world, in which the variables can be instantiated for a query.
+   */
   void markCheckpoint() {
-    int nbCstrs = model.getNbCstrs();
-    int nbVars = model.getNbVars();
-    Tuple<Integer, Integer> checkpoint = new Tuple<>(nbCstrs, nbVars);
-    checkpoints.push(checkpoint);
+    IEnvironment environment = model.getEnvironment();
+    checkpoints.push(environment.getWorldIndex());
+    environment.worldPush();
   }
 
+  /**
+   * Resets the solver, clears the objective of the query and restores the domains of the world
+   * before the last checkpoint.
+   */
   void resetToLastCheckpoint() {
-    Tuple<Integer, Integer> state = checkpoints.pop();
-    Integer nbCstrs = state.getFirst();
-    Integer nbVars = state.getSecond();
-    Arrays.stream(model.getCstrs(), nbCstrs, model.getNbCstrs()).forEach(model::unpost);
-    Arrays.stream(model.getVars(), nbVars, model.getNbVars()).forEach(model::unassociates);
-    model.getCachedConstants().clear();
     Solver solver = model.getSolver();
     SearchState searchState = solver.getSearchState();
     if (searchState != SearchState.NEW) {
       solver.hardReset();
     }
+    model.clearObjective();
+    model.getEnvironment().worldPopUntil(checkpoints.pop());
   }
 }
@@ -0,0 +1,53 @@
+package choco_solver;
+
+import static choco_solver.ChocoHelper.createSolver;
+import static choco_solver.ChocoHelper.toConfiguration;
+
+import org.chocosolver.solver.Solver;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * Pages through the solutions of a model of its own. Choco resumes the search from the last
+ * solution on each call of {@link Solver#solve()}, so the search tree is never traversed twice.
+ */
+final class ChocoEnumerationCursor implements EnumerationCursor {
+
+  @Nonnull
+  private final ChocoConstraintSystemContext context;
+
+  @Nonnull
+  private final Solver solver;
+
+  private boolean isExhausted;
+
+  ChocoEnumerationCursor(VariabilityModel vm, int seed) {
+    context = ChocoConstraintSystemContext.from(vm);
+    solver = createSolver(context, seed);
+  }
+
+  @Override
+  public int next(int k, Consumer<Configuration> consumer) {
+    int count = 0;
+    while (count < k && !isExhausted) {
+      if (solver.solve()) {
+        consumer.accept(toConfiguration(context));
+        count++;
+      } else {
+        isExhausted = true;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void close() {
+    isExhausted = true;
+  }
+}
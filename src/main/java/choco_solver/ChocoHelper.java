@@ -1,115 +1,189 @@
 package choco_solver;
 
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solution;
 import org.chocosolver.solver.Solver;
-import org.chocosolver.solver.search.limits.SolutionCounter;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.solver.variables.Variable;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 
 final class ChocoHelper {
 
   private ChocoHelper() {
   }
 
+  /**
+   * Instantiates the variables of the given options to 1. Must be called inside a checkpoint.
+   *
+   * @throws ContradictionException if an option cannot be selected.
+   */
   static void selectFeatures(ChocoConstraintSystemContext context,
-                             Collection<BinaryOption> selectedOptions) {
-    for (Entry<BinaryOption, Variable> entry : context.binaryOptions()) {
-      BinaryOption option = entry.getKey();
-      Variable variable = entry.getValue();
-      if (selectedOptions.contains(option)) {
-        variable.asBoolVar().eq(1).post();
-      }
+                             Configuration selectedOptions) throws ContradictionException {
+    instantiate(context, selectedOptions, 1);
+  }
+
+  /**
+   * Instantiates the variables of the given options to 0. Must be called inside a checkpoint.
+   *
+   * @throws ContradictionException if an option cannot be deselected.
+   */
+  static void deselectFeatures(ChocoConstraintSystemContext context,
+                               Configuration deselectedOptions) throws ContradictionException {
+    instantiate(context, deselectedOptions, 0);
+  }
+
+  /**
+   * Instantiates the variables of the given options to 1 and the ones of all other options to 0.
+   * Must be called inside a checkpoint.
+   *
+   * @throws ContradictionException if the configuration violates a constraint.
+   */
+  static void selectFeaturesAndDeselectAllOthers(ChocoConstraintSystemContext context,
+                                                 Configuration selectedOptions)
+      throws ContradictionException {
+    BoolVar[] variables = context.getVariables();
+    for (int i = 0; i < variables.length; i++) {
+      variables[i].instantiateTo(selectedOptions.contains(i) ? 1 : 0, Cause.Null);
     }
   }
 
   @Nullable
-  private static Set<BinaryOption> toBinaryOptions(@Nullable Solution solution,
-                                                   ChocoConstraintSystemContext context) {
+  private static Configuration toConfiguration(@Nullable Solution solution,
+                                               ChocoConstraintSystemContext context) {
     if (solution == null) {
       return null;
     }
-    Set<BinaryOption> config = new HashSet<>(context.getVariableCount());
-    for (Entry<BinaryOption, Variable> entry : context.binaryOptions()) {
-      int value = solution.getIntVal(entry.getValue().asBoolVar());
-      if (value == 1) {
-        config.add(entry.getKey());
+    Configuration.Builder config = new Configuration.Builder(context.getVariabilityModel());
+    BoolVar[] variables = context.getVariables();
+    for (int i = 0; i < variables.length; i++) {
+      if (solution.getIntVal(variables[i]) == 1) {
+        config.select(i);
       }
     }
-    return config;
+    return config.build();
   }
 
+  /**
+   * Reads the configuration from the current instantiation of the option variables.
+   */
   @Nonnull
-  private static Collection<Set<BinaryOption>> toBinaryOptions(Collection<Solution> solutions,
-                                                               ChocoConstraintSystemContext context) {
-    return solutions.stream()
-                    .map(solution -> toBinaryOptions(solution, context))
-                    .collect(Collectors.toCollection(() -> new ArrayList<>(solutions.size())));
+  static Configuration toConfiguration(ChocoConstraintSystemContext context) {
+    Configuration.Builder config = new Configuration.Builder(context.getVariabilityModel());
+    BoolVar[] variables = context.getVariables();
+    for (int i = 0; i < variables.length; i++) {
+      if (variables[i].getValue() == 1) {
+        config.select(i);
+      }
+    }
+    return config.build();
   }
 
   @Nonnull
-  private static Solver createSolver(ChocoConstraintSystemContext context, int seed) {
+  static Solver createSolver(ChocoConstraintSystemContext context, int seed) {
     Model model = context.getModel();
+    // an objective left by an earlier optimization would turn a plain search into an optimization
+    model.clearObjective();
     Solver solver = model.getSolver();
-    IntVar[] allVariables = new IntVar[context.getVariableCount()];
-    int index = 0;
-    for (Entry<BinaryOption, Variable> entry : context.binaryOptions()) {
-      allVariables[index] = (IntVar) entry.getValue();
-      index++;
-    }
-    solver.setSearch(Search.randomSearch(allVariables, seed));
+    solver.setSearch(Search.randomSearch(context.getVariables(), seed));
     return solver;
   }
 
+  private static void instantiate(ChocoConstraintSystemContext context,
+                                  Configuration options,
+                                  int value) throws ContradictionException {
+    BoolVar[] variables = context.getVariables();
+    for (int i = options.nextSelectedIndex(0); i >= 0; i = options.nextSelectedIndex(i + 1)) {
+      variables[i].instantiateTo(value, Cause.Null);
+    }
+  }
+
+  /**
+   * Searches for a solution that selects all options of <code>selected</code> and none of
+   * <code>deselected</code>. The options are instantiated inside a checkpoint, so the model is
+   * left unchanged.
+   */
   @Nullable
-  static Set<BinaryOption> findSolution(ChocoConstraintSystemContext context, int seed) {
+  static Configuration findExtension(ChocoConstraintSystemContext context,
+                                     int seed,
+                                     Configuration selected,
+                                     Configuration deselected) {
+    context.markCheckpoint();
     Solver solver = createSolver(context, seed);
-    Solution solution = solver.findSolution();
-    return toBinaryOptions(solution, context);
+
+    Configuration extension;
+    try {
+      selectFeatures(context, selected);
+      deselectFeatures(context, deselected);
+      extension = solver.solve() ? toConfiguration(context) : null;
+    } catch (ContradictionException ignored) {
+      extension = null;
+    }
+
+    // cleanup
+    context.resetToLastCheckpoint();
+    return extension;
   }
 
-  @Nonnull
-  static Collection<Set<BinaryOption>> findAllSolutions(ChocoConstraintSystemContext context,
-                                                        int seed,
-                                                        int limit) {
+  /**
+   * Passes up to <code>limit</code> solutions (all if <code>limit <= 0</code>) to the given
+   * consumer as soon as they are found. No solution is kept by the solver.
+   */
+  static void forEachSolution(ChocoConstraintSystemContext context,
+                              int seed,
+                              int limit,
+                              Consumer<Configuration> consumer) {
     Solver solver = createSolver(context, seed);
-    List<Solution> solutions = limit > 0
-                               ? solver.findAllSolutions(new SolutionCounter(context.getModel(),
-                                                                             limit))
-                               : solver.findAllSolutions();
-    return toBinaryOptions(solutions, context);
+    int count = 0;
+    while ((limit <= 0 || count < limit) && solver.solve()) {
+      consumer.accept(toConfiguration(context));
+      count++;
+    }
   }
 
   @Nullable
-  static Set<BinaryOption> findOptimalSolution(ChocoConstraintSystemContext context,
-                                               int seed,
-                                               IntVar costVar) {
+  static Configuration findOptimalSolution(ChocoConstraintSystemContext context,
+                                           int seed,
+                                           IntVar costVar) {
     Solver solver = createSolver(context, seed);
     Solution optimalSolution = solver.findOptimalSolution(costVar, false);
-    return toBinaryOptions(optimalSolution, context);
+    return toConfiguration(optimalSolution, context);
   }
 
+  /**
+   * Finds all solutions with the minimal cost. Instead of posting a constraint on the cost, which
+   * would stay in the shared model, the optimal cost is instantiated. Must be called inside a
+   * checkpoint.
+   *
+   * @throws ContradictionException if the cost cannot be instantiated.
+   */
   @Nonnull
-  static Collection<Set<BinaryOption>> findAllOptimalSolutions(ChocoConstraintSystemContext context,
-                                                               int seed,
-                                                               IntVar costVar) {
+  static Collection<Configuration> findAllOptimalSolutions(ChocoConstraintSystemContext context,
+                                                           int seed,
+                                                           IntVar costVar)
+      throws ContradictionException {
     Solver solver = createSolver(context, seed);
-    List<Solution> optimalSolutions = solver.findAllOptimalSolutions(costVar, false);
-    return toBinaryOptions(optimalSolutions, context);
+    Solution optimalSolution = solver.findOptimalSolution(costVar, false);
+    if (optimalSolution == null) {
+      return new ArrayList<>(0);
+    }
+    int optimalCost = optimalSolution.getIntVal(costVar);
+    // restore the domains of the checkpoint before restricting them further
+    solver.hardReset();
+    costVar.instantiateTo(optimalCost, Cause.Null);
+    Collection<Configuration> optimalConfigs = new ArrayList<>();
+    forEachSolution(context, seed, 0, optimalConfigs::add);
+    return optimalConfigs;
   }
 
 }
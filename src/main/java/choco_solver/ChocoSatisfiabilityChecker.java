@@ -1,20 +1,20 @@
 package choco_solver;
 
 import static choco_solver.ChocoHelper.selectFeatures;
+import static choco_solver.ChocoHelper.selectFeaturesAndDeselectAllOthers;
 
-import org.chocosolver.solver.Model;
-import org.chocosolver.solver.Solver;
-import org.chocosolver.solver.variables.Variable;
-
-import java.util.Collection;
-import java.util.Map.Entry;
-import java.util.Set;
+import org.chocosolver.solver.exception.ContradictionException;
 
 import javax.annotation.Nonnull;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.SatisfiabilityChecker;
 
+/**
+ * Checks configurations by instantiating the option variables inside a checkpoint of the context
+ * instead of posting and unposting constraints. Resetting to the checkpoint restores all domains,
+ * so the model itself is never modified. Each check still propagates the model from the root.
+ */
 final class ChocoSatisfiabilityChecker implements SatisfiabilityChecker {
 
   @Nonnull
@@ -24,34 +24,24 @@ final class ChocoSatisfiabilityChecker implements SatisfiabilityChecker {
     this.context = context;
   }
 
-  private static void selectFeaturesAndDeselectAllOthers(ChocoConstraintSystemContext context,
-                                                         Collection<BinaryOption> selectedOptions) {
-    for (Entry<BinaryOption, Variable> entry : context.binaryOptions()) {
-      BinaryOption option = entry.getKey();
-      Variable variable = entry.getValue();
-      if (selectedOptions.contains(option)) {
-        variable.asBoolVar().eq(1).post();
-      } else {
-        variable.asBoolVar().eq(0).post();
-      }
-    }
-  }
-
   @Override
-  public boolean isValid(Set<BinaryOption> selectedOptions, boolean isPartialConfiguration) {
+  public boolean isValid(Configuration selectedOptions, boolean isPartialConfiguration) {
     context.markCheckpoint();
-    Model model = context.getModel();
 
-    // feature selection
-    if (isPartialConfiguration) {
-      selectFeatures(context, selectedOptions);
-    } else {
-      selectFeaturesAndDeselectAllOthers(context, selectedOptions);
-    }
+    boolean isSolvable;
+    try {
+      // feature selection
+      if (isPartialConfiguration) {
+        selectFeatures(context, selectedOptions);
+      } else {
+        selectFeaturesAndDeselectAllOthers(context, selectedOptions);
+      }
 
-    // check if configuration is valid
-    Solver solver = model.getSolver();
-    boolean isSolvable = solver.solve();
+      // check if configuration is valid
+      isSolvable = context.getModel().getSolver().solve();
+    } catch (ContradictionException ignored) {
+      isSolvable = false;
+    }
 
     // cleanup
     context.resetToLastCheckpoint();
@@ -24,6 +24,8 @@ public final class ChocoSolverFacade implements SolverFacade {
 
   private int seed = 1;
 
+  private int parallelism = 1;
+
   public ChocoSolverFacade(VariabilityModel vm) {
     context = ChocoConstraintSystemContext.from(vm);
   }
@@ -52,6 +54,9 @@ public final class ChocoSolverFacade implements SolverFacade {
     if (parameters.containsKey(SolverParameterKeys.RANDOM_SEED)) {
       seed = Integer.parseInt(parameters.get(SolverParameterKeys.RANDOM_SEED));
     }
+    if (parameters.containsKey(SolverParameterKeys.PARALLELISM)) {
+      parallelism = Integer.parseInt(parameters.get(SolverParameterKeys.PARALLELISM));
+    }
     applyParameters();
   }
 
@@ -60,5 +65,6 @@ public final class ChocoSolverFacade implements SolverFacade {
       return;
     }
     variantGenerator.setSeed(seed);
+    variantGenerator.setParallelism(parallelism);
   }
 }
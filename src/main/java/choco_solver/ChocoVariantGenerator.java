@@ -1,26 +1,32 @@
 package choco_solver;
 
+import static choco_solver.ChocoHelper.deselectFeatures;
 import static choco_solver.ChocoHelper.findAllOptimalSolutions;
+import static choco_solver.ChocoHelper.findExtension;
 import static choco_solver.ChocoHelper.findOptimalSolution;
-import static choco_solver.ChocoHelper.findAllSolutions;
+import static choco_solver.ChocoHelper.forEachSolution;
 import static choco_solver.ChocoHelper.selectFeatures;
+import static spl_conqueror.ProjectedEnumeration.forEachProjection;
+import static spl_conqueror.ProjectedEnumeration.forEachProjectionInParallel;
 
-import org.chocosolver.solver.Model;
-import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.solver.variables.Variable;
 
 import java.util.Collection;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import spl_conqueror.Backbone;
 import spl_conqueror.BinaryOption;
 import spl_conqueror.BucketSession;
+import spl_conqueror.Configuration;
+import spl_conqueror.CubeSplitting;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariabilityModel;
 import spl_conqueror.VariantGenerator;
 import utilities.Tuple;
 
@@ -31,50 +37,44 @@ class ChocoVariantGenerator implements VariantGenerator {
 
   private int seed;
 
+  /**
+   * The number of threads of a complete enumeration. The enumeration is split into cubes with a
+   * model of their own if it is greater than 1.
+   */
+  private int parallelism = 1;
+
   ChocoVariantGenerator(ChocoConstraintSystemContext context) {
     this.context = context;
   }
 
-  @Nonnull
-  private static IntVar addOptionWeighting(ChocoConstraintSystemContext context,
-                                           Function<BinaryOption, Integer> weightingFunction) {
-    Model model = context.getModel();
-    BoolVar[] goals = new BoolVar[context.getVariableCount()];
-    int[] coefficients = new int[context.getVariableCount()];
-    int index = 0;
-    for (Entry<BinaryOption, Variable> entry : context.binaryOptions()) {
-      BinaryOption option = entry.getKey();
-      goals[index] = entry.getValue().asBoolVar();
-      coefficients[index] = weightingFunction.apply(option);
-      index++;
-    }
-    IntVar sumVar = model.intVar("sumVar", IntVar.MIN_INT_BOUND,
-                                 IntVar.MAX_INT_BOUND, true);
-    model.scalar(goals, coefficients, "=", sumVar).post();
-    return sumVar;
-  }
-
   void setSeed(int seed) {
     this.seed = seed;
   }
 
+  void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
   @Nullable
   @Override
-  public Set<BinaryOption> findMinimizedConfig(Set<BinaryOption> config,
-                                               Set<BinaryOption> unwantedOptions) {
-    context.markCheckpoint();
-
-    selectFeatures(context, config);
-
+  public Configuration findMinimizedConfig(Configuration config,
+                                           Configuration unwantedOptions) {
     // Since we are minimizing, unwanted options which are not part of the original configuration
     // get a large weight. This way, it is unlikely (but not impossible) that they are selected.
     // All other options are assigned 1 as weight, meaning they are not weighted at all.
-    IntVar sumVar = addOptionWeighting(
-        context,
-        option -> unwantedOptions.contains(option) && !config.contains(option) ? 100 : 1);
+    IntVar sumVar = context.getWeightedSum(100, 1);
+    context.markCheckpoint();
+
+    Configuration optimalConfig;
+    try {
+      selectFeatures(context, config);
+      context.weightOptions(unwantedOptions.difference(config));
 
-    // find an optimal solution
-    Set<BinaryOption> optimalConfig = findOptimalSolution(context, seed, sumVar);
+      // find an optimal solution
+      optimalConfig = findOptimalSolution(context, seed, sumVar);
+    } catch (ContradictionException ignored) {
+      optimalConfig = null;
+    }
 
     // cleanup
     context.resetToLastCheckpoint();
@@ -83,69 +83,87 @@ class ChocoVariantGenerator implements VariantGenerator {
 
   @Nonnull
   @Override
-  public Collection<Set<BinaryOption>> findAllMaximizedConfigs(Set<BinaryOption> config,
-                                                               Set<BinaryOption> unwantedOptions) {
-    context.markCheckpoint();
-
-    selectFeatures(context, config);
-
+  public Collection<Configuration> findAllMaximizedConfigs(Configuration config,
+                                                           Configuration unwantedOptions) {
     // Since we are minimizing, unwanted options which are not part of the original configuration
     // get a large weight. This way, it is unlikely (but not impossible) that they are selected.
     // All other options are assigned -1 as weight. Out goal is to maximize the number of
     // selected options, i.e., the more options selected, the better/smaller the cost.
-    IntVar sumVar = addOptionWeighting(
-        context,
-        option -> unwantedOptions.contains(option) && !config.contains(option) ? 100 : -1);
+    IntVar sumVar = context.getWeightedSum(100, -1);
+    context.markCheckpoint();
 
-    // find all optimal solutions
-    Collection<Set<BinaryOption>> optimalConfigs = findAllOptimalSolutions(context, seed, sumVar);
+    Collection<Configuration> optimalConfigs;
+    try {
+      selectFeatures(context, config);
+      context.weightOptions(unwantedOptions.difference(config));
+
+      // find all optimal solutions
+      optimalConfigs = findAllOptimalSolutions(context, seed, sumVar);
+    } catch (ContradictionException ignored) {
+      optimalConfigs = Collections.emptyList();
+    }
 
     // cleanup
     context.resetToLastCheckpoint();
     return optimalConfigs;
   }
 
-  @Nonnull
   @Override
-  public Collection<Set<BinaryOption>> generateUpToNConfigs(int n) {
+  public void generateUpToNConfigs(int n, Consumer<Configuration> consumer) {
+    if (n <= 0 && parallelism > 1) {
+      VariabilityModel vm = context.getVariabilityModel();
+      CubeSplitting.forEachInParallel(vm, parallelism, (selected, deselected, cubeConsumer) -> {
+        ChocoConstraintSystemContext cubeContext = ChocoConstraintSystemContext.from(vm);
+        cubeContext.markCheckpoint();
+        try {
+          selectFeatures(cubeContext, selected);
+          deselectFeatures(cubeContext, deselected);
+          forEachSolution(cubeContext, seed, 0, cubeConsumer);
+        } catch (ContradictionException ignored) {
+          // the cube is empty
+        }
+        cubeContext.resetToLastCheckpoint();
+      }, consumer);
+      return;
+    }
+
     context.markCheckpoint();
 
     // find solutions
-    Collection<Set<BinaryOption>> configs = findAllSolutions(context, seed, n);
+    forEachSolution(context, seed, n, consumer);
 
     // cleanup
     context.resetToLastCheckpoint();
-    return configs;
   }
 
   @Nullable
   @Override
-  public Tuple<Set<BinaryOption>, Set<BinaryOption>> generateConfigWithoutOption(
-      Set<BinaryOption> config, BinaryOption optionToRemove) {
-    context.markCheckpoint();
-
-    // forbid the selection of this configuration option
-    context.getVariable(optionToRemove).asBoolVar().eq(0).post();
-
+  public Tuple<Configuration, Configuration> generateConfigWithoutOption(
+      Configuration config, BinaryOption optionToRemove) {
     // Since we are minimizing, we use a large negative value for options contained in the original
     // configuration to increase chances that the option gets selected again. A positive value
     // will lead to a small chance that this option gets selected when it is not part of the
     // original configuration.
-    IntVar sumVar = addOptionWeighting(context,
-                                       option -> config.contains(option) ? -1000 : 1000);
+    IntVar sumVar = context.getWeightedSum(-1000, 1000);
+    context.markCheckpoint();
 
-    // find an optimal solution
-    Set<BinaryOption> optimalConfig = findOptimalSolution(context, seed, sumVar);
-    Tuple<Set<BinaryOption>, Set<BinaryOption>> result;
-    if (optimalConfig == null) {
+    Tuple<Configuration, Configuration> result;
+    try {
+      // forbid the selection of this configuration option
+      context.getVariable(optionToRemove).instantiateTo(0, Cause.Null);
+      context.weightOptions(config);
+
+      // find an optimal solution
+      Configuration optimalConfig = findOptimalSolution(context, seed, sumVar);
+      if (optimalConfig == null) {
+        result = null;
+      } else {
+        // adding the options that have been removed from the original configuration
+        Configuration removedElements = config.difference(optimalConfig);
+        result = new Tuple<>(optimalConfig, removedElements);
+      }
+    } catch (ContradictionException ignored) {
       result = null;
-    } else {
-      // adding the options that have been removed from the original configuration
-      Set<BinaryOption> removedElements
-          = config.stream()
-                  .filter(option -> !optimalConfig.contains(option))
-                  .collect(Collectors.toSet());
-      result = new Tuple<>(optimalConfig, removedElements);
     }
 
     // cleanup
@@ -153,22 +171,38 @@ class ChocoVariantGenerator implements VariantGenerator {
     return result;
   }
 
-  @Nonnull
   @Override
-  public Collection<Set<BinaryOption>> generateAllVariants(Set<BinaryOption> optionsToConsider) {
-    context.markCheckpoint();
+  public void generateAllVariants(Configuration optionsToConsider,
+                                  Consumer<Configuration> consumer) {
+    if (parallelism > 1) {
+      VariabilityModel vm = context.getVariabilityModel();
+      forEachProjectionInParallel(vm, optionsToConsider, () -> {
+        ChocoConstraintSystemContext cubeContext = ChocoConstraintSystemContext.from(vm);
+        return (selected, deselected) -> findExtension(cubeContext, seed, selected, deselected);
+      }, parallelism, consumer);
+      return;
+    }
+    forEachProjection(context.getVariabilityModel(),
+                      optionsToConsider,
+                      (selected, deselected) -> findExtension(context, seed, selected, deselected),
+                      consumer);
+  }
 
-    // find all solutions
-    Collection<Set<BinaryOption>> allVariants
-        = findAllSolutions(context, seed, -1)
-        .stream()
-        .peek(config -> config.retainAll(optionsToConsider))
-        .filter(binaryOptions -> !binaryOptions.isEmpty())
-        .collect(Collectors.toSet());
+  @Nullable
+  @Override
+  public Tuple<Configuration, Configuration> propagate(Configuration config) {
+    return Backbone.compute(context.getVariabilityModel(),
+                            config,
+                            (selected, deselected) -> findExtension(context,
+                                                                    seed,
+                                                                    selected,
+                                                                    deselected));
+  }
 
-    // cleanup
-    context.resetToLastCheckpoint();
-    return allVariants;
+  @Nonnull
+  @Override
+  public EnumerationCursor openEnumeration() {
+    return new ChocoEnumerationCursor(context.getVariabilityModel(), seed);
   }
 
   @Nonnull
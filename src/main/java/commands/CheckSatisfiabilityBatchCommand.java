@@ -0,0 +1,50 @@
+package commands;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import option_coding.OptionCoding;
+import spl_conqueror.Configuration;
+import spl_conqueror.ConfigurationValidator;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+
+public final class CheckSatisfiabilityBatchCommand extends ShellCommand {
+
+  public CheckSatisfiabilityBatchCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  private static List<Configuration> decodeConfigs(String str, OptionCoding coding) {
+    String[] configTokens = str.split(";");
+    List<Configuration> configs = new ArrayList<>(configTokens.length);
+    for (String configToken : configTokens) {
+      configs.add(coding.decodeBinaryOptions(configToken));
+    }
+    return configs;
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    String[] tokens = argsString.split(" ");
+    if (tokens.length < 1 || !"complete".equals(tokens[0])) {
+      return error("complete not specified");
+    }
+    if (tokens.length < 2) {
+      return error("no configurations specified");
+    }
+    List<Configuration> configs = decodeConfigs(tokens[1], context.getOptionCoding());
+    ConfigurationValidator validator = context.getVariabilityModel().getConfigurationValidator();
+    BitSet valid = validator.areValid(configs);
+    StringBuilder sb = new StringBuilder(configs.size());
+    for (int i = 0; i < configs.size(); i++) {
+      sb.append(valid.get(i) ? '1' : '0');
+    }
+    return sb.toString();
+  }
+}
@@ -1,10 +1,9 @@
 package commands;
 
-import java.util.Set;
-
 import javax.annotation.Nonnull;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
+import spl_conqueror.ConfigurationValidator;
 import spl_conqueror.SatisfiabilityChecker;
 import utilities.GlobalContext;
 import utilities.ShellCommand;
@@ -36,7 +35,16 @@ public final class CheckSatisfiabilityCommand extends ShellCommand {
     if (tokens.length < 2) {
       return error("no configuration specified");
     }
-    Set<BinaryOption> config = context.getOptionCoding().decodeBinaryOptions(tokens[1]);
+    Configuration config = context.getOptionCoding().decodeBinaryOptions(tokens[1]);
+    if (!isPartialConfiguration) {
+      // complete configurations can be evaluated directly, regardless of the selected solver
+      ConfigurationValidator validator = context.getVariabilityModel().getConfigurationValidator();
+      return String.valueOf(validator.isValid(config));
+    }
+    if (context.getVariabilityModel().getImplicationIndex().isContradictory(config)) {
+      // contradictory selections are rejected before invoking the selected solver
+      return String.valueOf(false);
+    }
     SatisfiabilityChecker satChecker = context.getSolverFacade().getSatisfiabilityChecker();
     boolean valid = satChecker.isValid(config, isPartialConfiguration);
     return String.valueOf(valid);
@@ -0,0 +1,31 @@
+package commands;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.EnumerationCursor;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+
+public final class CloseEnumerationCommand extends ShellCommand {
+
+  public CloseEnumerationCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    int cursorId;
+    try {
+      cursorId = Integer.parseInt(argsString);
+    } catch (NumberFormatException e) {
+      return error("invalid number '" + argsString + '\'');
+    }
+    EnumerationCursor cursor = context.removeCursor(cursorId);
+    if (cursor == null) {
+      return error("unknown cursor " + cursorId);
+    }
+    cursor.close();
+    return DEFAULT_SUCCESS_RESPONSE;
+  }
+}
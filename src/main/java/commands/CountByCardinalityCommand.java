@@ -0,0 +1,30 @@
+package commands;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+
+public final class CountByCardinalityCommand extends ShellCommand {
+
+  public CountByCardinalityCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    VariabilityModel vm = context.getVariabilityModel();
+    Configuration partialConfig = argsString.isEmpty()
+                                  ? Configuration.empty(vm)
+                                  : context.getOptionCoding().decodeBinaryOptions(argsString);
+    BigInteger[] counts = context.getDdnnf().countByCardinality(partialConfig);
+    return Arrays.stream(counts).map(BigInteger::toString).collect(Collectors.joining(","));
+  }
+}
@@ -0,0 +1,48 @@
+package commands;
+
+import javax.annotation.Nonnull;
+
+import sat.ComponentCachingCounter;
+import sat.DecomposedCounter;
+import spl_conqueror.Configuration;
+import spl_conqueror.ModelCounter;
+import spl_conqueror.SimplifiedModel;
+import spl_conqueror.VariabilityModel;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+
+public final class CountConfigsCommand extends ShellCommand {
+
+  public CountConfigsCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    VariabilityModel vm = context.getVariabilityModel();
+    Configuration partialConfig = argsString.isEmpty()
+                                  ? Configuration.empty(vm)
+                                  : context.getOptionCoding().decodeBinaryOptions(argsString);
+    // prefer the counter of the selected solver or a compiled d-DNNF, otherwise use the counter
+    // that only depends on the variability model
+    ModelCounter counter = context.hasSolverFacade()
+                           ? context.getSolverFacade().getModelCounter()
+                           : null;
+    if (counter == null && context.hasDdnnf()) {
+      counter = context.getDdnnf();
+    }
+    if (counter == null) {
+      counter = context.getModelCounter();
+    }
+    if (counter == null) {
+      // the components of the simplified model are counted on their own
+      SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
+      counter = simplifiedModel == null
+                ? ComponentCachingCounter.from(vm.getClauseDatabase())
+                : DecomposedCounter.from(simplifiedModel);
+      context.setModelCounter(counter);
+    }
+    return counter.countConfigurations(partialConfig).toString();
+  }
+}
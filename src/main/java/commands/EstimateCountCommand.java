@@ -0,0 +1,42 @@
+package commands;
+
+import javax.annotation.Nonnull;
+
+import sat.ApproximateCounter;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+import utilities.SolverParameterKeys;
+
+public final class EstimateCountCommand extends ShellCommand {
+
+  public EstimateCountCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    String[] tokens = argsString.split(" ");
+    if (tokens.length < 2) {
+      return error("epsilon or delta not specified");
+    }
+    double epsilon;
+    double delta;
+    try {
+      epsilon = Double.parseDouble(tokens[0]);
+      delta = Double.parseDouble(tokens[1]);
+    } catch (NumberFormatException e) {
+      return error("invalid number");
+    }
+    if (!(epsilon > 0) || !(delta > 0 && delta < 1)) {
+      return error("epsilon must be positive and delta must be between 0 and 1");
+    }
+    ApproximateCounter counter = ApproximateCounter.from(
+        context.getVariabilityModel().getClauseDatabase());
+    String seed = context.getSolverParameter(SolverParameterKeys.RANDOM_SEED);
+    if (seed != null) {
+      counter.setSeed(Long.parseLong(seed));
+    }
+    return counter.estimateCount(epsilon, delta).toString();
+  }
+}
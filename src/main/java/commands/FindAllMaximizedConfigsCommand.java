@@ -1,13 +1,11 @@
 package commands;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 
 import option_coding.OptionCoding;
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariantGenerator;
 import utilities.GlobalContext;
 import utilities.ShellCommand;
@@ -23,15 +21,19 @@ public final class FindAllMaximizedConfigsCommand extends ShellCommand {
   public String execute(String argsString) {
     String[] tokens = argsString.split(" ");
     OptionCoding coding = context.getOptionCoding();
-    Set<BinaryOption> config = tokens.length < 1 || tokens[0].isEmpty()
-                               ? Collections.emptySet()
-                               : coding.decodeBinaryOptions(tokens[0]);
-    Set<BinaryOption> unwantedOptions = tokens.length < 2 ? Collections.emptySet()
-                                                          : coding.decodeBinaryOptions(tokens[1]);
+    Configuration config = tokens.length < 1 || tokens[0].isEmpty()
+                           ? Configuration.empty(context.getVariabilityModel())
+                           : coding.decodeBinaryOptions(tokens[0]);
+    Configuration unwantedOptions = tokens.length < 2
+                                    ? Configuration.empty(context.getVariabilityModel())
+                                    : coding.decodeBinaryOptions(tokens[1]);
 
+    if (context.getVariabilityModel().getImplicationIndex().isContradictory(config)) {
+      return "none";
+    }
     VariantGenerator vg = context.getSolverFacade().getVariantGenerator();
-    Collection<Set<BinaryOption>> optimalConfigs = vg.findAllMaximizedConfigs(config,
-                                                                              unwantedOptions);
+    Collection<Configuration> optimalConfigs = vg.findAllMaximizedConfigs(config,
+                                                                          unwantedOptions);
     return optimalConfigs.isEmpty() ? "none" : coding.encodeBinaryOptionsIterable(optimalConfigs);
   }
 }
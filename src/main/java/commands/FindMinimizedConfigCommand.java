@@ -1,12 +1,9 @@
 package commands;
 
-import java.util.Collections;
-import java.util.Set;
-
 import javax.annotation.Nonnull;
 
 import option_coding.OptionCoding;
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariantGenerator;
 import utilities.GlobalContext;
 import utilities.ShellCommand;
@@ -26,12 +23,16 @@ public final class FindMinimizedConfigCommand extends ShellCommand {
     }
     OptionCoding coding = context.getOptionCoding();
     String optionsString = tokens[0];
-    Set<BinaryOption> config = coding.decodeBinaryOptions(optionsString);
-    Set<BinaryOption> unwantedOptions = tokens.length < 2 ? Collections.emptySet()
-                                                          : coding.decodeBinaryOptions(tokens[1]);
+    Configuration config = coding.decodeBinaryOptions(optionsString);
+    Configuration unwantedOptions = tokens.length < 2
+                                    ? Configuration.empty(context.getVariabilityModel())
+                                    : coding.decodeBinaryOptions(tokens[1]);
 
+    if (context.getVariabilityModel().getImplicationIndex().isContradictory(config)) {
+      return "none";
+    }
     VariantGenerator vg = context.getSolverFacade().getVariantGenerator();
-    Set<BinaryOption> optimalConfig = vg.findMinimizedConfig(config, unwantedOptions);
+    Configuration optimalConfig = vg.findMinimizedConfig(config, unwantedOptions);
     return optimalConfig == null ? "none" : coding.encodeBinaryOptions(optimalConfig);
   }
 }
@@ -1,14 +1,12 @@
 package commands;
 
-import java.util.Collection;
-import java.util.Set;
-
 import javax.annotation.Nonnull;
 
 import option_coding.OptionCoding;
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariantGenerator;
 import utilities.GlobalContext;
+import utilities.ResponseWriter;
 import utilities.ShellCommand;
 
 public final class GenerateAllVariantsCommand extends ShellCommand {
@@ -20,15 +18,25 @@ public final class GenerateAllVariantsCommand extends ShellCommand {
   @Nonnull
   @Override
   public String execute(String argsString) {
+    return executeBuffered(argsString);
+  }
+
+  @Override
+  public void execute(String argsString, ResponseWriter writer) {
     String[] tokens = argsString.split(" ");
     if (tokens.length < 1 || tokens[0].length() < 1) {
-      return error("no options specified");
+      writer.writeError("no options specified");
+      return;
     }
     OptionCoding coding = context.getOptionCoding();
-    Set<BinaryOption> optionsToConsider = coding.decodeBinaryOptions(tokens[0]);
+    Configuration optionsToConsider = coding.decodeBinaryOptions(tokens[0]);
 
     VariantGenerator vg = context.getSolverFacade().getVariantGenerator();
-    Collection<Set<BinaryOption>> allVariants = vg.generateAllVariants(optionsToConsider);
-    return allVariants.isEmpty() ? "none" : coding.encodeBinaryOptionsIterable(allVariants);
+    vg.generateAllVariants(optionsToConsider,
+                           variant -> writer.writeConfiguration(
+                               coding.encodeBinaryOptions(variant)));
+    if (writer.isEmpty()) {
+      writer.write("none");
+    }
   }
 }
@@ -7,13 +7,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
 import option_coding.OptionCoding;
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.BucketSession;
 import spl_conqueror.VariantGenerator;
 import utilities.GlobalContext;
@@ -26,13 +25,13 @@ public final class GenerateConfigFromBucketCommand extends ShellCommand {
   }
 
   @Nonnull
-  private static Map<Set<BinaryOption>, Integer> decodeFeatureWeightMap(String str,
-                                                                        OptionCoding coding) {
+  private static Map<Configuration, Integer> decodeFeatureWeightMap(String str,
+                                                                    OptionCoding coding) {
     String[] entryTokens = str.split(";");
-    Map<Set<BinaryOption>, Integer> map = new HashMap<>(entryTokens.length);
+    Map<Configuration, Integer> map = new HashMap<>(entryTokens.length);
     for (String entryToken : entryTokens) {
       String[] tokens = entryToken.split("=");
-      Set<BinaryOption> config = coding.decodeBinaryOptions(tokens[0]);
+      Configuration config = coding.decodeBinaryOptions(tokens[0]);
       int weight = Integer.parseInt(tokens[1]);
       map.put(config, weight);
     }
@@ -52,7 +51,7 @@ public final class GenerateConfigFromBucketCommand extends ShellCommand {
     } catch (NumberFormatException e) {
       return error("invalid number");
     }
-    Map<Set<BinaryOption>, Integer> featureWeight;
+    Map<Configuration, Integer> featureWeight;
     OptionCoding coding = context.getOptionCoding();
     featureWeight = tokens.length < 2 ? Collections.emptyMap()
                                       : decodeFeatureWeightMap(tokens[1], coding);
@@ -62,13 +61,13 @@ public final class GenerateConfigFromBucketCommand extends ShellCommand {
       bucketSession = vg.createBucketSession();
       context.setBucketSession(bucketSession);
     }
-    List<Set<BinaryOption>> featureRanking
+    List<Configuration> featureRanking
         = featureWeight.entrySet()
                        .stream()
                        .sorted(comparing(Entry::getValue))
                        .map(Entry::getKey)
                        .collect(Collectors.toList());
-    Set<BinaryOption> config = bucketSession.generateConfig(selectedOptionsCount, featureRanking);
+    Configuration config = bucketSession.generateConfig(selectedOptionsCount, featureRanking);
     return config == null ? "none" : coding.encodeBinaryOptions(config);
   }
 }
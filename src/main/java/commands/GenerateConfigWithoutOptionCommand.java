@@ -1,11 +1,11 @@
 package commands;
 
-import java.util.Set;
-
 import javax.annotation.Nonnull;
 
 import option_coding.OptionCoding;
 import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
 import spl_conqueror.VariantGenerator;
 import utilities.GlobalContext;
 import utilities.ShellCommand;
@@ -25,20 +25,26 @@ public final class GenerateConfigWithoutOptionCommand extends ShellCommand {
       return error("no configuration specified");
     }
     OptionCoding coding = context.getOptionCoding();
-    Set<BinaryOption> config = coding.decodeBinaryOptions(tokens[0]);
+    Configuration config = coding.decodeBinaryOptions(tokens[0]);
     if (tokens.length < 2) {
       return error("no option specified");
     }
     BinaryOption optionToRemove = coding.decodeBinaryOption(tokens[1]);
+    VariabilityModel vm = context.getVariabilityModel();
+    Configuration removedOption = new Configuration.Builder(vm).select(optionToRemove).build();
+    if (vm.getImplicationIndex().isContradictory(Configuration.empty(vm), removedOption)) {
+      // the option cannot be removed from any configuration
+      return "none";
+    }
 
     VariantGenerator vg = context.getSolverFacade().getVariantGenerator();
-    Tuple<Set<BinaryOption>, Set<BinaryOption>> result
+    Tuple<Configuration, Configuration> result
         = vg.generateConfigWithoutOption(config, optionToRemove);
     if (result == null) {
       return "none";
     } else {
-      Set<BinaryOption> newConfig = result.getFirst();
-      Set<BinaryOption> removedOptions = result.getSecond();
+      Configuration newConfig = result.getFirst();
+      Configuration removedOptions = result.getSecond();
       return String.format("%s %s",
                            coding.encodeBinaryOptions(newConfig),
                            coding.encodeBinaryOptions(removedOptions));
@@ -1,14 +1,11 @@
 package commands;
 
-import java.util.Collection;
-import java.util.Set;
-
 import javax.annotation.Nonnull;
 
 import option_coding.OptionCoding;
-import spl_conqueror.BinaryOption;
 import spl_conqueror.VariantGenerator;
 import utilities.GlobalContext;
+import utilities.ResponseWriter;
 import utilities.ShellCommand;
 
 public final class GenerateUpToNConfigsCommand extends ShellCommand {
@@ -20,15 +17,25 @@ public final class GenerateUpToNConfigsCommand extends ShellCommand {
   @Nonnull
   @Override
   public String execute(String argsString) {
+    return executeBuffered(argsString);
+  }
+
+  @Override
+  public void execute(String argsString, ResponseWriter writer) {
     int count;
     try {
       count = Integer.parseInt(argsString);
     } catch (NumberFormatException e) {
-      return error("invalid number '" + argsString + '\'');
+      writer.writeError("invalid number '" + argsString + '\'');
+      return;
     }
     VariantGenerator vg = context.getSolverFacade().getVariantGenerator();
-    Collection<Set<BinaryOption>> configs = vg.generateUpToNConfigs(count);
     OptionCoding optionCoding = context.getOptionCoding();
-    return configs.isEmpty() ? "none" : optionCoding.encodeBinaryOptionsIterable(configs);
+    vg.generateUpToNConfigs(count,
+                            config -> writer.writeConfiguration(
+                                optionCoding.encodeBinaryOptions(config)));
+    if (writer.isEmpty()) {
+      writer.write("none");
+    }
   }
 }
@@ -3,11 +3,15 @@ package commands;
 import org.dom4j.DocumentException;
 import org.dom4j.Element;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import javax.annotation.Nonnull;
 
+import ddnnf.Ddnnf;
+import sat.ModelSimplifier;
 import spl_conqueror.VariabilityModel;
 import utilities.GlobalContext;
 import utilities.ShellCommand;
@@ -26,10 +30,30 @@ public final class LoadVMCommand extends ShellCommand {
       Path path = Paths.get(argsString);
       Element element = XMLUtils.loadXML(path);
       VariabilityModel variabilityModel = new VariabilityModel(element);
+      variabilityModel.setSimplifiedModel(
+          ModelSimplifier.simplify(variabilityModel.getClauseDatabase()));
       context.setVariabilityModel(variabilityModel);
+      loadDdnnf(path, variabilityModel);
       return DEFAULT_SUCCESS_RESPONSE;
     } catch (DocumentException ex) {
       return error("unable to load model: " + ex.getMessage());
     }
   }
+
+  /**
+   * Maps the d-DNNF that has been compiled for the model before, which is saved next to the
+   * model.
+   */
+  private void loadDdnnf(Path modelPath, VariabilityModel vm) {
+    String fileName = modelPath.getFileName().toString().replaceFirst("\\.xml$", "");
+    Path ddnnfPath = modelPath.resolveSibling(fileName + ".ddnnf");
+    context.setDdnnfPath(ddnnfPath);
+    if (Files.isRegularFile(ddnnfPath)) {
+      try {
+        context.setDdnnf(Ddnnf.map(ddnnfPath, vm));
+      } catch (IOException ignored) {
+        // the circuit is compiled again when it is needed
+      }
+    }
+  }
 }
@@ -0,0 +1,51 @@
+package commands;
+
+import javax.annotation.Nonnull;
+
+import option_coding.OptionCoding;
+import spl_conqueror.EnumerationCursor;
+import utilities.GlobalContext;
+import utilities.ResponseWriter;
+import utilities.ShellCommand;
+
+public final class NextCommand extends ShellCommand {
+
+  public NextCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    return executeBuffered(argsString);
+  }
+
+  @Override
+  public void execute(String argsString, ResponseWriter writer) {
+    String[] tokens = argsString.split(" ");
+    if (tokens.length < 2) {
+      writer.writeError("cursor or number not specified");
+      return;
+    }
+    int cursorId;
+    int count;
+    try {
+      cursorId = Integer.parseInt(tokens[0]);
+      count = Integer.parseInt(tokens[1]);
+    } catch (NumberFormatException e) {
+      writer.writeError("invalid number");
+      return;
+    }
+    EnumerationCursor cursor = context.getCursor(cursorId);
+    if (cursor == null) {
+      writer.writeError("unknown cursor " + cursorId);
+      return;
+    }
+    OptionCoding optionCoding = context.getOptionCoding();
+    cursor.next(count, config -> writer.writeConfiguration(
+        optionCoding.encodeBinaryOptions(config)));
+    if (writer.isEmpty()) {
+      writer.write("none");
+    }
+  }
+}
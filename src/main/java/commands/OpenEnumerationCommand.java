@@ -0,0 +1,23 @@
+package commands;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariantGenerator;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+
+public final class OpenEnumerationCommand extends ShellCommand {
+
+  public OpenEnumerationCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    VariantGenerator vg = context.getSolverFacade().getVariantGenerator();
+    EnumerationCursor cursor = vg.openEnumeration();
+    return Integer.toString(context.addCursor(cursor));
+  }
+}
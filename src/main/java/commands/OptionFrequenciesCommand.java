@@ -0,0 +1,40 @@
+package commands;
+
+import java.math.BigDecimal;
+import java.util.StringJoiner;
+
+import javax.annotation.Nonnull;
+
+import option_coding.OptionCoding;
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+
+public final class OptionFrequenciesCommand extends ShellCommand {
+
+  public OptionFrequenciesCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    VariabilityModel vm = context.getVariabilityModel();
+    OptionCoding optionCoding = context.getOptionCoding();
+    Configuration partialConfig = argsString.isEmpty()
+                                  ? Configuration.empty(vm)
+                                  : optionCoding.decodeBinaryOptions(argsString);
+    BigDecimal[] frequencies = context.getDdnnf().computeFrequencies(partialConfig);
+    if (frequencies == null) {
+      return "none";
+    }
+    StringJoiner response = new StringJoiner(";");
+    for (int i = 0; i < frequencies.length; i++) {
+      Configuration option = new Configuration.Builder(vm).select(i).build();
+      response.add(optionCoding.encodeBinaryOptions(option) + '='
+                   + frequencies[i].stripTrailingZeros().toPlainString());
+    }
+    return response.toString();
+  }
+}
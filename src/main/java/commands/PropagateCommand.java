@@ -0,0 +1,38 @@
+package commands;
+
+import javax.annotation.Nonnull;
+
+import option_coding.OptionCoding;
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+import utilities.GlobalContext;
+import utilities.ShellCommand;
+import utilities.Tuple;
+
+public final class PropagateCommand extends ShellCommand {
+
+  public PropagateCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    String[] tokens = argsString.split(" ");
+    OptionCoding coding = context.getOptionCoding();
+    VariabilityModel vm = context.getVariabilityModel();
+    Configuration config = tokens.length < 1 || tokens[0].isEmpty()
+                           ? Configuration.empty(vm)
+                           : coding.decodeBinaryOptions(tokens[0]);
+
+    VariantGenerator vg = context.getSolverFacade().getVariantGenerator();
+    Tuple<Configuration, Configuration> backbone = vg.propagate(config);
+    if (backbone == null) {
+      return "none";
+    }
+    return String.format("%s %s",
+                         coding.encodeBinaryOptions(backbone.getFirst()),
+                         coding.encodeBinaryOptions(backbone.getSecond()));
+  }
+}
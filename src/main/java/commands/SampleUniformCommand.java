@@ -0,0 +1,47 @@
+package commands;
+
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import option_coding.OptionCoding;
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.GlobalContext;
+import utilities.ResponseWriter;
+import utilities.ShellCommand;
+
+public final class SampleUniformCommand extends ShellCommand {
+
+  public SampleUniformCommand(GlobalContext context) {
+    super(context);
+  }
+
+  @Nonnull
+  @Override
+  public String execute(String argsString) {
+    return executeBuffered(argsString);
+  }
+
+  @Override
+  public void execute(String argsString, ResponseWriter writer) {
+    String[] tokens = argsString.split(" ");
+    int count;
+    Random random;
+    try {
+      count = Integer.parseInt(tokens[0]);
+      random = tokens.length > 1 ? new Random(Long.parseLong(tokens[1])) : new Random();
+    } catch (NumberFormatException e) {
+      writer.writeError("invalid number");
+      return;
+    }
+    VariabilityModel vm = context.getVariabilityModel();
+    OptionCoding optionCoding = context.getOptionCoding();
+    context.getDdnnf().sample(vm, Configuration.empty(vm), count, random,
+                              config -> writer.writeConfiguration(
+                                  optionCoding.encodeBinaryOptions(config)));
+    if (writer.isEmpty()) {
+      writer.write("none");
+    }
+  }
+}
@@ -32,6 +32,7 @@ public final class SetSolverParametersCommand extends ShellCommand {
   public String execute(String argsString) {
     Map<String, String> parameters = decodeParameters(argsString);
     context.getSolverFacade().setParameters(parameters);
+    context.addSolverParameters(parameters);
     return DEFAULT_SUCCESS_RESPONSE;
   }
 }
@@ -0,0 +1,490 @@
+package ddnnf;
+
+import static spl_conqueror.ClauseDatabase.isNegated;
+import static spl_conqueror.ClauseDatabase.variable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+import spl_conqueror.ModelCounter;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * A smooth d-DNNF circuit that represents the valid configurations of a variability model. The
+ * children of an and-node do not share variables, the children of an or-node do not share
+ * models, and all children of an or-node mention the same variables. Hence, conditioning,
+ * counting, computing option frequencies and sampling uniformly are single passes over the
+ * circuit.
+ *
+ * <p>The circuit is stored in one int buffer, which is either an array or a read-only memory
+ * mapping of a saved circuit. The buffer starts with a header, followed by the kind and the
+ * literal of each node, the position of the first child of each node, and the children. Nodes
+ * are numbered so that every child has a smaller number than its parents.
+ */
+public final class Ddnnf implements ModelCounter {
+
+  static final int FALSE = 0;
+
+  static final int TRUE = 1;
+
+  static final int LITERAL = 2;
+
+  static final int AND = 3;
+
+  static final int OR = 4;
+
+  private static final int MAGIC = 0x444E4E46;
+
+  private static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 7;
+
+  @Nonnull
+  private final IntBuffer buffer;
+
+  private final int variableCount;
+
+  private final int nodeCount;
+
+  private final int root;
+
+  private final int literalsOffset;
+
+  private final int childStartsOffset;
+
+  private final int childrenOffset;
+
+  private Ddnnf(IntBuffer buffer) {
+    this.buffer = buffer;
+    variableCount = buffer.get(3);
+    nodeCount = buffer.get(4);
+    root = buffer.get(6);
+    literalsOffset = HEADER_SIZE + nodeCount;
+    childStartsOffset = literalsOffset + nodeCount;
+    childrenOffset = childStartsOffset + nodeCount + 1;
+  }
+
+  /**
+   * Creates the buffer of a circuit from its parts.
+   */
+  @Nonnull
+  static Ddnnf of(int fingerprint,
+                  int variableCount,
+                  int root,
+                  int[] kinds,
+                  int[] literals,
+                  int[] childStarts,
+                  int[] children,
+                  int nodeCount) {
+    int edgeCount = childStarts[nodeCount];
+    int[] data = new int[HEADER_SIZE + 3 * nodeCount + 1 + edgeCount];
+    data[0] = MAGIC;
+    data[1] = VERSION;
+    data[2] = fingerprint;
+    data[3] = variableCount;
+    data[4] = nodeCount;
+    data[5] = edgeCount;
+    data[6] = root;
+    System.arraycopy(kinds, 0, data, HEADER_SIZE, nodeCount);
+    System.arraycopy(literals, 0, data, HEADER_SIZE + nodeCount, nodeCount);
+    System.arraycopy(childStarts, 0, data, HEADER_SIZE + 2 * nodeCount, nodeCount + 1);
+    System.arraycopy(children, 0, data, HEADER_SIZE + 3 * nodeCount + 1, edgeCount);
+    return new Ddnnf(IntBuffer.wrap(data));
+  }
+
+  /**
+   * Compiles the clauses of the given variability model.
+   */
+  @Nonnull
+  public static Ddnnf compile(VariabilityModel vm) {
+    ClauseDatabase clauses = vm.getClauseDatabase();
+    return DdnnfCompiler.compile(clauses, fingerprint(clauses));
+  }
+
+  /**
+   * Identifies the clauses that a circuit has been compiled from, so that a saved circuit is not
+   * used for a changed model.
+   */
+  static int fingerprint(ClauseDatabase clauses) {
+    int fingerprint = clauses.getVariableCount();
+    for (int i = 0; i < clauses.getClauseCount(); i++) {
+      fingerprint = 31 * fingerprint + clauses.getClauseLength(i);
+      for (int p = clauses.getClauseStart(i); p < clauses.getClauseEnd(i); p++) {
+        fingerprint = 31 * fingerprint + clauses.getLiteral(p);
+      }
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Maps a saved circuit into memory.
+   *
+   * @return The circuit, or null if the file does not contain a circuit of the given model.
+   */
+  @Nullable
+  public static Ddnnf map(Path path, VariabilityModel vm) throws IOException {
+    MappedByteBuffer bytes;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel has been closed
+      bytes = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    IntBuffer buffer = bytes.order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+    ClauseDatabase clauses = vm.getClauseDatabase();
+    if (buffer.limit() < HEADER_SIZE
+        || buffer.get(0) != MAGIC
+        || buffer.get(1) != VERSION
+        || buffer.get(2) != fingerprint(clauses)
+        || buffer.get(3) != clauses.getVariableCount()
+        || buffer.limit() != HEADER_SIZE + 3 * buffer.get(4) + 1 + buffer.get(5)) {
+      return null;
+    }
+    return new Ddnnf(buffer);
+  }
+
+  /**
+   * Saves the circuit, so that it can be mapped later. The file is replaced atomically.
+   */
+  public void save(Path path) throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(buffer.limit() * Integer.BYTES)
+                                 .order(ByteOrder.BIG_ENDIAN);
+    for (int i = 0; i < buffer.limit(); i++) {
+      bytes.putInt(buffer.get(i));
+    }
+    bytes.flip();
+    Path directory = path.toAbsolutePath().getParent();
+    Path temporaryFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+        while (bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+      }
+      Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING,
+                 StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  public int getVariableCount() {
+    return variableCount;
+  }
+
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  private int kind(int node) {
+    return buffer.get(HEADER_SIZE + node);
+  }
+
+  private int literal(int node) {
+    return buffer.get(literalsOffset + node);
+  }
+
+  private int childStart(int node) {
+    return buffer.get(childStartsOffset + node);
+  }
+
+  private int childEnd(int node) {
+    return buffer.get(childStartsOffset + node + 1);
+  }
+
+  private int child(int position) {
+    return buffer.get(childrenOffset + position);
+  }
+
+  /**
+   * Conditions the circuit on the given partial configuration and counts the models of each
+   * node: a literal that deselects an option of the configuration has no model.
+   */
+  @Nonnull
+  private BigInteger[] countModels(Configuration partialConfig) {
+    BigInteger[] counts = new BigInteger[nodeCount];
+    for (int node = 0; node < nodeCount; node++) {
+      switch (kind(node)) {
+        case FALSE:
+          counts[node] = BigInteger.ZERO;
+          break;
+        case TRUE:
+          counts[node] = BigInteger.ONE;
+          break;
+        case LITERAL:
+          int lit = literal(node);
+          boolean isExcluded = isNegated(lit) && partialConfig.contains(variable(lit));
+          counts[node] = isExcluded ? BigInteger.ZERO : BigInteger.ONE;
+          break;
+        case AND:
+          BigInteger product = BigInteger.ONE;
+          for (int p = childStart(node); p < childEnd(node); p++) {
+            product = product.multiply(counts[child(p)]);
+          }
+          counts[node] = product;
+          break;
+        default:
+          BigInteger sum = BigInteger.ZERO;
+          for (int p = childStart(node); p < childEnd(node); p++) {
+            sum = sum.add(counts[child(p)]);
+          }
+          counts[node] = sum;
+          break;
+      }
+    }
+    return counts;
+  }
+
+  @Nonnull
+  @Override
+  public BigInteger countConfigurations(Configuration partialConfig) {
+    return countModels(partialConfig)[root];
+  }
+
+  /**
+   * Returns, for each k, the number of valid configurations that contain the given partial
+   * configuration and select k options. Each node is assigned the polynomial whose coefficient
+   * of x^k is the number of its models with k selected options: a literal that selects an
+   * option is x, an and-node multiplies the polynomials of its children and an or-node adds
+   * them.
+   */
+  @Nonnull
+  public BigInteger[] countByCardinality(Configuration partialConfig) {
+    BigInteger[][] polynomials = new BigInteger[nodeCount][];
+    for (int node = 0; node < nodeCount; node++) {
+      switch (kind(node)) {
+        case FALSE:
+          polynomials[node] = new BigInteger[]{BigInteger.ZERO};
+          break;
+        case TRUE:
+          polynomials[node] = new BigInteger[]{BigInteger.ONE};
+          break;
+        case LITERAL:
+          int lit = literal(node);
+          if (!isNegated(lit)) {
+            polynomials[node] = new BigInteger[]{BigInteger.ZERO, BigInteger.ONE};
+          } else if (partialConfig.contains(variable(lit))) {
+            polynomials[node] = new BigInteger[]{BigInteger.ZERO};
+          } else {
+            polynomials[node] = new BigInteger[]{BigInteger.ONE};
+          }
+          break;
+        case AND:
+          BigInteger[] product = {BigInteger.ONE};
+          for (int p = childStart(node); p < childEnd(node); p++) {
+            product = multiply(product, polynomials[child(p)]);
+          }
+          polynomials[node] = product;
+          break;
+        default:
+          BigInteger[] sum = {BigInteger.ZERO};
+          for (int p = childStart(node); p < childEnd(node); p++) {
+            sum = add(sum, polynomials[child(p)]);
+          }
+          polynomials[node] = sum;
+          break;
+      }
+    }
+    BigInteger[] counts = new BigInteger[variableCount + 1];
+    BigInteger[] rootPolynomial = polynomials[root];
+    for (int k = 0; k <= variableCount; k++) {
+      counts[k] = k < rootPolynomial.length ? rootPolynomial[k] : BigInteger.ZERO;
+    }
+    return counts;
+  }
+
+  @Nonnull
+  private static BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+    BigInteger[] product = new BigInteger[a.length + b.length - 1];
+    Arrays.fill(product, BigInteger.ZERO);
+    for (int i = 0; i < a.length; i++) {
+      if (a[i].signum() == 0) {
+        continue;
+      }
+      for (int j = 0; j < b.length; j++) {
+        product[i + j] = product[i + j].add(a[i].multiply(b[j]));
+      }
+    }
+    return product;
+  }
+
+  @Nonnull
+  private static BigInteger[] add(BigInteger[] a, BigInteger[] b) {
+    BigInteger[] sum = Arrays.copyOf(a.length >= b.length ? a : b, Math.max(a.length, b.length));
+    BigInteger[] shorter = a.length >= b.length ? b : a;
+    for (int i = 0; i < shorter.length; i++) {
+      sum[i] = sum[i].add(shorter[i]);
+    }
+    return sum;
+  }
+
+  /**
+   * Returns, for each option, the number of valid configurations that contain the given partial
+   * configuration and select the option. The counts of all options are computed in one backward
+   * pass that derives how many models of the root each node takes part in.
+   */
+  @Nonnull
+  public BigInteger[] countSelections(Configuration partialConfig) {
+    return countSelections(countModels(partialConfig));
+  }
+
+  /**
+   * Returns, for each option, the fraction of the valid configurations that contain the given
+   * partial configuration and select the option.
+   *
+   * @return The fractions, or null if there is no such configuration.
+   */
+  @Nullable
+  public BigDecimal[] computeFrequencies(Configuration partialConfig) {
+    BigInteger[] counts = countModels(partialConfig);
+    if (counts[root].signum() == 0) {
+      return null;
+    }
+    BigInteger[] selections = countSelections(counts);
+    BigDecimal total = new BigDecimal(counts[root]);
+    BigDecimal[] frequencies = new BigDecimal[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      frequencies[v] = new BigDecimal(selections[v]).divide(total, MathContext.DECIMAL64);
+    }
+    return frequencies;
+  }
+
+  @Nonnull
+  private BigInteger[] countSelections(BigInteger[] counts) {
+    BigInteger[] derivatives = new BigInteger[nodeCount];
+    derivatives[root] = BigInteger.ONE;
+    BigInteger[] selections = new BigInteger[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      selections[v] = BigInteger.ZERO;
+    }
+    for (int node = root; node >= 0; node--) {
+      BigInteger derivative = derivatives[node];
+      if (derivative == null || derivative.signum() == 0) {
+        continue;
+      }
+      int kind = kind(node);
+      if (kind == LITERAL) {
+        int lit = literal(node);
+        if (!isNegated(lit)) {
+          selections[variable(lit)] = selections[variable(lit)].add(
+              derivative.multiply(counts[node]));
+        }
+      } else if (kind == AND) {
+        // the models of the other children, as products of prefixes and suffixes
+        int start = childStart(node);
+        int end = childEnd(node);
+        BigInteger[] suffixes = new BigInteger[end - start + 1];
+        suffixes[end - start] = BigInteger.ONE;
+        for (int p = end - 1; p >= start; p--) {
+          suffixes[p - start] = suffixes[p - start + 1].multiply(counts[child(p)]);
+        }
+        BigInteger prefix = BigInteger.ONE;
+        for (int p = start; p < end; p++) {
+          addDerivative(derivatives, child(p),
+                        derivative.multiply(prefix).multiply(suffixes[p - start + 1]));
+          prefix = prefix.multiply(counts[child(p)]);
+        }
+      } else if (kind == OR) {
+        for (int p = childStart(node); p < childEnd(node); p++) {
+          addDerivative(derivatives, child(p), derivative);
+        }
+      }
+    }
+    return selections;
+  }
+
+  private static void addDerivative(BigInteger[] derivatives, int node, BigInteger derivative) {
+    derivatives[node] = derivatives[node] == null ? derivative
+                                                  : derivatives[node].add(derivative);
+  }
+
+  /**
+   * Draws configurations that contain the given partial configuration uniformly at random and
+   * passes them to the consumer as soon as they are drawn.
+   *
+   * @return False if there is no such configuration.
+   */
+  public boolean sample(VariabilityModel vm,
+                        Configuration partialConfig,
+                        int sampleCount,
+                        Random random,
+                        Consumer<Configuration> consumer) {
+    BigInteger[] counts = countModels(partialConfig);
+    if (counts[root].signum() == 0) {
+      return false;
+    }
+    Deque<Integer> stack = new ArrayDeque<>();
+    for (int i = 0; i < sampleCount; i++) {
+      Configuration.Builder sample = new Configuration.Builder(vm);
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        int node = stack.pop();
+        int kind = kind(node);
+        if (kind == LITERAL) {
+          if (!isNegated(literal(node))) {
+            sample.select(variable(literal(node)));
+          }
+        } else if (kind == AND) {
+          for (int p = childStart(node); p < childEnd(node); p++) {
+            stack.push(child(p));
+          }
+        } else if (kind == OR) {
+          // choose a child with a probability that is proportional to its number of models
+          BigInteger choice = randomBelow(counts[node], random);
+          for (int p = childStart(node); p < childEnd(node); p++) {
+            choice = choice.subtract(counts[child(p)]);
+            if (choice.signum() < 0) {
+              stack.push(child(p));
+              break;
+            }
+          }
+        }
+      }
+      consumer.accept(sample.build());
+    }
+    return true;
+  }
+
+  @Nonnull
+  private static BigInteger randomBelow(BigInteger bound, Random random) {
+    // the bytes drawn for a random BigInteger include the low bits of the generator, which are
+    // correlated between consecutive draws, so smaller bounds only use its high bits
+    int bitLength = bound.bitLength();
+    if (bitLength < Integer.SIZE) {
+      return BigInteger.valueOf(random.nextInt(bound.intValue()));
+    }
+    if (bitLength < Long.SIZE) {
+      long longBound = bound.longValue();
+      long longValue;
+      do {
+        longValue = random.nextLong() >>> (Long.SIZE - bitLength);
+      } while (longValue >= longBound);
+      return BigInteger.valueOf(longValue);
+    }
+    BigInteger value;
+    do {
+      value = new BigInteger(bitLength, random);
+    } while (value.compareTo(bound) >= 0);
+    return value;
+  }
+}
@@ -0,0 +1,412 @@
+package ddnnf;
+
+import static spl_conqueror.ClauseDatabase.isNegated;
+import static spl_conqueror.ClauseDatabase.literal;
+import static spl_conqueror.ClauseDatabase.variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.ClauseDatabase;
+
+/**
+ * Compiles clauses into a smooth d-DNNF circuit by an exhaustive DPLL search, which records its
+ * trace as a circuit. Each decision becomes an or-node over both values of a variable. Below a
+ * decision, the literals that have been propagated and the components of the remaining variables
+ * become the children of an and-node. A component that has been compiled before is reused, and
+ * an unconstrained variable becomes an or-node over its two literals, which keeps the circuit
+ * smooth.
+ */
+final class DdnnfCompiler {
+
+  private static final int UNASSIGNED = -1;
+
+  private final int variableCount;
+
+  @Nonnull
+  private final int[][] clauses;
+
+  /**
+   * The clauses that contain each variable.
+   */
+  @Nonnull
+  private final int[][] occurrences;
+
+  /**
+   * The compiled node of each component, identified by its variables and its unsatisfied
+   * clauses.
+   */
+  @Nonnull
+  private final Map<ComponentKey, Integer> cache = new HashMap<>();
+
+  @Nonnull
+  private final int[] values;
+
+  @Nonnull
+  private final int[] trail;
+
+  private int trailSize;
+
+  @Nonnull
+  private final int[] variableMarks;
+
+  @Nonnull
+  private final int[] clauseMarks;
+
+  private int mark;
+
+  @Nonnull
+  private final int[] scores;
+
+  /**
+   * The node of each literal, or 0 if it has not been created yet.
+   */
+  @Nonnull
+  private final int[] literalNodes;
+
+  /**
+   * The or-node over both literals of each variable, or 0 if it has not been created yet.
+   */
+  @Nonnull
+  private final int[] freeVariableNodes;
+
+  @Nonnull
+  private int[] kinds = new int[1 << 10];
+
+  @Nonnull
+  private int[] nodeLiterals = new int[1 << 10];
+
+  @Nonnull
+  private int[] childStarts = new int[(1 << 10) + 1];
+
+  @Nonnull
+  private int[] children = new int[1 << 10];
+
+  private int nodeCount;
+
+  private DdnnfCompiler(ClauseDatabase clauseDatabase) {
+    variableCount = clauseDatabase.getVariableCount();
+    clauses = new int[clauseDatabase.getClauseCount()][];
+    List<List<Integer>> occurrenceLists = new ArrayList<>(variableCount);
+    for (int v = 0; v < variableCount; v++) {
+      occurrenceLists.add(new ArrayList<>());
+    }
+    for (int i = 0; i < clauses.length; i++) {
+      clauses[i] = clauseDatabase.getClause(i);
+      for (int lit : clauses[i]) {
+        occurrenceLists.get(variable(lit)).add(i);
+      }
+    }
+    occurrences = new int[variableCount][];
+    for (int v = 0; v < variableCount; v++) {
+      occurrences[v] = occurrenceLists.get(v).stream().mapToInt(Integer::intValue).toArray();
+    }
+    values = new int[variableCount];
+    Arrays.fill(values, UNASSIGNED);
+    trail = new int[variableCount];
+    variableMarks = new int[variableCount];
+    clauseMarks = new int[clauses.length];
+    scores = new int[variableCount];
+    literalNodes = new int[2 * variableCount];
+    freeVariableNodes = new int[variableCount];
+    // the constants are the first nodes
+    addNode(Ddnnf.FALSE, 0, new int[0], 0);
+    addNode(Ddnnf.TRUE, 0, new int[0], 0);
+  }
+
+  @Nonnull
+  static Ddnnf compile(ClauseDatabase clauseDatabase, int fingerprint) {
+    DdnnfCompiler compiler = new DdnnfCompiler(clauseDatabase);
+    int root = compiler.compileRoot();
+    return Ddnnf.of(fingerprint, compiler.variableCount, root, compiler.kinds,
+                    compiler.nodeLiterals, compiler.childStarts, compiler.children,
+                    compiler.nodeCount);
+  }
+
+  private int addNode(int kind, int lit, int[] nodeChildren, int childCount) {
+    if (nodeCount + 1 >= kinds.length) {
+      kinds = Arrays.copyOf(kinds, kinds.length << 1);
+      nodeLiterals = Arrays.copyOf(nodeLiterals, nodeLiterals.length << 1);
+      childStarts = Arrays.copyOf(childStarts, childStarts.length << 1);
+    }
+    int start = childStarts[nodeCount];
+    while (start + childCount > children.length) {
+      children = Arrays.copyOf(children, children.length << 1);
+    }
+    System.arraycopy(nodeChildren, 0, children, start, childCount);
+    int node = nodeCount;
+    kinds[node] = kind;
+    nodeLiterals[node] = lit;
+    childStarts[node + 1] = start + childCount;
+    nodeCount++;
+    return node;
+  }
+
+  /**
+   * Returns the conjunction of the given nodes, which do not share variables.
+   */
+  private int and(int[] nodes, int count) {
+    if (count == 0) {
+      return Ddnnf.TRUE;
+    }
+    return count == 1 ? nodes[0] : addNode(Ddnnf.AND, 0, nodes, count);
+  }
+
+  private int literalNode(int lit) {
+    if (literalNodes[lit] == 0) {
+      literalNodes[lit] = addNode(Ddnnf.LITERAL, lit, new int[0], 0);
+    }
+    return literalNodes[lit];
+  }
+
+  private int freeVariableNode(int v) {
+    if (freeVariableNodes[v] == 0) {
+      int[] literalChildren = {literalNode(literal(v, false)), literalNode(literal(v, true))};
+      freeVariableNodes[v] = addNode(Ddnnf.OR, 0, literalChildren, 2);
+    }
+    return freeVariableNodes[v];
+  }
+
+  private int compileRoot() {
+    for (int[] clause : clauses) {
+      if (clause.length == 0 || (clause.length == 1 && !assign(clause[0]))) {
+        return Ddnnf.FALSE;
+      }
+    }
+    if (!propagate(0)) {
+      return Ddnnf.FALSE;
+    }
+    int[] allVariables = new int[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      allVariables[v] = v;
+    }
+    return compileBranch(0, allVariables);
+  }
+
+  private boolean isTrue(int lit) {
+    return values[variable(lit)] == (isNegated(lit) ? 0 : 1);
+  }
+
+  private boolean isUnassigned(int v) {
+    return values[v] == UNASSIGNED;
+  }
+
+  private boolean assign(int lit) {
+    int v = variable(lit);
+    if (!isUnassigned(v)) {
+      return isTrue(lit);
+    }
+    values[v] = isNegated(lit) ? 0 : 1;
+    trail[trailSize] = v;
+    trailSize++;
+    return true;
+  }
+
+  private void undoUntil(int trailPosition) {
+    while (trailSize > trailPosition) {
+      trailSize--;
+      values[trail[trailSize]] = UNASSIGNED;
+    }
+  }
+
+  private boolean propagate(int trailPosition) {
+    for (int head = trailPosition; head < trailSize; head++) {
+      for (int clause : occurrences[trail[head]]) {
+        int unassignedLiteral = -1;
+        int unassignedCount = 0;
+        boolean isSatisfied = false;
+        for (int lit : clauses[clause]) {
+          if (isUnassigned(variable(lit))) {
+            unassignedLiteral = lit;
+            unassignedCount++;
+          } else if (isTrue(lit)) {
+            isSatisfied = true;
+            break;
+          }
+        }
+        if (isSatisfied || unassignedCount > 1) {
+          continue;
+        }
+        if (unassignedCount == 0 || !assign(unassignedLiteral)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean isSatisfied(int clause) {
+    for (int lit : clauses[clause]) {
+      if (isTrue(lit)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compiles the conjunction of the literals that have been assigned since the given trail
+   * position and of the components of the remaining variables among the given ones.
+   *
+   * @return The node, or {@link Ddnnf#FALSE} if a component has no model.
+   */
+  private int compileBranch(int trailPosition, int[] variables) {
+    List<int[][]> components = decompose(variables);
+    int[] nodes = new int[trailSize - trailPosition + components.size()];
+    int count = 0;
+    for (int i = trailPosition; i < trailSize; i++) {
+      nodes[count] = literalNode(literal(trail[i], values[trail[i]] == 0));
+      count++;
+    }
+    for (int[][] component : components) {
+      int node = component[1].length == 0 ? freeVariableNode(component[0][0])
+                                          : compileComponent(component[0], component[1]);
+      if (node == Ddnnf.FALSE) {
+        return Ddnnf.FALSE;
+      }
+      nodes[count] = node;
+      count++;
+    }
+    return and(nodes, count);
+  }
+
+  /**
+   * Splits the unassigned variables among the given ones into components that are connected by
+   * unsatisfied clauses. Each component is given by its sorted variables and its sorted clauses.
+   */
+  @Nonnull
+  private List<int[][]> decompose(int[] variables) {
+    mark++;
+    List<int[][]> components = new ArrayList<>();
+    int[] componentVariables = new int[variables.length];
+    List<Integer> componentClauses = new ArrayList<>();
+    for (int start : variables) {
+      if (!isUnassigned(start) || variableMarks[start] == mark) {
+        continue;
+      }
+      int size = 0;
+      componentClauses.clear();
+      componentVariables[size] = start;
+      size++;
+      variableMarks[start] = mark;
+      for (int head = 0; head < size; head++) {
+        for (int clause : occurrences[componentVariables[head]]) {
+          if (clauseMarks[clause] == mark || isSatisfied(clause)) {
+            continue;
+          }
+          clauseMarks[clause] = mark;
+          componentClauses.add(clause);
+          for (int lit : clauses[clause]) {
+            int v = variable(lit);
+            if (isUnassigned(v) && variableMarks[v] != mark) {
+              variableMarks[v] = mark;
+              componentVariables[size] = v;
+              size++;
+            }
+          }
+        }
+      }
+      int[] sortedVariables = Arrays.copyOf(componentVariables, size);
+      Arrays.sort(sortedVariables);
+      int[] sortedClauses = componentClauses.stream()
+                                            .mapToInt(Integer::intValue)
+                                            .sorted()
+                                            .toArray();
+      components.add(new int[][]{sortedVariables, sortedClauses});
+    }
+    return components;
+  }
+
+  private int compileComponent(int[] componentVariables, int[] componentClauses) {
+    ComponentKey key = new ComponentKey(componentVariables, componentClauses);
+    Integer cachedNode = cache.get(key);
+    if (cachedNode != null) {
+      return cachedNode;
+    }
+    int branch = chooseBranch(componentVariables, componentClauses);
+    int[] branches = new int[2];
+    int branchCount = 0;
+    for (int lit : new int[]{literal(branch, false), literal(branch, true)}) {
+      int trailPosition = trailSize;
+      if (assign(lit) && propagate(trailPosition)) {
+        int node = compileBranch(trailPosition, componentVariables);
+        if (node != Ddnnf.FALSE) {
+          branches[branchCount] = node;
+          branchCount++;
+        }
+      }
+      undoUntil(trailPosition);
+    }
+    int node;
+    if (branchCount == 0) {
+      node = Ddnnf.FALSE;
+    } else {
+      node = branchCount == 1 ? branches[0] : addNode(Ddnnf.OR, 0, branches, 2);
+    }
+    cache.put(key, node);
+    return node;
+  }
+
+  /**
+   * Returns the variable that occurs in the most clauses of the given component.
+   */
+  private int chooseBranch(int[] componentVariables, int[] componentClauses) {
+    for (int clause : componentClauses) {
+      for (int lit : clauses[clause]) {
+        scores[variable(lit)]++;
+      }
+    }
+    int branch = componentVariables[0];
+    for (int v : componentVariables) {
+      if (scores[v] > scores[branch]) {
+        branch = v;
+      }
+    }
+    for (int clause : componentClauses) {
+      for (int lit : clauses[clause]) {
+        scores[variable(lit)] = 0;
+      }
+    }
+    return branch;
+  }
+
+  private static final class ComponentKey {
+
+    @Nonnull
+    private final int[] ids;
+
+    private final int hashCode;
+
+    ComponentKey(int[] componentVariables, int[] componentClauses) {
+      ids = new int[componentVariables.length + componentClauses.length + 1];
+      ids[0] = componentVariables.length;
+      System.arraycopy(componentVariables, 0, ids, 1, componentVariables.length);
+      System.arraycopy(componentClauses, 0, ids, componentVariables.length + 1,
+                       componentClauses.length);
+      hashCode = Arrays.hashCode(ids);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ComponentKey)) {
+        return false;
+      }
+      //noinspection QuestionableName
+      ComponentKey that = (ComponentKey) o;
+      return hashCode == that.hashCode && Arrays.equals(ids, that.ids);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,4 @@
+@ParametersAreNonnullByDefault
+package ddnnf;
+
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -7,15 +7,19 @@ import org.jacop.search.SimpleSolutionListener;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import javax.annotation.Nonnull;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariabilityModel;
 
+/**
+ * Records the solutions of a search over the variables of a {@link JaCoPConstraintSystemContext}.
+ * The search variables need to be given in the order of the binary options' indices, so that the
+ * position of a variable in a solution equals the index of its binary option.
+ */
 final class DefaultSolutionListener extends SimpleSolutionListener<IntVar> {
 
   @Nonnull
@@ -32,21 +36,24 @@ final class DefaultSolutionListener extends SimpleSolutionListener<IntVar> {
   }
 
   @Nonnull
-  Set<BinaryOption> getSolutionAsConfig() {
+  Configuration getSolutionAsConfig() {
     return getSolutionAsConfig(solutionsNo());
   }
 
   @Nonnull
-  private Set<BinaryOption> getSolutionAsConfig(int solutionNumber) {
+  private Configuration getSolutionAsConfig(int solutionNumber) {
     Domain[] solution = getSolution(solutionNumber);
-    return IntStream.range(0, solution.length)
-                    .filter(i -> ((IntDomain) solution[i]).value() == 1)
-                    .mapToObj(i -> vm.getBinaryOption(vars[i].id))
-                    .collect(Collectors.toSet());
+    Configuration.Builder config = new Configuration.Builder(vm);
+    for (int i = 0; i < solution.length; i++) {
+      if (((IntDomain) solution[i]).value() == 1) {
+        config.select(i);
+      }
+    }
+    return config.build();
   }
 
   @Nonnull
-  Collection<Set<BinaryOption>> getSolutionsAsConfigs() {
+  Collection<Configuration> getSolutionsAsConfigs() {
     int solutionCount = solutionsNo();
     return IntStream.rangeClosed(1, solutionCount)
                     .mapToObj(this::getSolutionAsConfig)
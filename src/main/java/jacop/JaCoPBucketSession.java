@@ -9,7 +9,6 @@ import org.jacop.constraints.PrimitiveConstraint;
 import org.jacop.constraints.SumBool;
 import org.jacop.constraints.XeqC;
 import org.jacop.core.BooleanVar;
-import org.jacop.core.IntDomain;
 import org.jacop.core.IntVar;
 import org.jacop.core.Store;
 
@@ -18,14 +17,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import spl_conqueror.BinaryOption;
 import spl_conqueror.BucketSession;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariabilityModel;
 
 public final class JaCoPBucketSession implements BucketSession {
@@ -34,108 +31,100 @@ public final class JaCoPBucketSession implements BucketSession {
   private final VariabilityModel vm;
 
   @Nonnull
-  private final Map<Integer, Collection<Set<BinaryOption>>> buckets = new HashMap<>();
+  private final Map<Integer, Collection<Configuration>> buckets = new HashMap<>();
 
+  /**
+   * The store of the session. It may be shared with other queries, so each configuration is
+   * searched inside a checkpoint.
+   */
   @Nonnull
   private final JaCoPConstraintSystemContext context;
 
   private final int seed;
 
-  @Nullable
-  private IntVar sumVar;
-
   public JaCoPBucketSession(VariabilityModel vm, int seed) {
-    this.vm = vm;
-    context = new JaCoPConstraintSystemContext(this.vm);
+    this(new JaCoPConstraintSystemContext(vm), seed);
+  }
+
+  JaCoPBucketSession(JaCoPConstraintSystemContext context, int seed) {
+    vm = context.getVariabilityModel();
+    this.context = context;
     this.seed = seed;
   }
 
   @Nullable
   @Override
-  public Set<BinaryOption> generateConfig(int selectedOptionsCount,
-                                          List<Set<BinaryOption>> featureRanking) {
-    if (sumVar == null) {
-      setup();
-    }
-    Collection<Set<BinaryOption>> excludedConfigs =
+  public Configuration generateConfig(int selectedOptionsCount,
+                                      List<Configuration> featureRanking) {
+    Collection<Configuration> excludedConfigs =
         buckets.computeIfAbsent(selectedOptionsCount, n -> new HashSet<>());
-    Set<BinaryOption> config = generateConfig(selectedOptionsCount,
-                                              featureRanking,
-                                              excludedConfigs);
-    excludedConfigs.add(config);
-    return config;
-  }
-
-  private void setup() {
-    // there should be exactly selectedOptionsCount features selected
-    BooleanVar[] allVariables = new BooleanVar[context.getVariableCount()];
-    int index = 0;
-    for (Entry<BinaryOption, BooleanVar> entry : context.binaryOptions()) {
-      allVariables[index] = entry.getValue();
-      index++;
+    Configuration config = generateConfig(selectedOptionsCount,
+                                          featureRanking,
+                                          excludedConfigs);
+    if (config != null) {
+      excludedConfigs.add(config);
     }
-    Store store = context.getStore();
-    sumVar = new IntVar(store, "sum", IntDomain.MinInt, IntDomain.MaxInt);
-    store.impose(new SumBool(allVariables, "==", sumVar));
+    return config;
   }
 
   @Nullable
-  private Set<BinaryOption> generateConfig(int selectedOptionsCount,
-                                           Iterable<Set<BinaryOption>> featureRanking,
-                                           Iterable<Set<BinaryOption>> excludedConfigs) {
+  private Configuration generateConfig(int selectedOptionsCount,
+                                       Iterable<Configuration> featureRanking,
+                                       Iterable<Configuration> excludedConfigs) {
     context.markCheckpoint();
-    Store store = context.getStore();
-
-    store.impose(new XeqC(sumVar, selectedOptionsCount));
-
-    // excluded configurations should not be considered as a solution
-    List<BinaryOption> allBinaryOptions = vm.getBinaryOptions();
-    for (Set<BinaryOption> excludedConfig : excludedConfigs) {
-      PrimitiveConstraint[] ands = new PrimitiveConstraint[allBinaryOptions.size()];
-      for (int i = 0; i < allBinaryOptions.size(); i++) {
-        BinaryOption option = allBinaryOptions.get(i);
-        BooleanVar variable = context.getVariable(option);
-        ands[i] = excludedConfig.contains(option) ? new XeqC(variable, 1) : new XeqC(variable, 0);
+    try {
+      Store store = context.getStore();
+
+      // there should be exactly selectedOptionsCount features selected
+      BooleanVar[] allVariables = context.getVariables();
+      IntVar sumVar = context.getCostVariable();
+      store.impose(new SumBool(allVariables, "==", sumVar));
+      store.impose(new XeqC(sumVar, selectedOptionsCount));
+
+      // excluded configurations should not be considered as a solution
+      for (Configuration excludedConfig : excludedConfigs) {
+        PrimitiveConstraint[] ands = new PrimitiveConstraint[allVariables.length];
+        for (int i = 0; i < allVariables.length; i++) {
+          BooleanVar variable = allVariables[i];
+          ands[i] = excludedConfig.contains(i) ? new XeqC(variable, 1) : new XeqC(variable, 0);
+        }
+        store.impose(new Not(new And(ands)));
       }
-      store.impose(new Not(new And(ands)));
-    }
 
-    // if we have a feature ranking, we can use it to approximate the optimal solution
-    Set<BinaryOption> approximateOptimal = getSmallWeightConfig(featureRanking);
-    Set<BinaryOption> result;
-    if (approximateOptimal == null) {
+      // if we have a feature ranking, we can use it to approximate the optimal solution
+      Configuration approximateOptimal = getSmallWeightConfig(featureRanking);
+      if (approximateOptimal != null) {
+        return approximateOptimal;
+      }
       DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, 1);
       boolean hasFoundSolution = performSearch(context, seed, solutionListener);
-      result = hasFoundSolution ? solutionListener.getSolutionAsConfig()
-                                : null;
-    } else {
-      result = approximateOptimal;
+      return hasFoundSolution ? solutionListener.getSolutionAsConfig() : null;
+    } finally {
+      // cleanup, the store is shared with all other queries
+      context.resetToLastCheckpoint();
     }
-
-    // cleanup
-    context.resetToLastCheckpoint();
-    return result;
   }
 
   @Nullable
-  private Set<BinaryOption> getSmallWeightConfig(Iterable<Set<BinaryOption>> featureRanking) {
-    for (Set<BinaryOption> candidates : featureRanking) {
+  private Configuration getSmallWeightConfig(Iterable<Configuration> featureRanking) {
+    for (Configuration candidates : featureRanking) {
       context.markCheckpoint();
-
-      // force features to be selected
-      selectFeatures(context, candidates);
-
-      // check if satisfiable
-      DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, 1);
-      boolean hasFoundSolution = performSearch(context, seed, solutionListener);
-      Set<BinaryOption> solution = null;
-      if (hasFoundSolution) {
-        solution = solutionListener.getSolutionAsConfig();
+      Configuration solution = null;
+      try {
+        // force features to be selected
+        selectFeatures(context, candidates);
+
+        // check if satisfiable
+        DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, 1);
+        boolean hasFoundSolution = performSearch(context, seed, solutionListener);
+        if (hasFoundSolution) {
+          solution = solutionListener.getSolutionAsConfig();
+        }
+      } finally {
+        // cleanup
+        context.resetToLastCheckpoint();
       }
 
-      // cleanup
-      context.resetToLastCheckpoint();
-
       // stop if solution has been found
       if (solution != null) {
         return solution;
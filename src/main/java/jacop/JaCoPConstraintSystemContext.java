@@ -1,31 +1,29 @@
 package jacop;
 
-import org.jacop.constraints.And;
-import org.jacop.constraints.Not;
 import org.jacop.constraints.Or;
 import org.jacop.constraints.PrimitiveConstraint;
-import org.jacop.constraints.SumBool;
 import org.jacop.constraints.XeqC;
 import org.jacop.constraints.XeqY;
 import org.jacop.core.BooleanVar;
-import org.jacop.core.BoundDomain;
+import org.jacop.core.IntDomain;
 import org.jacop.core.IntVar;
 import org.jacop.core.Store;
 
 import java.util.ArrayDeque;
-import java.util.Collection;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.annotation.Nonnull;
 
 import spl_conqueror.BinaryOption;
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.SimplifiedModel;
 import spl_conqueror.VariabilityModel;
 
+/**
+ * The variables and constraints of a variability model in a JaCoP store. The store is built once
+ * and kept for all queries: each query imposes its additional constraints between
+ * {@link #markCheckpoint()} and {@link #resetToLastCheckpoint()}, which removes them again.
+ */
 final class JaCoPConstraintSystemContext {
 
   @Nonnull
@@ -34,138 +32,98 @@ final class JaCoPConstraintSystemContext {
   @Nonnull
   private final Store store;
 
+  /**
+   * The variable of each binary option, indexed by {@link BinaryOption#getIndex()}.
+   */
+  @Nonnull
+  private final BooleanVar[] optionToVar;
+
+  /**
+   * The variables that the clauses refer to. Without a simplified model, these are the variables
+   * of the binary options.
+   */
   @Nonnull
-  private final Map<BinaryOption, BooleanVar> optionToVar;
+  private BooleanVar[] clauseVars;
 
   @Nonnull
   private final Deque<Integer> checkpoints;
 
+  /**
+   * An integer variable that is not constrained by the variability model. It is created with the
+   * store, so that it exists on the base level.
+   */
+  @Nonnull
+  private final IntVar costVariable;
+
   JaCoPConstraintSystemContext(VariabilityModel vm) {
     this.vm = vm;
     store = new Store();
-    List<BinaryOption> binaryOptions = vm.getBinaryOptions();
-    optionToVar = new HashMap<>(binaryOptions.size());
+    optionToVar = new BooleanVar[vm.getOptionCount()];
+    clauseVars = optionToVar;
     checkpoints = new ArrayDeque<>();
     createVariables();
-    processBinaryOptions();
-    processBinaryConstraints();
+    processClauses();
+    costVariable = new IntVar(store, "cost", IntDomain.MinInt, IntDomain.MaxInt);
   }
 
+  /**
+   * Creates a variable for each binary option. If the model has been simplified, the domains of
+   * core and dead options are fixed, and the other options of an atomic set are bound to the
+   * variable of its representative. They still get variables of their own, because the solution
+   * listeners read the values by the positions of the search variables.
+   */
   private void createVariables() {
-    List<BinaryOption> binaryOptions = vm.getBinaryOptions();
-    for (BinaryOption option : binaryOptions) {
-      BooleanVar variable = new BooleanVar(store, option.getName());
-      optionToVar.put(option, variable);
-    }
-  }
-
-  private void processBinaryOptions() {
-    Collection<BinaryOption> processedAlternatives = new HashSet<>();
+    SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
     for (BinaryOption option : vm.getBinaryOptions()) {
-      addVariableConstraints(option);
-      processAlternativeOptions(processedAlternatives, option);
-      processExcludedOptionsAsCrossTreeConstraints(option);
-      processImpliedOptions(option);
-    }
-  }
-
-  private void addVariableConstraints(BinaryOption option) {
-    BooleanVar variable = optionToVar.get(option);
-    if (option.isRoot()) {
-      store.impose(new XeqC(variable, 1));
-    } else if (option.getParent() != null) {
-      BooleanVar parentVar = optionToVar.get(option.getParent());
-      if (option.isMandatory() && !option.hasExcludedOptions()) {
-        store.impose(new XeqY(variable, parentVar));
+      int index = option.getIndex();
+      int variable = simplifiedModel == null ? 0 : simplifiedModel.getVariable(index);
+      if (variable == SimplifiedModel.SELECTED || variable == SimplifiedModel.DESELECTED) {
+        int value = variable == SimplifiedModel.SELECTED ? 1 : 0;
+        optionToVar[index] = new BooleanVar(store, option.getName(), value, value);
       } else {
-        store.impose(new Or(new XeqC(variable, 0), new XeqC(parentVar, 1)));
+        optionToVar[index] = new BooleanVar(store, option.getName());
       }
-    } else {
-      throw new IllegalArgumentException(option.getName() + " has no parent");
     }
-  }
-
-  private void processAlternativeOptions(Collection<BinaryOption> processedAlternatives,
-                                         BinaryOption option) {
-    List<BinaryOption> options = option.collectAlternativeOptions();
-    if (options.isEmpty() || processedAlternatives.contains(option)) {
+    if (simplifiedModel == null) {
       return;
     }
-    BooleanVar parentVar = optionToVar.get(option.getParent());
-    BooleanVar[] alternativeGroupVars = new BooleanVar[options.size() + 1];
-    alternativeGroupVars[0] = optionToVar.get(option);
-    for (int i = 1; i < alternativeGroupVars.length; i++) {
-      BinaryOption o = options.get(i - 1);
-      alternativeGroupVars[i] = optionToVar.get(o);
-    }
-    IntVar sumVar = new IntVar(store, new BoundDomain(0, alternativeGroupVars.length));
-    store.impose(new SumBool(alternativeGroupVars, "==", sumVar));
-    store.impose(new Or(new XeqC(parentVar, 0), new XeqC(sumVar, 1)));
-    processedAlternatives.addAll(options);
-  }
-
-  private void processExcludedOptionsAsCrossTreeConstraints(BinaryOption option) {
-    Collection<List<BinaryOption>> options = option.getNonAlternativeExcludedOptions();
-    for (List<BinaryOption> nonAlternativeOption : options) {
-      PrimitiveConstraint[] orVars = new PrimitiveConstraint[nonAlternativeOption.size()];
-      for (int i = 0; i < orVars.length; i++) {
-        BinaryOption o = nonAlternativeOption.get(i);
-        orVars[i] = new XeqC(optionToVar.get(o), 1);
-      }
-      store.impose(new Or(new XeqC(optionToVar.get(option), 0), new Not(new Or(orVars))));
+    clauseVars = new BooleanVar[simplifiedModel.getVariableCount()];
+    for (int v = 0; v < clauseVars.length; v++) {
+      clauseVars[v] = optionToVar[simplifiedModel.getRepresentative(v)];
     }
-  }
-
-  private void processImpliedOptions(BinaryOption option) {
-    for (List<BinaryOption> impliedOptions : option.getImpliedOptions()) {
-      PrimitiveConstraint[] orVars = new PrimitiveConstraint[impliedOptions.size()];
-      for (int i = 0; i < orVars.length; i++) {
-        BinaryOption o = impliedOptions.get(i);
-        orVars[i] = new XeqC(optionToVar.get(o), 1);
+    for (int i = 0; i < optionToVar.length; i++) {
+      int variable = simplifiedModel.getVariable(i);
+      if (variable >= 0 && clauseVars[variable] != optionToVar[i]) {
+        store.impose(new XeqY(optionToVar[i], clauseVars[variable]));
       }
-      store.impose(new Or(new XeqC(optionToVar.get(option), 0), new Or(orVars)));
     }
   }
 
   /**
-   * Handle global cross-tree constraints involving multiple options.
-   * The constraints should be in conjunctive normal form.
+   * Imposes each clause of the (simplified) variability model as a disjunction.
    */
-  private void processBinaryConstraints() {
-    for (String constraint : vm.getBinaryConstraints()) {
-      boolean and = false;
-      String[] terms;
-      if (constraint.contains("&")) {
-        and = true;
-        terms = constraint.split("&");
-      } else {
-        terms = constraint.split("\\|");
-      }
-
-      PrimitiveConstraint[] termVars = new PrimitiveConstraint[terms.length];
-      for (int i = 0; i < termVars.length; i++) {
-        String term = terms[i];
-        String optionName = term.trim();
-        if (optionName.startsWith("!")) {
-          optionName = optionName.substring(1);
-          BinaryOption option = vm.getBinaryOption(optionName);
-          termVars[i] = new XeqC(optionToVar.get(option), 0);
-        } else {
-          BinaryOption option = vm.getBinaryOption(optionName);
-          termVars[i] = new XeqC(optionToVar.get(option), 1);
-        }
-      }
-      if (and) {
-        store.impose(new And(termVars));
-      } else {
-        store.impose(new Or(termVars));
+  private void processClauses() {
+    SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
+    ClauseDatabase clauses = simplifiedModel == null ? vm.getClauseDatabase()
+                                                     : simplifiedModel.getClauseDatabase();
+    for (int clause = 0; clause < clauses.getClauseCount(); clause++) {
+      int start = clauses.getClauseStart(clause);
+      PrimitiveConstraint[] terms = new PrimitiveConstraint[clauses.getClauseLength(clause)];
+      for (int i = 0; i < terms.length; i++) {
+        int literal = clauses.getLiteral(start + i);
+        BooleanVar variable = clauseVars[ClauseDatabase.variable(literal)];
+        terms[i] = new XeqC(variable, ClauseDatabase.isNegated(literal) ? 0 : 1);
       }
+      store.impose(terms.length == 1 ? terms[0] : new Or(terms));
     }
   }
 
+  /**
+   * Returns the variables of all binary options, indexed by {@link BinaryOption#getIndex()}.
+   */
   @Nonnull
-  public Iterable<Entry<BinaryOption, BooleanVar>> binaryOptions() {
-    return optionToVar.entrySet();
+  BooleanVar[] getVariables() {
+    return optionToVar;
   }
 
   @Nonnull
@@ -174,15 +132,27 @@ final class JaCoPConstraintSystemContext {
   }
 
   int getVariableCount() {
-    return optionToVar.size();
+    return optionToVar.length;
   }
 
   @Nonnull
   BooleanVar getVariable(BinaryOption option) {
-    if (!optionToVar.containsKey(option)) {
-      throw new IllegalArgumentException(option.getName() + " is not used as variable");
-    }
-    return optionToVar.get(option);
+    return optionToVar[option.getIndex()];
+  }
+
+  /**
+   * Returns a variable that a query can bind to a sum over the option variables inside a
+   * checkpoint. The variable is shared by all queries, because the variables of a store cannot be
+   * removed again.
+   */
+  @Nonnull
+  IntVar getCostVariable() {
+    return costVariable;
+  }
+
+  @Nonnull
+  VariabilityModel getVariabilityModel() {
+    return vm;
   }
 
   void markCheckpoint() {
@@ -0,0 +1,102 @@
+package jacop;
+
+import static jacop.JaCoPHelper.performSearch;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * Pages through the solutions of a search that runs in a worker thread. JaCoP reports solutions
+ * through a listener and cannot be resumed after the labeling has returned, so the worker hands
+ * each solution over and waits until it has been taken. The search thus never runs more than one
+ * solution ahead of the pages that have been requested.
+ */
+final class JaCoPEnumerationCursor implements EnumerationCursor {
+
+  /**
+   * Signals the end of the search. It is compared by identity.
+   */
+  @Nonnull
+  private final Configuration endOfSearch;
+
+  @Nonnull
+  private final BlockingQueue<Configuration> solutions = new SynchronousQueue<>();
+
+  @Nonnull
+  private final VariabilityModel vm;
+
+  private final int seed;
+
+  @Nullable
+  private Thread worker;
+
+  private boolean isExhausted;
+
+  JaCoPEnumerationCursor(VariabilityModel vm, int seed) {
+    this.vm = vm;
+    this.seed = seed;
+    endOfSearch = Configuration.empty(vm);
+  }
+
+  private void search() {
+    JaCoPConstraintSystemContext context = new JaCoPConstraintSystemContext(vm);
+    try {
+      performSearch(context, seed, new StreamingSolutionListener(context, -1, this::handOver));
+      handOver(endOfSearch);
+    } catch (CancellationException ignored) {
+      // the cursor has been closed
+    }
+  }
+
+  private void handOver(Configuration config) {
+    try {
+      solutions.put(config);
+    } catch (InterruptedException e) {
+      // abort the labeling
+      throw new CancellationException();
+    }
+  }
+
+  @Override
+  public int next(int k, Consumer<Configuration> consumer) {
+    if (worker == null && !isExhausted) {
+      worker = new Thread(this::search, "jacop-enumeration");
+      worker.setDaemon(true);
+      worker.start();
+    }
+    int count = 0;
+    while (count < k && !isExhausted) {
+      Configuration config;
+      try {
+        config = solutions.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      if (config == endOfSearch) {
+        isExhausted = true;
+      } else {
+        consumer.accept(config);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void close() {
+    isExhausted = true;
+    if (worker != null) {
+      worker.interrupt();
+    }
+  }
+}
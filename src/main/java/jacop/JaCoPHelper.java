@@ -2,6 +2,7 @@ package jacop;
 
 import org.jacop.constraints.XeqC;
 import org.jacop.core.BooleanVar;
+import org.jacop.core.FailException;
 import org.jacop.core.IntVar;
 import org.jacop.core.Store;
 import org.jacop.search.DepthFirstSearch;
@@ -10,13 +11,13 @@ import org.jacop.search.Search;
 import org.jacop.search.SelectChoicePoint;
 import org.jacop.search.SolutionListener;
 
-import java.util.Map.Entry;
+import java.util.Arrays;
 import java.util.OptionalInt;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 
 final class JaCoPHelper {
 
@@ -24,11 +25,24 @@ final class JaCoPHelper {
   }
 
   static void selectFeatures(JaCoPConstraintSystemContext context,
-                             Iterable<BinaryOption> selectedOptions) {
+                             Configuration selectedOptions) {
     Store store = context.getStore();
-    for (BinaryOption option : selectedOptions) {
-      BooleanVar variable = context.getVariable(option);
-      store.impose(new XeqC(variable, 1));
+    BooleanVar[] variables = context.getVariables();
+    for (int i = selectedOptions.nextSelectedIndex(0);
+         i >= 0;
+         i = selectedOptions.nextSelectedIndex(i + 1)) {
+      store.impose(new XeqC(variables[i], 1));
+    }
+  }
+
+  static void deselectFeatures(JaCoPConstraintSystemContext context,
+                               Configuration deselectedOptions) {
+    Store store = context.getStore();
+    BooleanVar[] variables = context.getVariables();
+    for (int i = deselectedOptions.nextSelectedIndex(0);
+         i >= 0;
+         i = deselectedOptions.nextSelectedIndex(i + 1)) {
+      store.impose(new XeqC(variables[i], 0));
     }
   }
 
@@ -39,6 +53,46 @@ final class JaCoPHelper {
     return performSearch(context, search, seed, solutionListener, null);
   }
 
+  private static void restrict(JaCoPConstraintSystemContext context,
+                               Configuration options,
+                               int value) {
+    Store store = context.getStore();
+    BooleanVar[] variables = context.getVariables();
+    for (int i = options.nextSelectedIndex(0); i >= 0; i = options.nextSelectedIndex(i + 1)) {
+      variables[i].domain.in(store.level, variables[i], value, value);
+    }
+  }
+
+  /**
+   * Searches for a solution that selects all options of <code>selected</code> and none of
+   * <code>deselected</code>. The domains are restricted on a new store level, so the store is
+   * left unchanged.
+   */
+  @Nullable
+  static Configuration findExtension(JaCoPConstraintSystemContext context,
+                                     int seed,
+                                     Configuration selected,
+                                     Configuration deselected) {
+    context.markCheckpoint();
+
+    Configuration extension;
+    try {
+      restrict(context, selected, 1);
+      restrict(context, deselected, 0);
+      DefaultSolutionListener solutionListener
+          = new DefaultSolutionListener(context.getVariabilityModel(), 1);
+      extension = performSearch(context, seed, solutionListener)
+                  ? solutionListener.getSolutionAsConfig()
+                  : null;
+    } catch (FailException ignored) {
+      extension = null;
+    }
+
+    // cleanup
+    context.resetToLastCheckpoint();
+    return extension;
+  }
+
   @Nonnull
   static OptionalInt performMinimizingSearch(JaCoPConstraintSystemContext context,
                                              int seed,
@@ -57,17 +111,13 @@ final class JaCoPHelper {
     search.setPrintInfo(false);
     search.setAssignSolution(false);
     Store store = context.getStore();
-    IntVar[] allVariables = new IntVar[context.getVariableCount()];
-    int index = 0;
-    for (Entry<BinaryOption, BooleanVar> entry : context.binaryOptions()) {
-      allVariables[index] = entry.getValue();
-      index++;
-    }
+    IntVar[] allVariables = Arrays.copyOf(context.getVariables(),
+                                          context.getVariableCount(),
+                                          IntVar[].class);
     SelectChoicePoint<IntVar> select = new RandomSelectFixed<>(allVariables,
                                                                new IndomainRandom<>(seed),
                                                                seed);
     if (solutionListener != null) {
-      solutionListener.recordSolutions(true);
       search.setSolutionListener(solutionListener);
     }
     return costVar == null ? search.labeling(store, select)
@@ -1,9 +1,7 @@
 package jacop;
 
-import static jacop.JaCoPHelper.selectFeatures;
-
-import org.jacop.constraints.XeqC;
 import org.jacop.core.BooleanVar;
+import org.jacop.core.FailException;
 import org.jacop.core.IntVar;
 import org.jacop.core.Store;
 import org.jacop.search.DepthFirstSearch;
@@ -12,65 +10,89 @@ import org.jacop.search.InputOrderSelect;
 import org.jacop.search.Search;
 import org.jacop.search.SelectChoicePoint;
 
-import java.util.Collection;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.Arrays;
 
 import javax.annotation.Nonnull;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.SatisfiabilityChecker;
-import spl_conqueror.VariabilityModel;
 
+/**
+ * Checks configurations by restricting the domains of the option variables on a new store level
+ * instead of imposing constraints. The constraints of the variability model are propagated once,
+ * and this root fixpoint is kept for all checks.
+ */
 public final class JaCoPSatisfiabilityChecker implements SatisfiabilityChecker {
 
   @Nonnull
   private final JaCoPConstraintSystemContext context;
 
-  JaCoPSatisfiabilityChecker(VariabilityModel variabilityModel) {
-    context = new JaCoPConstraintSystemContext(variabilityModel);
+  /**
+   * False if the variability model itself has no valid configuration.
+   */
+  private final boolean isConsistent;
+
+  JaCoPSatisfiabilityChecker(JaCoPConstraintSystemContext context) {
+    this.context = context;
+    isConsistent = context.getStore().consistency();
+  }
+
+  private static void assume(Store store, BooleanVar variable, int value) {
+    variable.domain.in(store.level, variable, value, value);
+  }
+
+  private static void selectFeatures(JaCoPConstraintSystemContext context,
+                                     Configuration selectedOptions) {
+    Store store = context.getStore();
+    BooleanVar[] variables = context.getVariables();
+    for (int i = selectedOptions.nextSelectedIndex(0);
+         i >= 0;
+         i = selectedOptions.nextSelectedIndex(i + 1)) {
+      assume(store, variables[i], 1);
+    }
   }
 
   private static void selectFeaturesAndDeselectAllOthers(JaCoPConstraintSystemContext context,
-                                                         Collection<BinaryOption> selectedOptions) {
+                                                         Configuration selectedOptions) {
     Store store = context.getStore();
-    for (Entry<BinaryOption, BooleanVar> entry : context.binaryOptions()) {
-      BinaryOption option = entry.getKey();
-      BooleanVar variable = entry.getValue();
-      if (selectedOptions.contains(option)) {
-        store.impose(new XeqC(variable, 1));
-      } else {
-        store.impose(new XeqC(variable, 0));
-      }
+    BooleanVar[] variables = context.getVariables();
+    for (int i = 0; i < variables.length; i++) {
+      assume(store, variables[i], selectedOptions.contains(i) ? 1 : 0);
     }
   }
 
   @Override
-  public boolean isValid(Set<BinaryOption> selectedOptions, boolean isPartialConfiguration) {
+  public boolean isValid(Configuration selectedOptions, boolean isPartialConfiguration) {
+    if (!isConsistent) {
+      return false;
+    }
     context.markCheckpoint();
     Store store = context.getStore();
 
-    // feature selection
-    if (isPartialConfiguration) {
-      selectFeatures(context, selectedOptions);
-    } else {
-      selectFeaturesAndDeselectAllOthers(context, selectedOptions);
-    }
+    boolean hasFoundSolution;
+    try {
+      // feature selection
+      if (isPartialConfiguration) {
+        selectFeatures(context, selectedOptions);
+      } else {
+        selectFeaturesAndDeselectAllOthers(context, selectedOptions);
+      }
 
-    // check if configuration is valid
-    Search<IntVar> search = new DepthFirstSearch<>();
-    search.setPrintInfo(false);
-    search.setAssignSolution(false);
-    IntVar[] allVariables = new IntVar[context.getVariableCount()];
-    int index = 0;
-    for (Entry<BinaryOption, BooleanVar> entry : context.binaryOptions()) {
-      allVariables[index] = entry.getValue();
-      index++;
+      // check if configuration is valid
+      Search<IntVar> search = new DepthFirstSearch<>();
+      search.setPrintInfo(false);
+      search.setAssignSolution(false);
+      IntVar[] allVariables = Arrays.copyOf(context.getVariables(),
+                                            context.getVariableCount(),
+                                            IntVar[].class);
+      SelectChoicePoint<IntVar> select = new InputOrderSelect<>(store,
+                                                                allVariables,
+                                                                new IndomainRandom<>(0));
+      hasFoundSolution = search.labeling(store, select);
+    } catch (FailException ignored) {
+      // the selection contradicts the root fixpoint
+      hasFoundSolution = false;
     }
-    SelectChoicePoint<IntVar> select = new InputOrderSelect<>(store,
-                                                              allVariables,
-                                                              new IndomainRandom<>(0));
-    boolean hasFoundSolution = search.labeling(store, select);
 
     // cleanup
     context.resetToLastCheckpoint();
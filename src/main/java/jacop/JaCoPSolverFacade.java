@@ -13,8 +13,12 @@ import utilities.SolverParameterKeys;
 
 public final class JaCoPSolverFacade implements SolverFacade {
 
+  /**
+   * The store that the satisfiability checker, the variant generator and its bucket sessions
+   * share.
+   */
   @Nonnull
-  private final VariabilityModel variabilityModel;
+  private final JaCoPConstraintSystemContext context;
 
   @Nullable
   private JaCoPSatisfiabilityChecker satisfiabilityChecker;
@@ -24,15 +28,17 @@ public final class JaCoPSolverFacade implements SolverFacade {
 
   private int seed = 1;
 
+  private int parallelism = 1;
+
   public JaCoPSolverFacade(VariabilityModel variabilityModel) {
-    this.variabilityModel = variabilityModel;
+    context = new JaCoPConstraintSystemContext(variabilityModel);
   }
 
   @Nonnull
   @Override
   public SatisfiabilityChecker getSatisfiabilityChecker() {
     if (satisfiabilityChecker == null) {
-      satisfiabilityChecker = new JaCoPSatisfiabilityChecker(variabilityModel);
+      satisfiabilityChecker = new JaCoPSatisfiabilityChecker(context);
     }
     return satisfiabilityChecker;
   }
@@ -41,7 +47,7 @@ public final class JaCoPSolverFacade implements SolverFacade {
   @Override
   public VariantGenerator getVariantGenerator() {
     if (variantGenerator == null) {
-      variantGenerator = new JaCoPVariantGenerator(variabilityModel);
+      variantGenerator = new JaCoPVariantGenerator(context);
       applyParameters();
     }
     return variantGenerator;
@@ -52,6 +58,9 @@ public final class JaCoPSolverFacade implements SolverFacade {
     if (parameters.containsKey(SolverParameterKeys.RANDOM_SEED)) {
       seed = Integer.parseInt(parameters.get(SolverParameterKeys.RANDOM_SEED));
     }
+    if (parameters.containsKey(SolverParameterKeys.PARALLELISM)) {
+      parallelism = Integer.parseInt(parameters.get(SolverParameterKeys.PARALLELISM));
+    }
     applyParameters();
   }
 
@@ -60,5 +69,6 @@ public final class JaCoPSolverFacade implements SolverFacade {
       return;
     }
     variantGenerator.setSeed(seed);
+    variantGenerator.setParallelism(parallelism);
   }
 }
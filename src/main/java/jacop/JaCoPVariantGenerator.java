@@ -1,29 +1,34 @@
 package jacop;
 
+import static jacop.JaCoPHelper.deselectFeatures;
+import static jacop.JaCoPHelper.findExtension;
 import static jacop.JaCoPHelper.performMinimizingSearch;
 import static jacop.JaCoPHelper.performSearch;
 import static jacop.JaCoPHelper.selectFeatures;
+import static spl_conqueror.ProjectedEnumeration.forEachProjection;
+import static spl_conqueror.ProjectedEnumeration.forEachProjectionInParallel;
 
 import org.jacop.constraints.LinearInt;
 import org.jacop.constraints.XeqC;
 import org.jacop.core.BooleanVar;
-import org.jacop.core.IntDomain;
 import org.jacop.core.IntVar;
 import org.jacop.core.Store;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Map.Entry;
 import java.util.OptionalInt;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import spl_conqueror.Backbone;
 import spl_conqueror.BinaryOption;
 import spl_conqueror.BucketSession;
+import spl_conqueror.Configuration;
+import spl_conqueror.CubeSplitting;
+import spl_conqueror.EnumerationCursor;
 import spl_conqueror.VariabilityModel;
 import spl_conqueror.VariantGenerator;
 import utilities.Tuple;
@@ -33,26 +38,38 @@ public final class JaCoPVariantGenerator implements VariantGenerator {
   @Nonnull
   private final VariabilityModel vm;
 
+  /**
+   * The store that all queries share. Each query runs inside a checkpoint of its own.
+   */
+  @Nonnull
+  private final JaCoPConstraintSystemContext context;
+
   private int seed = 1;
 
+  /**
+   * The number of threads of a complete enumeration. The enumeration is split into cubes with a
+   * store of their own if it is greater than 1.
+   */
+  private int parallelism = 1;
+
   public JaCoPVariantGenerator(VariabilityModel vm) {
-    this.vm = vm;
+    this(new JaCoPConstraintSystemContext(vm));
+  }
+
+  JaCoPVariantGenerator(JaCoPConstraintSystemContext context) {
+    vm = context.getVariabilityModel();
+    this.context = context;
   }
 
   private static IntVar addOptionWeighting(
-      JaCoPConstraintSystemContext context, Function<BinaryOption, Integer> weightingFunction) {
-    BooleanVar[] goals = new BooleanVar[context.getVariableCount()];
-    int[] coefficients = new int[context.getVariableCount()];
-    int index = 0;
-    for (Entry<BinaryOption, BooleanVar> entry : context.binaryOptions()) {
-      BinaryOption option = entry.getKey();
-      goals[index] = entry.getValue();
-      coefficients[index] = weightingFunction.apply(option);
-      index++;
+      JaCoPConstraintSystemContext context, IntUnaryOperator weightingFunction) {
+    BooleanVar[] goals = context.getVariables();
+    int[] coefficients = new int[goals.length];
+    for (int i = 0; i < coefficients.length; i++) {
+      coefficients[i] = weightingFunction.applyAsInt(i);
     }
-    Store store = context.getStore();
-    IntVar sumVar = new IntVar(store, "sumVar", IntDomain.MinInt, IntDomain.MaxInt);
-    store.impose(new LinearInt(goals, coefficients, "==", sumVar));
+    IntVar sumVar = context.getCostVariable();
+    context.getStore().impose(new LinearInt(goals, coefficients, "==", sumVar));
     return sumVar;
   }
 
@@ -60,31 +77,38 @@ public final class JaCoPVariantGenerator implements VariantGenerator {
     this.seed = seed;
   }
 
+  void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
   @Nullable
   @Override
-  public Set<BinaryOption> findMinimizedConfig(Set<BinaryOption> config,
-                                               Set<BinaryOption> unwantedOptions) {
-    JaCoPConstraintSystemContext context = new JaCoPConstraintSystemContext(vm);
+  public Configuration findMinimizedConfig(Configuration config,
+                                           Configuration unwantedOptions) {
+    context.markCheckpoint();
 
     selectFeatures(context, config);
     IntVar sumVar = addOptionWeighting(
-        context, option -> unwantedOptions.contains(option) && !config.contains(option) ? 100 : 1);
+        context, index -> unwantedOptions.contains(index) && !config.contains(index) ? 100 : 1);
 
     DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, 1);
     OptionalInt optimalCost = performMinimizingSearch(context, seed, solutionListener, sumVar);
+
+    // cleanup
+    context.resetToLastCheckpoint();
     return optimalCost.isPresent() ? solutionListener.getSolutionAsConfig() : null;
   }
 
   @Nonnull
   @Override
-  public Collection<Set<BinaryOption>> findAllMaximizedConfigs(Set<BinaryOption> config,
-                                                               Set<BinaryOption> unwantedOptions) {
-    JaCoPConstraintSystemContext context = new JaCoPConstraintSystemContext(vm);
+  public Collection<Configuration> findAllMaximizedConfigs(Configuration config,
+                                                           Configuration unwantedOptions) {
+    context.markCheckpoint();
     Store store = context.getStore();
 
     selectFeatures(context, config);
     IntVar sumVar = addOptionWeighting(
-        context, option -> unwantedOptions.contains(option) && !config.contains(option) ? 100 : -1);
+        context, index -> unwantedOptions.contains(index) && !config.contains(index) ? 100 : -1);
 
     OptionalInt optimalCost = performMinimizingSearch(context, seed, null, sumVar);
     assert optimalCost.isPresent();
@@ -92,23 +116,39 @@ public final class JaCoPVariantGenerator implements VariantGenerator {
     store.impose(new XeqC(sumVar, optimalCost.getAsInt()));
     DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, -1);
     boolean hasFoundSolution = performSearch(context, seed, solutionListener);
+
+    // cleanup
+    context.resetToLastCheckpoint();
     return hasFoundSolution ? solutionListener.getSolutionsAsConfigs() : Collections.emptyList();
   }
 
-  @Nonnull
   @Override
-  public Collection<Set<BinaryOption>> generateUpToNConfigs(int n) {
-    JaCoPConstraintSystemContext context = new JaCoPConstraintSystemContext(vm);
-    DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, n);
-    boolean hasFoundSolution = performSearch(context, seed, solutionListener);
-    return hasFoundSolution ? solutionListener.getSolutionsAsConfigs() : Collections.emptyList();
+  public void generateUpToNConfigs(int n, Consumer<Configuration> consumer) {
+    if (n <= 0 && parallelism > 1) {
+      CubeSplitting.forEachInParallel(vm, parallelism, (selected, deselected, cubeConsumer) -> {
+        JaCoPConstraintSystemContext cubeContext = new JaCoPConstraintSystemContext(vm);
+        selectFeatures(cubeContext, selected);
+        deselectFeatures(cubeContext, deselected);
+        performSearch(cubeContext,
+                      seed,
+                      new StreamingSolutionListener(cubeContext, 0, cubeConsumer));
+      }, consumer);
+      return;
+    }
+    context.markCheckpoint();
+
+    // find solutions
+    performSearch(context, seed, new StreamingSolutionListener(context, n, consumer));
+
+    // cleanup
+    context.resetToLastCheckpoint();
   }
 
   @Nullable
   @Override
-  public Tuple<Set<BinaryOption>, Set<BinaryOption>> generateConfigWithoutOption(
-      Set<BinaryOption> config, BinaryOption optionToRemove) {
-    JaCoPConstraintSystemContext context = new JaCoPConstraintSystemContext(vm);
+  public Tuple<Configuration, Configuration> generateConfigWithoutOption(
+      Configuration config, BinaryOption optionToRemove) {
+    context.markCheckpoint();
     Store store = context.getStore();
 
     // forbid the selection of this configuration option
@@ -118,45 +158,62 @@ public final class JaCoPVariantGenerator implements VariantGenerator {
     // configuration to increase chances that the option gets selected again. A positive value
     // will lead to a small chance that this option gets selected when it is not part of the
     // original configuration.
-    IntVar sumVar = addOptionWeighting(context, option -> config.contains(option) ? -1000 : 1000);
+    IntVar sumVar = addOptionWeighting(context, index -> config.contains(index) ? -1000 : 1000);
 
     // find an optimal solution
     DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, 1);
     OptionalInt optimalCost = performMinimizingSearch(context, seed, solutionListener, sumVar);
+    Tuple<Configuration, Configuration> result;
     if (optimalCost.isPresent()) {
-      Set<BinaryOption> optimalConfig = solutionListener.getSolutionAsConfig();
+      Configuration optimalConfig = solutionListener.getSolutionAsConfig();
       // adding the options that have been removed from the original configuration
-      Set<BinaryOption> removedElements
-          = config.stream()
-                  .filter(option -> !optimalConfig.contains(option))
-                  .collect(Collectors.toSet());
-      return new Tuple<>(optimalConfig, removedElements);
+      Configuration removedElements = config.difference(optimalConfig);
+      result = new Tuple<>(optimalConfig, removedElements);
     } else {
-      return null;
+      result = null;
     }
+
+    // cleanup
+    context.resetToLastCheckpoint();
+    return result;
   }
 
-  @Nonnull
   @Override
-  public Collection<Set<BinaryOption>> generateAllVariants(Set<BinaryOption> optionsToConsider) {
-    JaCoPConstraintSystemContext context = new JaCoPConstraintSystemContext(vm);
-    // find all solutions
-    DefaultSolutionListener solutionListener = new DefaultSolutionListener(vm, -1);
-    boolean hasFoundSolution = performSearch(context, seed, solutionListener);
-    if (hasFoundSolution) {
-      Collection<Set<BinaryOption>> allVariants = solutionListener.getSolutionsAsConfigs();
-      return allVariants.stream()
-                        .peek(solution -> solution.retainAll(optionsToConsider))
-                        .filter(binaryOptions -> !binaryOptions.isEmpty())
-                        .collect(Collectors.toSet());
-    } else {
-      return Collections.emptyList();
+  public void generateAllVariants(Configuration optionsToConsider,
+                                  Consumer<Configuration> consumer) {
+    if (parallelism > 1) {
+      forEachProjectionInParallel(vm, optionsToConsider, () -> {
+        JaCoPConstraintSystemContext cubeContext = new JaCoPConstraintSystemContext(vm);
+        return (selected, deselected) -> findExtension(cubeContext, seed, selected, deselected);
+      }, parallelism, consumer);
+      return;
     }
+    forEachProjection(vm,
+                      optionsToConsider,
+                      (selected, deselected) -> findExtension(context, seed, selected, deselected),
+                      consumer);
+  }
+
+  @Nullable
+  @Override
+  public Tuple<Configuration, Configuration> propagate(Configuration config) {
+    return Backbone.compute(vm,
+                            config,
+                            (selected, deselected) -> findExtension(context,
+                                                                    seed,
+                                                                    selected,
+                                                                    deselected));
+  }
+
+  @Nonnull
+  @Override
+  public EnumerationCursor openEnumeration() {
+    return new JaCoPEnumerationCursor(vm, seed);
   }
 
   @Nonnull
   @Override
   public BucketSession createBucketSession() {
-    return new JaCoPBucketSession(vm, seed);
+    return new JaCoPBucketSession(context, seed);
   }
 }
@@ -0,0 +1,53 @@
+package jacop;
+
+import org.jacop.core.BooleanVar;
+import org.jacop.core.IntVar;
+import org.jacop.search.Search;
+import org.jacop.search.SelectChoicePoint;
+import org.jacop.search.SimpleSolutionListener;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+
+/**
+ * Passes the solutions of a search over the variables of a {@link JaCoPConstraintSystemContext}
+ * to a consumer as soon as they are found. In contrast to {@link DefaultSolutionListener}, the
+ * solutions are not recorded.
+ */
+final class StreamingSolutionListener extends SimpleSolutionListener<IntVar> {
+
+  @Nonnull
+  private final JaCoPConstraintSystemContext context;
+
+  @Nonnull
+  private final Consumer<Configuration> consumer;
+
+  StreamingSolutionListener(JaCoPConstraintSystemContext context,
+                            int solutionLimit,
+                            Consumer<Configuration> consumer) {
+    this.context = context;
+    this.consumer = consumer;
+    recordSolutions(false);
+    if (solutionLimit > 0) {
+      setSolutionLimit(solutionLimit);
+    } else {
+      searchAll(true);
+    }
+  }
+
+  @Override
+  public boolean executeAfterSolution(Search<IntVar> search, SelectChoicePoint<IntVar> select) {
+    Configuration.Builder config = new Configuration.Builder(context.getVariabilityModel());
+    BooleanVar[] variables = context.getVariables();
+    for (int i = 0; i < variables.length; i++) {
+      if (variables[i].value() == 1) {
+        config.select(i);
+      }
+    }
+    consumer.accept(config.build());
+    return super.executeAfterSolution(search, select);
+  }
+}
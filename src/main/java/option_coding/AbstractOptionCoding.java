@@ -1,13 +1,12 @@
 package option_coding;
 
-import java.util.Arrays;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
 
 import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariabilityModel;
 
 public abstract class AbstractOptionCoding implements OptionCoding {
@@ -25,18 +24,30 @@ public abstract class AbstractOptionCoding implements OptionCoding {
     this.vm = vm;
   }
 
+  @Nonnull
+  protected abstract String encodeBinaryOption(BinaryOption option);
+
+  @Nonnull
+  @Override
+  public Configuration decodeBinaryOptions(String str) {
+    Configuration.Builder builder = new Configuration.Builder(vm);
+    for (String token : str.split(OPTION_SEPARATOR)) {
+      builder.select(decodeBinaryOption(token));
+    }
+    return builder.build();
+  }
+
   @Nonnull
   @Override
-  public Set<BinaryOption> decodeBinaryOptions(String str) {
-    return Arrays.stream(str.split(OPTION_SEPARATOR))
-                 .map(this::decodeBinaryOption)
-                 .collect(Collectors.toSet());
+  public String encodeBinaryOptions(Configuration options) {
+    return options.indices()
+                  .mapToObj(index -> encodeBinaryOption(vm.getBinaryOption(index)))
+                  .collect(Collectors.joining(OPTION_SEPARATOR));
   }
 
   @Nonnull
   @Override
-  public <E extends Iterable<BinaryOption>> String encodeBinaryOptionsIterable(
-      Iterable<E> configs) {
+  public String encodeBinaryOptionsIterable(Iterable<Configuration> configs) {
     return StreamSupport.stream(configs.spliterator(), false)
                         .map(this::encodeBinaryOptions)
                         .collect(Collectors.joining(CONFIG_SEPARATOR));
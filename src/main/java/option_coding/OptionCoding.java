@@ -1,10 +1,9 @@
 package option_coding;
 
-import java.util.Set;
-
 import javax.annotation.Nonnull;
 
 import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 
 public interface OptionCoding {
 
@@ -12,11 +11,11 @@ public interface OptionCoding {
   BinaryOption decodeBinaryOption(String str);
 
   @Nonnull
-  Set<BinaryOption> decodeBinaryOptions(String str);
+  Configuration decodeBinaryOptions(String str);
 
   @Nonnull
-  String encodeBinaryOptions(Iterable<BinaryOption> options);
+  String encodeBinaryOptions(Configuration options);
 
   @Nonnull
-  <E extends Iterable<BinaryOption>> String encodeBinaryOptionsIterable(Iterable<E> configs);
+  String encodeBinaryOptionsIterable(Iterable<Configuration> configs);
 }
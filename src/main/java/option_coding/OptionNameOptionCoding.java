@@ -1,8 +1,5 @@
 package option_coding;
 
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
-
 import javax.annotation.Nonnull;
 
 import spl_conqueror.BinaryOption;
@@ -22,9 +19,7 @@ public final class OptionNameOptionCoding extends AbstractOptionCoding {
 
   @Nonnull
   @Override
-  public String encodeBinaryOptions(Iterable<BinaryOption> options) {
-    return StreamSupport.stream(options.spliterator(), false)
-                        .map(BinaryOption::getName)
-                        .collect(Collectors.joining(OPTION_SEPARATOR));
+  protected String encodeBinaryOption(BinaryOption option) {
+    return option.getName();
   }
 }
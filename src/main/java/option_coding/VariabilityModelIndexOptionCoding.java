@@ -1,10 +1,7 @@
 package option_coding;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
 
@@ -14,37 +11,42 @@ import spl_conqueror.VariabilityModel;
 public final class VariabilityModelIndexOptionCoding extends AbstractOptionCoding {
 
   @Nonnull
-  private final Map<String, String> encodingSubstitutions;
+  private final String[] encodingSubstitutions;
 
   @Nonnull
-  private final Map<String, String> decodingSubstitutions;
+  private final BinaryOption[] decodingSubstitutions;
 
   public VariabilityModelIndexOptionCoding(VariabilityModel vm) {
     super(vm);
-    List<BinaryOption> binaryOptions = vm.getBinaryOptions();
+    List<BinaryOption> binaryOptions = new ArrayList<>(vm.getBinaryOptions());
     binaryOptions.sort((x, y) -> x.getName().compareToIgnoreCase(y.getName()));
-    encodingSubstitutions = new HashMap<>(binaryOptions.size());
-    decodingSubstitutions = new HashMap<>(binaryOptions.size());
+    encodingSubstitutions = new String[binaryOptions.size()];
+    decodingSubstitutions = new BinaryOption[binaryOptions.size()];
     for (int i = 0; i < binaryOptions.size(); i++) {
-      String value = binaryOptions.get(i).getName();
-      String substitution = String.valueOf(i);
-      encodingSubstitutions.put(value, substitution);
-      decodingSubstitutions.put(substitution, value);
+      BinaryOption option = binaryOptions.get(i);
+      encodingSubstitutions[option.getIndex()] = String.valueOf(i);
+      decodingSubstitutions[i] = option;
     }
   }
 
   @Nonnull
   @Override
   public BinaryOption decodeBinaryOption(String str) {
-    return vm.getBinaryOption(decodingSubstitutions.get(str));
+    int index;
+    try {
+      index = Integer.parseInt(str);
+    } catch (NumberFormatException e) {
+      index = -1;
+    }
+    if (index < 0 || index >= decodingSubstitutions.length) {
+      throw new IllegalArgumentException(str + " is not part of the variability model");
+    }
+    return decodingSubstitutions[index];
   }
 
   @Nonnull
   @Override
-  public String encodeBinaryOptions(Iterable<BinaryOption> options) {
-    return StreamSupport.stream(options.spliterator(), false)
-                        .map(BinaryOption::getName)
-                        .map(encodingSubstitutions::get)
-                        .collect(Collectors.joining(OPTION_SEPARATOR));
+  protected String encodeBinaryOption(BinaryOption option) {
+    return encodingSubstitutions[option.getIndex()];
   }
 }
@@ -0,0 +1,167 @@
+package sat;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.ClauseDatabase;
+
+/**
+ * Estimates the number of models of the clauses of a variability model within a factor of
+ * <code>1 + epsilon</code> with a probability of at least <code>1 - delta</code> (ApproxMC).
+ * Random parity constraints split the models into cells of roughly equal size. The models of
+ * one cell are counted by the SAT solver up to a small threshold, and the number of constraints
+ * is chosen so that the cell is just smaller than the threshold. The size of the cell times the
+ * number of cells estimates the count, and the median of several estimates is returned.
+ */
+public final class ApproximateCounter {
+
+  @Nonnull
+  private final CdclSolver solver;
+
+  private long seed = 1;
+
+  private ApproximateCounter(CdclSolver solver) {
+    this.solver = solver;
+  }
+
+  @Nonnull
+  public static ApproximateCounter from(ClauseDatabase clauseDatabase) {
+    return new ApproximateCounter(CdclSolver.from(clauseDatabase));
+  }
+
+  /**
+   * Sets the seed of the random parity constraints and of the solver.
+   */
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Returns the maximal size of a cell that is counted.
+   */
+  private static int computeThreshold(double epsilon) {
+    double factor = 1 + 1 / epsilon;
+    return (int) Math.ceil(1 + 9.84 * (1 + epsilon / (1 + epsilon)) * factor * factor);
+  }
+
+  /**
+   * Returns the number of estimates whose median is returned.
+   */
+  private static int computeIterationCount(double delta) {
+    return (int) Math.ceil(17 * Math.log(3 / delta) / Math.log(2));
+  }
+
+  @Nonnull
+  public BigInteger estimateCount(double epsilon, double delta) {
+    if (epsilon <= 0) {
+      throw new IllegalArgumentException("epsilon must be positive");
+    }
+    if (delta <= 0 || delta >= 1) {
+      throw new IllegalArgumentException("delta must be between 0 and 1");
+    }
+    solver.setSeed(seed);
+    int threshold = computeThreshold(epsilon);
+    int variableCount = solver.getVariableCount();
+    int count = countCell(new int[0][], new boolean[0], 0, threshold, new int[]{-1});
+    if (count < threshold) {
+      // there are so few models that they have been counted exactly
+      return BigInteger.valueOf(count);
+    }
+    Random random = new Random(seed);
+    BigInteger[] estimates = new BigInteger[computeIterationCount(delta)];
+    int previousHashCount = 1;
+    for (int i = 0; i < estimates.length; i++) {
+      int[][] hashes = new int[variableCount][];
+      boolean[] parities = new boolean[variableCount];
+      for (int j = 0; j < variableCount; j++) {
+        hashes[j] = createHash(variableCount, random);
+        parities[j] = random.nextBoolean();
+      }
+      int[] cellSizes = new int[variableCount + 1];
+      Arrays.fill(cellSizes, -1);
+      previousHashCount = findHashCount(hashes, parities, threshold, previousHashCount, cellSizes);
+      int cellSize = countCell(hashes, parities, previousHashCount, threshold, cellSizes);
+      estimates[i] = BigInteger.valueOf(cellSize).shiftLeft(previousHashCount);
+    }
+    Arrays.sort(estimates);
+    return estimates[estimates.length / 2];
+  }
+
+  /**
+   * Returns the variables of a random parity constraint, which contains each variable with a
+   * probability of one half.
+   */
+  @Nonnull
+  private static int[] createHash(int variableCount, Random random) {
+    int[] variables = new int[variableCount];
+    int length = 0;
+    for (int v = 0; v < variableCount; v++) {
+      if (random.nextBoolean()) {
+        variables[length] = v;
+        length++;
+      }
+    }
+    return Arrays.copyOf(variables, length);
+  }
+
+  /**
+   * Finds the smallest number of parity constraints whose cell is smaller than the threshold.
+   * Each cell is contained in the cell of fewer constraints, so its size decreases with the
+   * number of constraints and a binary search finds the number. The first two probes are the
+   * number of the previous estimate and its neighbor, which are likely to enclose the number.
+   */
+  private int findHashCount(int[][] hashes,
+                            boolean[] parities,
+                            int threshold,
+                            int initialGuess,
+                            int[] cellSizes) {
+    // the cell of low constraints is too large, the cell of high constraints is not
+    int low = 0;
+    int high = hashes.length;
+    int guess = initialGuess;
+    for (int probes = 0; high - low > 1; probes++) {
+      int middle = probes < 2 && guess > low && guess < high ? guess : (low + high) >>> 1;
+      if (countCell(hashes, parities, middle, threshold, cellSizes) >= threshold) {
+        low = middle;
+        guess = middle + 1;
+      } else {
+        high = middle;
+        guess = middle - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Counts the models that satisfy the first <code>hashCount</code> parity constraints, up to the
+   * given threshold. The sizes of the cells that have been counted already are taken from
+   * <code>cellSizes</code>, in which -1 marks a cell that has not been counted yet.
+   */
+  private int countCell(int[][] hashes,
+                        boolean[] parities,
+                        int hashCount,
+                        int threshold,
+                        int[] cellSizes) {
+    if (cellSizes[hashCount] >= 0) {
+      return cellSizes[hashCount];
+    }
+    solver.push();
+    try {
+      for (int i = 0; i < hashCount; i++) {
+        solver.addXor(hashes[i], parities[i]);
+      }
+      int count = 0;
+      while (count < threshold && solver.nextModel()) {
+        count++;
+      }
+      solver.endEnumeration();
+      cellSizes[hashCount] = count;
+      return count;
+    } finally {
+      solver.pop();
+    }
+  }
+}
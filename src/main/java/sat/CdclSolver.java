@@ -0,0 +1,1329 @@
+package sat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.ClauseDatabase;
+
+/**
+ * A conflict-driven clause-learning SAT solver with two watched literals, VSIDS branching, phase
+ * saving and Luby restarts. Besides clauses, it supports weighted at-most constraints, which are
+ * needed to optimize and to restrict the number of selected options, and parity constraints,
+ * which are needed to hash the models for approximate counting.
+ * <p>
+ * Literals use the encoding of {@link ClauseDatabase}. Constraints that are only needed for a
+ * single query are added after {@link #push()} and removed again by {@link #pop()}.
+ * <p>
+ * Each learnt clause and root-level assignment remembers the innermost scope of the constraints
+ * it has been derived from. Thus, {@link #pop()} only discards what depends on the removed
+ * constraints, and everything learned from the remaining ones speeds up subsequent queries. The
+ * retained learnt clauses are bounded by evicting the least active ones.
+ */
+final class CdclSolver {
+
+  private static final int UNDEFINED_LITERAL = -1;
+
+  private static final int RESTART_BASE = 100;
+
+  private static final double VARIABLE_DECAY = 0.95;
+
+  private static final double CLAUSE_DECAY = 0.999;
+
+  private final int variableCount;
+
+  /**
+   * The value of each variable: 1 if true, -1 if false, and 0 if unassigned.
+   */
+  @Nonnull
+  private final int[] values;
+
+  @Nonnull
+  private final int[] levels;
+
+  /**
+   * The innermost scope that the assignment of each variable at level 0 depends on.
+   */
+  @Nonnull
+  private final int[] rootScopes;
+
+  @Nonnull
+  private final Clause[] reasons;
+
+  @Nonnull
+  private final int[] trailPositions;
+
+  @Nonnull
+  private final boolean[] phases;
+
+  @Nonnull
+  private final boolean[] seen;
+
+  @Nonnull
+  private final int[] trail;
+
+  private int trailSize;
+
+  @Nonnull
+  private int[] trailLimits;
+
+  private int decisionLevel;
+
+  private int propagationHead;
+
+  @Nonnull
+  private final Clause[][] watches;
+
+  @Nonnull
+  private final int[] watchSizes;
+
+  @Nonnull
+  private final List<List<AtMostOccurrence>> atMostOccurrences;
+
+  @Nonnull
+  private final List<Clause> clauses = new ArrayList<>();
+
+  @Nonnull
+  private final List<Clause> learnts = new ArrayList<>();
+
+  @Nonnull
+  private final List<AtMostConstraint> atMostConstraints = new ArrayList<>();
+
+  /**
+   * The parity constraints that contain each variable.
+   */
+  @Nonnull
+  private final List<List<XorConstraint>> xorOccurrences;
+
+  @Nonnull
+  private final List<XorConstraint> xorConstraints = new ArrayList<>();
+
+  @Nonnull
+  private final Deque<Scope> scopes = new ArrayDeque<>();
+
+  @Nonnull
+  private final double[] activities;
+
+  @Nonnull
+  private final int[] heap;
+
+  @Nonnull
+  private final int[] heapIndices;
+
+  private int heapSize;
+
+  private double variableIncrement = 1;
+
+  private double clauseIncrement = 1;
+
+  private double maxLearnts;
+
+  @Nonnull
+  private final boolean[] model;
+
+  @Nonnull
+  private final boolean[] flippedLevels;
+
+  @Nonnull
+  private Random random = new Random(1);
+
+  private boolean ok = true;
+
+  /**
+   * Whether {@link #nextModel()} has found a model whose search state is kept.
+   */
+  private boolean isEnumerating;
+
+  CdclSolver(int variableCount) {
+    this.variableCount = variableCount;
+    values = new int[variableCount];
+    levels = new int[variableCount];
+    rootScopes = new int[variableCount];
+    reasons = new Clause[variableCount];
+    trailPositions = new int[variableCount];
+    phases = new boolean[variableCount];
+    seen = new boolean[variableCount];
+    trail = new int[variableCount];
+    trailLimits = new int[variableCount + 1];
+    watches = new Clause[2 * variableCount][];
+    watchSizes = new int[2 * variableCount];
+    atMostOccurrences = new ArrayList<>(2 * variableCount);
+    for (int i = 0; i < 2 * variableCount; i++) {
+      watches[i] = new Clause[4];
+      atMostOccurrences.add(new ArrayList<>(0));
+    }
+    xorOccurrences = new ArrayList<>(variableCount);
+    for (int v = 0; v < variableCount; v++) {
+      xorOccurrences.add(new ArrayList<>(0));
+    }
+    activities = new double[variableCount];
+    heap = new int[variableCount];
+    heapIndices = new int[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      heapIndices[v] = -1;
+      insertIntoHeap(v);
+    }
+    model = new boolean[variableCount];
+    flippedLevels = new boolean[variableCount + 1];
+  }
+
+  /**
+   * Creates a solver whose variables and clauses are the ones of the given database.
+   */
+  @Nonnull
+  static CdclSolver from(ClauseDatabase clauseDatabase) {
+    CdclSolver solver = new CdclSolver(clauseDatabase.getVariableCount());
+    for (int i = 0; i < clauseDatabase.getClauseCount(); i++) {
+      solver.addClause(clauseDatabase.getClause(i));
+    }
+    return solver;
+  }
+
+  private static int luby(int i) {
+    int size = 1;
+    int sequence = 0;
+    while (size < i + 1) {
+      sequence++;
+      size = 2 * size + 1;
+    }
+    int x = i;
+    while (size - 1 != x) {
+      size = (size - 1) >> 1;
+      sequence--;
+      x %= size;
+    }
+    return 1 << sequence;
+  }
+
+  int getVariableCount() {
+    return variableCount;
+  }
+
+  /**
+   * Sets the seed that determines the initial polarity and order of the decisions.
+   */
+  void setSeed(long seed) {
+    random = new Random(seed);
+    for (int v = 0; v < variableCount; v++) {
+      phases[v] = random.nextBoolean();
+      activities[v] = random.nextDouble() * 1.0e-5;
+    }
+    rebuildHeap();
+  }
+
+  /**
+   * Returns false if the constraints are known to be unsatisfiable.
+   */
+  boolean isOk() {
+    return ok;
+  }
+
+  /**
+   * Returns whether the given literal is true at the root level, that is, whether the solver has
+   * derived it from the current constraints without any decision.
+   */
+  boolean isFixed(int literal) {
+    int v = ClauseDatabase.variable(literal);
+    return values[v] != 0 && levels[v] == 0 && literalValue(literal) == 1;
+  }
+
+  /**
+   * Returns the number of learned clauses that are kept, not counting learned unit facts.
+   */
+  int getLearntCount() {
+    return learnts.size();
+  }
+
+  /**
+   * Returns the value of the given variable in the last model found by {@link #solve()} or
+   * passed to a {@link ModelConsumer}.
+   */
+  boolean getModelValue(int variable) {
+    return model[variable];
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // constraints
+  // ---------------------------------------------------------------------------------------------
+
+  /**
+   * Adds the given clause. Must only be called while no search is running.
+   *
+   * @return False if the solver has become unsatisfiable.
+   */
+  boolean addClause(int... literals) {
+    if (!ok) {
+      return false;
+    }
+    int[] sorted = literals.clone();
+    Arrays.sort(sorted);
+    int length = 0;
+    int previous = UNDEFINED_LITERAL;
+    for (int literal : sorted) {
+      int value = literalValue(literal);
+      if (value == 1 && levels[ClauseDatabase.variable(literal)] == 0
+          || literal == ClauseDatabase.negate(previous)) {
+        // already satisfied or tautology
+        return true;
+      }
+      if (literal != previous && !(value == -1 && levels[ClauseDatabase.variable(literal)] == 0)) {
+        sorted[length] = literal;
+        length++;
+      }
+      previous = literal;
+    }
+    if (length == 0) {
+      ok = false;
+    } else if (length == 1) {
+      uncheckedEnqueue(sorted[0], null);
+      ok = propagate() == null;
+    } else {
+      Clause clause = new Clause(Arrays.copyOf(sorted, length), false, scopes.size());
+      clauses.add(clause);
+      attachClause(clause);
+    }
+    return ok;
+  }
+
+  /**
+   * Adds the constraint <code>sum(weights[i] * literals[i]) <= bound</code>, in which a literal
+   * counts as 1 if it is true and as 0 otherwise. Must only be called while no search is running.
+   *
+   * @return False if the solver has become unsatisfiable.
+   */
+  boolean addAtMost(int[] literals, long[] weights, long bound) {
+    if (!ok) {
+      return false;
+    }
+    // normalize to positive weights: w * l = w + (-w) * not(l)
+    int[] normalizedLiterals = new int[literals.length];
+    long[] normalizedWeights = new long[literals.length];
+    long normalizedBound = bound;
+    int length = 0;
+    for (int i = 0; i < literals.length; i++) {
+      if (weights[i] > 0) {
+        normalizedLiterals[length] = literals[i];
+        normalizedWeights[length] = weights[i];
+        length++;
+      } else if (weights[i] < 0) {
+        normalizedLiterals[length] = ClauseDatabase.negate(literals[i]);
+        normalizedWeights[length] = -weights[i];
+        normalizedBound -= weights[i];
+        length++;
+      }
+    }
+    if (normalizedBound < 0) {
+      ok = false;
+      return false;
+    }
+    // sort by decreasing weight, so that propagation can stop at the first small weight
+    Integer[] order = new Integer[length];
+    for (int i = 0; i < length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong(i -> -normalizedWeights[i]));
+    int[] sortedLiterals = new int[length];
+    long[] sortedWeights = new long[length];
+    for (int i = 0; i < length; i++) {
+      sortedLiterals[i] = normalizedLiterals[order[i]];
+      sortedWeights[i] = normalizedWeights[order[i]];
+    }
+    AtMostConstraint constraint = new AtMostConstraint(sortedLiterals,
+                                                       sortedWeights,
+                                                       normalizedBound,
+                                                       scopes.size());
+    cancelUntil(0);
+    atMostConstraints.add(constraint);
+    attachAtMost(constraint);
+    for (int i = 0; i < length; i++) {
+      if (isCounted(sortedLiterals[i])) {
+        constraint.sum += sortedWeights[i];
+      }
+    }
+    Clause conflict = checkAtMost(constraint);
+    if (conflict != null || propagate() != null) {
+      ok = false;
+    }
+    return ok;
+  }
+
+  /**
+   * Adds the constraint that an odd number of the given variables is true if
+   * <code>isOdd</code> is set, and an even number otherwise. Must only be called while no search
+   * is running.
+   *
+   * @return False if the solver has become unsatisfiable.
+   */
+  boolean addXor(int[] variables, boolean isOdd) {
+    if (!ok) {
+      return false;
+    }
+    // a variable that occurs twice does not change the parity
+    int[] sorted = variables.clone();
+    Arrays.sort(sorted);
+    int length = 0;
+    for (int variable : sorted) {
+      if (length > 0 && sorted[length - 1] == variable) {
+        length--;
+      } else {
+        sorted[length] = variable;
+        length++;
+      }
+    }
+    if (length == 0) {
+      ok = !isOdd;
+      return ok;
+    }
+    XorConstraint constraint = new XorConstraint(Arrays.copyOf(sorted, length),
+                                                 isOdd,
+                                                 scopes.size());
+    cancelUntil(0);
+    xorConstraints.add(constraint);
+    attachXor(constraint);
+    for (int variable : constraint.variables) {
+      if (isCountedVariable(variable)) {
+        constraint.countedSize++;
+        constraint.isCountedOdd ^= values[variable] > 0;
+      }
+    }
+    Clause conflict = checkXor(constraint);
+    if (conflict != null || propagate() != null) {
+      ok = false;
+    }
+    return ok;
+  }
+
+  /**
+   * Starts a scope for constraints that are removed again by the next call to {@link #pop()}.
+   */
+  void push() {
+    cancelUntil(0);
+    if (ok && propagate() != null) {
+      ok = false;
+    }
+    scopes.push(new Scope(trailSize, ok));
+  }
+
+  /**
+   * Removes all constraints that have been added since the matching call to {@link #push()},
+   * together with the learned clauses and root-level assignments that depend on them. The
+   * remaining learned clauses are reduced to a bounded number by activity.
+   */
+  void pop() {
+    int depth = scopes.size();
+    Scope scope = scopes.pop();
+    cancelUntil(0);
+    // root-level assignments that do not depend on the removed constraints are kept as facts
+    int[] retained = new int[trailSize - scope.rootTrailSize];
+    int retainedCount = 0;
+    for (int i = trailSize - 1; i >= scope.rootTrailSize; i--) {
+      if (rootScopes[ClauseDatabase.variable(trail[i])] < depth) {
+        retained[retainedCount] = trail[i];
+        retainedCount++;
+      }
+      unassign(i);
+    }
+    trailSize = scope.rootTrailSize;
+    propagationHead = trailSize;
+    clauses.removeIf(clause -> clause.scope >= depth);
+    learnts.removeIf(clause -> clause.scope >= depth);
+    atMostConstraints.removeIf(constraint -> constraint.scope >= depth);
+    xorConstraints.removeIf(constraint -> constraint.scope >= depth);
+    int learntLimit = (int) Math.max(clauses.size() / 3.0, 100);
+    if (learnts.size() > learntLimit) {
+      reduceLearnts(learnts.size() - learntLimit);
+    }
+    rebuildWatches();
+    for (int i = retainedCount - 1; i >= 0; i--) {
+      int v = ClauseDatabase.variable(retained[i]);
+      int rootScope = rootScopes[v];
+      uncheckedEnqueue(retained[i], null);
+      rootScopes[v] = rootScope;
+    }
+    ok = scope.ok;
+  }
+
+  private void attachClause(Clause clause) {
+    // watch the two literals that are most likely not to be false
+    int[] literals = clause.literals;
+    for (int i = 0; i < 2; i++) {
+      int best = i;
+      for (int j = i + 1; j < literals.length; j++) {
+        if (isBetterWatch(literals[j], literals[best])) {
+          best = j;
+        }
+      }
+      int tmp = literals[i];
+      literals[i] = literals[best];
+      literals[best] = tmp;
+    }
+    addWatch(literals[0], clause);
+    addWatch(literals[1], clause);
+  }
+
+  private boolean isBetterWatch(int literal, int other) {
+    int value = literalValue(literal);
+    int otherValue = literalValue(other);
+    if (value != otherValue) {
+      return value > otherValue;
+    }
+    // among false literals, prefer the one that has been assigned last
+    return value == -1 && levels[ClauseDatabase.variable(literal)]
+                          > levels[ClauseDatabase.variable(other)];
+  }
+
+  private void addWatch(int literal, Clause clause) {
+    Clause[] list = watches[literal];
+    if (watchSizes[literal] == list.length) {
+      list = Arrays.copyOf(list, 2 * list.length);
+      watches[literal] = list;
+    }
+    list[watchSizes[literal]] = clause;
+    watchSizes[literal]++;
+  }
+
+  private void attachAtMost(AtMostConstraint constraint) {
+    for (int i = 0; i < constraint.literals.length; i++) {
+      atMostOccurrences.get(constraint.literals[i])
+                       .add(new AtMostOccurrence(constraint, constraint.weights[i]));
+    }
+  }
+
+  private void attachXor(XorConstraint constraint) {
+    for (int variable : constraint.variables) {
+      xorOccurrences.get(variable).add(constraint);
+    }
+  }
+
+  private void rebuildWatches() {
+    Arrays.fill(watchSizes, 0);
+    for (List<AtMostOccurrence> occurrences : atMostOccurrences) {
+      occurrences.clear();
+    }
+    for (List<XorConstraint> occurrences : xorOccurrences) {
+      occurrences.clear();
+    }
+    for (Clause clause : clauses) {
+      attachClause(clause);
+    }
+    for (Clause clause : learnts) {
+      attachClause(clause);
+    }
+    for (AtMostConstraint constraint : atMostConstraints) {
+      attachAtMost(constraint);
+    }
+    for (XorConstraint constraint : xorConstraints) {
+      attachXor(constraint);
+    }
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // search
+  // ---------------------------------------------------------------------------------------------
+
+  /**
+   * Searches for a model of all constraints. The model can be obtained by
+   * {@link #getModelValue(int)}.
+   */
+  boolean solve() {
+    return solve(new int[0]);
+  }
+
+  /**
+   * Searches for a model of all constraints in which the given literals are true. The assumptions
+   * are decided before all other variables instead of being added as clauses, so the clauses
+   * learned during the search remain valid and are kept for subsequent calls.
+   */
+  boolean solve(int... assumptions) {
+    if (!ok) {
+      return false;
+    }
+    maxLearnts = Math.max(clauses.size() / 3.0, 100);
+    Boolean status = null;
+    for (int restarts = 0; status == null; restarts++) {
+      status = search(assumptions, luby(restarts) * RESTART_BASE);
+      maxLearnts *= 1.1;
+    }
+    cancelUntil(0);
+    return status;
+  }
+
+  @Nullable
+  private Boolean search(int[] assumptions, int conflictLimit) {
+    int conflicts = 0;
+    while (true) {
+      Clause conflict = propagate();
+      if (conflict != null) {
+        conflicts++;
+        if (decisionLevel == 0) {
+          ok = false;
+          return false;
+        }
+        learn(conflict);
+        variableIncrement /= VARIABLE_DECAY;
+        clauseIncrement /= CLAUSE_DECAY;
+      } else {
+        if (conflicts >= conflictLimit) {
+          cancelUntil(0);
+          return null;
+        }
+        if (learnts.size() - trailSize >= maxLearnts) {
+          reduceLearnts(learnts.size() / 2);
+        }
+        int next = UNDEFINED_LITERAL;
+        while (decisionLevel < assumptions.length) {
+          int assumption = assumptions[decisionLevel];
+          int value = literalValue(assumption);
+          if (value == -1) {
+            // the assumptions contradict the constraints
+            cancelUntil(0);
+            return false;
+          } else if (value == 1) {
+            // keep the decision levels aligned with the assumptions
+            newDecisionLevel();
+          } else {
+            next = assumption;
+            break;
+          }
+        }
+        if (next == UNDEFINED_LITERAL) {
+          next = pickBranchLiteral();
+          if (next == UNDEFINED_LITERAL) {
+            saveModel();
+            return true;
+          }
+        }
+        newDecisionLevel();
+        uncheckedEnqueue(next, null);
+      }
+    }
+  }
+
+  /**
+   * Passes every model of the constraints to the given consumer until the consumer asks to stop.
+   */
+  void enumerateModels(ModelConsumer consumer) {
+    while (nextModel()) {
+      if (!consumer.accept()) {
+        break;
+      }
+    }
+    endEnumeration();
+  }
+
+  /**
+   * Searches for the next model of an enumeration, which can be obtained by
+   * {@link #getModelValue(int)}. Models are enumerated by a depth-first search with chronological
+   * backtracking, so that each model is found exactly once without adding blocking clauses. The
+   * search state is kept between calls, so no other method that changes the solver may be called
+   * until the enumeration is ended.
+   *
+   * @return False if all models have been found. The enumeration is ended in that case, so the
+   * next call starts a new one.
+   */
+  boolean nextModel() {
+    if (isEnumerating) {
+      // continue with the branch after the last model
+      if (!backtrackToUnexploredBranch()) {
+        endEnumeration();
+        return false;
+      }
+    } else {
+      cancelUntil(0);
+      if (!ok) {
+        return false;
+      }
+    }
+    while (true) {
+      Clause conflict = propagate();
+      if (conflict != null) {
+        if (!backtrackToUnexploredBranch()) {
+          endEnumeration();
+          return false;
+        }
+        continue;
+      }
+      int next = pickBranchLiteral();
+      if (next == UNDEFINED_LITERAL) {
+        saveModel();
+        isEnumerating = true;
+        return true;
+      }
+      newDecisionLevel();
+      flippedLevels[decisionLevel] = false;
+      uncheckedEnqueue(next, null);
+    }
+  }
+
+  /**
+   * Discards the search state of the current enumeration.
+   */
+  void endEnumeration() {
+    cancelUntil(0);
+    isEnumerating = false;
+  }
+
+  /**
+   * Backtracks to the last decision whose other branch has not been explored yet and continues
+   * with that branch.
+   *
+   * @return False if all branches have been explored.
+   */
+  private boolean backtrackToUnexploredBranch() {
+    int level = decisionLevel;
+    while (level > 0 && flippedLevels[level]) {
+      level--;
+    }
+    if (level == 0) {
+      return false;
+    }
+    int decision = trail[trailLimits[level - 1]];
+    cancelUntil(level - 1);
+    newDecisionLevel();
+    flippedLevels[decisionLevel] = true;
+    uncheckedEnqueue(ClauseDatabase.negate(decision), null);
+    return true;
+  }
+
+  private void saveModel() {
+    for (int v = 0; v < variableCount; v++) {
+      model[v] = values[v] > 0;
+    }
+  }
+
+  private int pickBranchLiteral() {
+    while (heapSize > 0) {
+      int v = removeMaxFromHeap();
+      if (values[v] == 0) {
+        return ClauseDatabase.literal(v, !phases[v]);
+      }
+    }
+    return UNDEFINED_LITERAL;
+  }
+
+  private void newDecisionLevel() {
+    if (decisionLevel == trailLimits.length) {
+      trailLimits = Arrays.copyOf(trailLimits, 2 * trailLimits.length);
+    }
+    trailLimits[decisionLevel] = trailSize;
+    decisionLevel++;
+  }
+
+  private int literalValue(int literal) {
+    int value = values[ClauseDatabase.variable(literal)];
+    return ClauseDatabase.isNegated(literal) ? -value : value;
+  }
+
+  /**
+   * Returns whether the given literal is true and has already been considered by the at-most
+   * constraints.
+   */
+  private boolean isCounted(int literal) {
+    return literalValue(literal) == 1
+           && trailPositions[ClauseDatabase.variable(literal)] < propagationHead;
+  }
+
+  /**
+   * Returns whether the given variable is assigned and has already been considered by the
+   * parity constraints.
+   */
+  private boolean isCountedVariable(int variable) {
+    return values[variable] != 0 && trailPositions[variable] < propagationHead;
+  }
+
+  private void uncheckedEnqueue(int literal, @Nullable Clause reason) {
+    int v = ClauseDatabase.variable(literal);
+    values[v] = ClauseDatabase.isNegated(literal) ? -1 : 1;
+    levels[v] = decisionLevel;
+    reasons[v] = reason;
+    trailPositions[v] = trailSize;
+    trail[trailSize] = literal;
+    trailSize++;
+    if (decisionLevel == 0) {
+      rootScopes[v] = reason == null ? scopes.size() : dependencyScope(reason, 1);
+    }
+  }
+
+  /**
+   * Returns the innermost scope that the given clause and the root-level assignments of its
+   * literals from the given position on depend on.
+   */
+  private int dependencyScope(Clause clause, int from) {
+    int scope = clause.scope;
+    int[] literals = clause.literals;
+    for (int i = from; i < literals.length; i++) {
+      int v = ClauseDatabase.variable(literals[i]);
+      if (levels[v] == 0) {
+        scope = Math.max(scope, rootScopes[v]);
+      }
+    }
+    return scope;
+  }
+
+  private void cancelUntil(int level) {
+    if (decisionLevel <= level) {
+      return;
+    }
+    for (int i = trailSize - 1; i >= trailLimits[level]; i--) {
+      unassign(i);
+    }
+    trailSize = trailLimits[level];
+    propagationHead = Math.min(propagationHead, trailSize);
+    decisionLevel = level;
+  }
+
+  private void unassign(int trailPosition) {
+    int literal = trail[trailPosition];
+    int v = ClauseDatabase.variable(literal);
+    if (trailPosition < propagationHead) {
+      for (AtMostOccurrence occurrence : atMostOccurrences.get(literal)) {
+        occurrence.constraint.sum -= occurrence.weight;
+      }
+      for (XorConstraint constraint : xorOccurrences.get(v)) {
+        constraint.countedSize--;
+        constraint.isCountedOdd ^= values[v] > 0;
+      }
+    }
+    values[v] = 0;
+    reasons[v] = null;
+    phases[v] = !ClauseDatabase.isNegated(literal);
+    insertIntoHeap(v);
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // propagation
+  // ---------------------------------------------------------------------------------------------
+
+  @Nullable
+  private Clause propagate() {
+    while (propagationHead < trailSize) {
+      int literal = trail[propagationHead];
+      propagationHead++;
+      // all sums and parities are updated before any constraint is checked, so that
+      // backtracking can revert them consistently
+      countAtMost(literal);
+      countXor(literal);
+      Clause conflict = propagateAtMost(literal);
+      if (conflict == null) {
+        conflict = propagateXor(literal);
+      }
+      if (conflict == null) {
+        conflict = propagateClauses(ClauseDatabase.negate(literal));
+      }
+      if (conflict != null) {
+        return conflict;
+      }
+    }
+    return null;
+  }
+
+  private void countAtMost(int literal) {
+    for (AtMostOccurrence occurrence : atMostOccurrences.get(literal)) {
+      occurrence.constraint.sum += occurrence.weight;
+    }
+  }
+
+  @Nullable
+  private Clause propagateAtMost(int literal) {
+    for (AtMostOccurrence occurrence : atMostOccurrences.get(literal)) {
+      Clause conflict = checkAtMost(occurrence.constraint);
+      if (conflict != null) {
+        return conflict;
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private Clause checkAtMost(AtMostConstraint constraint) {
+    if (constraint.sum > constraint.bound) {
+      return explainAtMost(constraint, UNDEFINED_LITERAL);
+    }
+    long slack = constraint.bound - constraint.sum;
+    int[] literals = constraint.literals;
+    for (int i = 0; i < literals.length && constraint.weights[i] > slack; i++) {
+      if (literalValue(literals[i]) == 0) {
+        int implied = ClauseDatabase.negate(literals[i]);
+        uncheckedEnqueue(implied, explainAtMost(constraint, implied));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Creates a clause that consists of the given literal (if defined) followed by the negations of
+   * all counted literals of the constraint.
+   */
+  @Nonnull
+  private Clause explainAtMost(AtMostConstraint constraint, int impliedLiteral) {
+    int[] explanation = new int[constraint.literals.length + 1];
+    int length = 0;
+    if (impliedLiteral != UNDEFINED_LITERAL) {
+      explanation[length] = impliedLiteral;
+      length++;
+    }
+    for (int literal : constraint.literals) {
+      if (isCounted(literal)) {
+        explanation[length] = ClauseDatabase.negate(literal);
+        length++;
+      }
+    }
+    return new Clause(Arrays.copyOf(explanation, length), false, constraint.scope);
+  }
+
+  private void countXor(int literal) {
+    for (XorConstraint constraint : xorOccurrences.get(ClauseDatabase.variable(literal))) {
+      constraint.countedSize++;
+      constraint.isCountedOdd ^= !ClauseDatabase.isNegated(literal);
+    }
+  }
+
+  @Nullable
+  private Clause propagateXor(int literal) {
+    for (XorConstraint constraint : xorOccurrences.get(ClauseDatabase.variable(literal))) {
+      Clause conflict = checkXor(constraint);
+      if (conflict != null) {
+        return conflict;
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private Clause checkXor(XorConstraint constraint) {
+    int uncountedSize = constraint.variables.length - constraint.countedSize;
+    if (uncountedSize == 0 && constraint.isCountedOdd != constraint.isOdd) {
+      return explainXor(constraint, UNDEFINED_LITERAL);
+    }
+    if (uncountedSize == 1) {
+      for (int variable : constraint.variables) {
+        if (values[variable] == 0) {
+          // the last variable has to fix the parity
+          boolean isTrue = constraint.isOdd != constraint.isCountedOdd;
+          int implied = ClauseDatabase.literal(variable, !isTrue);
+          uncheckedEnqueue(implied, explainXor(constraint, implied));
+          break;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Creates a clause that consists of the given literal (if defined) followed by the negations of
+   * the current values of all counted variables of the constraint.
+   */
+  @Nonnull
+  private Clause explainXor(XorConstraint constraint, int impliedLiteral) {
+    int[] explanation = new int[constraint.variables.length + 1];
+    int length = 0;
+    if (impliedLiteral != UNDEFINED_LITERAL) {
+      explanation[length] = impliedLiteral;
+      length++;
+    }
+    for (int variable : constraint.variables) {
+      if (isCountedVariable(variable)) {
+        explanation[length] = ClauseDatabase.literal(variable, values[variable] > 0);
+        length++;
+      }
+    }
+    return new Clause(Arrays.copyOf(explanation, length), false, constraint.scope);
+  }
+
+  /**
+   * Visits all clauses that watch the given literal, which has just become false.
+   */
+  @Nullable
+  private Clause propagateClauses(int falseLiteral) {
+    Clause[] list = watches[falseLiteral];
+    int size = watchSizes[falseLiteral];
+    int kept = 0;
+    Clause conflict = null;
+    int i = 0;
+    while (i < size) {
+      Clause clause = list[i];
+      i++;
+      if (clause.isRemoved) {
+        continue;
+      }
+      int[] literals = clause.literals;
+      // make sure that the false literal is at position 1
+      if (literals[0] == falseLiteral) {
+        literals[0] = literals[1];
+        literals[1] = falseLiteral;
+      }
+      if (literalValue(literals[0]) == 1) {
+        list[kept] = clause;
+        kept++;
+        continue;
+      }
+      // look for a new literal to watch
+      boolean foundWatch = false;
+      for (int k = 2; k < literals.length; k++) {
+        if (literalValue(literals[k]) != -1) {
+          literals[1] = literals[k];
+          literals[k] = falseLiteral;
+          addWatch(literals[1], clause);
+          foundWatch = true;
+          break;
+        }
+      }
+      if (foundWatch) {
+        continue;
+      }
+      // the clause is unit or conflicting
+      list[kept] = clause;
+      kept++;
+      if (literalValue(literals[0]) == -1) {
+        conflict = clause;
+        while (i < size) {
+          list[kept] = list[i];
+          kept++;
+          i++;
+        }
+      } else {
+        uncheckedEnqueue(literals[0], clause);
+      }
+    }
+    watchSizes[falseLiteral] = kept;
+    return conflict;
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // conflict analysis
+  // ---------------------------------------------------------------------------------------------
+
+  private void learn(Clause conflict) {
+    int[] learnt = new int[decisionLevel + trailSize + 1];
+    int length = 1;
+    int pathCount = 0;
+    int literal = UNDEFINED_LITERAL;
+    int index = trailSize - 1;
+    Clause reason = conflict;
+    // the innermost scope of the clauses and root-level assignments the learnt clause relies on
+    int scope = 0;
+    do {
+      if (reason.isLearnt) {
+        bumpClause(reason);
+      }
+      int[] reasonLiterals = reason.literals;
+      int from = literal == UNDEFINED_LITERAL ? 0 : 1;
+      scope = Math.max(scope, dependencyScope(reason, from));
+      for (int j = from; j < reasonLiterals.length; j++) {
+        int q = reasonLiterals[j];
+        int v = ClauseDatabase.variable(q);
+        if (!seen[v] && levels[v] > 0) {
+          bumpVariable(v);
+          seen[v] = true;
+          if (levels[v] >= decisionLevel) {
+            pathCount++;
+          } else {
+            learnt[length] = q;
+            length++;
+          }
+        }
+      }
+      while (!seen[ClauseDatabase.variable(trail[index])]) {
+        index--;
+      }
+      literal = trail[index];
+      index--;
+      reason = reasons[ClauseDatabase.variable(literal)];
+      seen[ClauseDatabase.variable(literal)] = false;
+      pathCount--;
+    } while (pathCount > 0);
+    learnt[0] = ClauseDatabase.negate(literal);
+
+    // remove literals that are implied by other literals of the learnt clause
+    int[] analyzed = Arrays.copyOf(learnt, length);
+    int minimizedLength = 1;
+    for (int i = 1; i < length; i++) {
+      Clause r = reasons[ClauseDatabase.variable(learnt[i])];
+      boolean isRedundant = r != null;
+      if (r != null) {
+        for (int k = 1; k < r.literals.length; k++) {
+          int v = ClauseDatabase.variable(r.literals[k]);
+          if (!seen[v] && levels[v] > 0) {
+            isRedundant = false;
+            break;
+          }
+        }
+      }
+      if (isRedundant) {
+        scope = Math.max(scope, dependencyScope(r, 1));
+      } else {
+        learnt[minimizedLength] = learnt[i];
+        minimizedLength++;
+      }
+    }
+    for (int i = 1; i < length; i++) {
+      seen[ClauseDatabase.variable(analyzed[i])] = false;
+    }
+
+    // find the level to backjump to and watch a literal of that level
+    int backjumpLevel = 0;
+    if (minimizedLength > 1) {
+      int maxIndex = 1;
+      for (int i = 2; i < minimizedLength; i++) {
+        if (levels[ClauseDatabase.variable(learnt[i])]
+            > levels[ClauseDatabase.variable(learnt[maxIndex])]) {
+          maxIndex = i;
+        }
+      }
+      int tmp = learnt[1];
+      learnt[1] = learnt[maxIndex];
+      learnt[maxIndex] = tmp;
+      backjumpLevel = levels[ClauseDatabase.variable(learnt[1])];
+    }
+    cancelUntil(backjumpLevel);
+    if (minimizedLength == 1) {
+      uncheckedEnqueue(learnt[0], null);
+      rootScopes[ClauseDatabase.variable(learnt[0])] = scope;
+    } else {
+      Clause clause = new Clause(Arrays.copyOf(learnt, minimizedLength), true, scope);
+      learnts.add(clause);
+      addWatch(clause.literals[0], clause);
+      addWatch(clause.literals[1], clause);
+      bumpClause(clause);
+      uncheckedEnqueue(clause.literals[0], clause);
+    }
+  }
+
+  private void bumpVariable(int variable) {
+    activities[variable] += variableIncrement;
+    if (activities[variable] > 1.0e100) {
+      for (int v = 0; v < variableCount; v++) {
+        activities[v] *= 1.0e-100;
+      }
+      variableIncrement *= 1.0e-100;
+    }
+    if (heapIndices[variable] >= 0) {
+      siftUp(heapIndices[variable]);
+    }
+  }
+
+  private void bumpClause(Clause clause) {
+    clause.activity += clauseIncrement;
+    if (clause.activity > 1.0e20) {
+      for (Clause learnt : learnts) {
+        learnt.activity *= 1.0e-20;
+      }
+      clauseIncrement *= 1.0e-20;
+    }
+  }
+
+  /**
+   * Removes up to the given number of learnt clauses that have been least active recently.
+   */
+  private void reduceLearnts(int limit) {
+    learnts.sort(Comparator.comparingDouble(clause -> clause.activity));
+    int kept = 0;
+    for (int i = 0; i < learnts.size(); i++) {
+      Clause clause = learnts.get(i);
+      if (i < limit && clause.literals.length > 2 && !isLocked(clause)) {
+        clause.isRemoved = true;
+      } else {
+        learnts.set(kept, clause);
+        kept++;
+      }
+    }
+    learnts.subList(kept, learnts.size()).clear();
+  }
+
+  private boolean isLocked(Clause clause) {
+    int first = clause.literals[0];
+    return reasons[ClauseDatabase.variable(first)] == clause && literalValue(first) == 1;
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // variable order
+  // ---------------------------------------------------------------------------------------------
+
+  private void rebuildHeap() {
+    heapSize = 0;
+    Arrays.fill(heapIndices, -1);
+    for (int v = 0; v < variableCount; v++) {
+      if (values[v] == 0) {
+        insertIntoHeap(v);
+      }
+    }
+  }
+
+  private void insertIntoHeap(int variable) {
+    if (heapIndices[variable] >= 0) {
+      return;
+    }
+    heap[heapSize] = variable;
+    heapIndices[variable] = heapSize;
+    heapSize++;
+    siftUp(heapSize - 1);
+  }
+
+  private int removeMaxFromHeap() {
+    int max = heap[0];
+    heapSize--;
+    heap[0] = heap[heapSize];
+    heapIndices[heap[0]] = 0;
+    heapIndices[max] = -1;
+    if (heapSize > 0) {
+      siftDown(0);
+    }
+    return max;
+  }
+
+  private void siftUp(int position) {
+    int variable = heap[position];
+    int i = position;
+    while (i > 0) {
+      int parent = (i - 1) >> 1;
+      if (activities[heap[parent]] >= activities[variable]) {
+        break;
+      }
+      heap[i] = heap[parent];
+      heapIndices[heap[i]] = i;
+      i = parent;
+    }
+    heap[i] = variable;
+    heapIndices[variable] = i;
+  }
+
+  private void siftDown(int position) {
+    int variable = heap[position];
+    int i = position;
+    while (2 * i + 1 < heapSize) {
+      int child = 2 * i + 1;
+      if (child + 1 < heapSize && activities[heap[child + 1]] > activities[heap[child]]) {
+        child++;
+      }
+      if (activities[heap[child]] <= activities[variable]) {
+        break;
+      }
+      heap[i] = heap[child];
+      heapIndices[heap[i]] = i;
+      i = child;
+    }
+    heap[i] = variable;
+    heapIndices[variable] = i;
+  }
+
+  /**
+   * Receives the models found by {@link #enumerateModels(ModelConsumer)}.
+   */
+  @FunctionalInterface
+  interface ModelConsumer {
+
+    /**
+     * Called for each model, which can be obtained by {@link #getModelValue(int)}.
+     *
+     * @return True if the enumeration should continue, false otherwise.
+     */
+    boolean accept();
+  }
+
+  private static final class Clause {
+
+    @Nonnull
+    final int[] literals;
+
+    final boolean isLearnt;
+
+    /**
+     * The scope the clause has been added in or, if it is learnt, the innermost scope of the
+     * constraints it has been derived from.
+     */
+    final int scope;
+
+    double activity;
+
+    boolean isRemoved;
+
+    Clause(int[] literals, boolean isLearnt, int scope) {
+      this.literals = literals;
+      this.isLearnt = isLearnt;
+      this.scope = scope;
+    }
+  }
+
+  private static final class AtMostConstraint {
+
+    @Nonnull
+    final int[] literals;
+
+    @Nonnull
+    final long[] weights;
+
+    final long bound;
+
+    final int scope;
+
+    /**
+     * The sum of the weights of all counted literals.
+     */
+    long sum;
+
+    AtMostConstraint(int[] literals, long[] weights, long bound, int scope) {
+      this.literals = literals;
+      this.weights = weights;
+      this.bound = bound;
+      this.scope = scope;
+    }
+  }
+
+  private static final class AtMostOccurrence {
+
+    @Nonnull
+    final AtMostConstraint constraint;
+
+    final long weight;
+
+    AtMostOccurrence(AtMostConstraint constraint, long weight) {
+      this.constraint = constraint;
+      this.weight = weight;
+    }
+  }
+
+  private static final class XorConstraint {
+
+    @Nonnull
+    final int[] variables;
+
+    final boolean isOdd;
+
+    final int scope;
+
+    /**
+     * The number of counted variables.
+     */
+    int countedSize;
+
+    /**
+     * Whether an odd number of the counted variables is true.
+     */
+    boolean isCountedOdd;
+
+    XorConstraint(int[] variables, boolean isOdd, int scope) {
+      this.variables = variables;
+      this.isOdd = isOdd;
+      this.scope = scope;
+    }
+  }
+
+  private static final class Scope {
+
+    final int rootTrailSize;
+
+    final boolean ok;
+
+    Scope(int rootTrailSize, boolean ok) {
+      this.rootTrailSize = rootTrailSize;
+      this.ok = ok;
+    }
+  }
+}
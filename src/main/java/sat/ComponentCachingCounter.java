@@ -0,0 +1,408 @@
+package sat;
+
+import static spl_conqueror.ClauseDatabase.isNegated;
+import static spl_conqueror.ClauseDatabase.literal;
+import static spl_conqueror.ClauseDatabase.variable;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+import spl_conqueror.ModelCounter;
+
+/**
+ * Counts the models of the clauses of a variability model with an exhaustive DPLL search
+ * (#SAT). After each decision and its unit propagation, the unassigned variables are split into
+ * components that do not share an unsatisfied clause. The count of a node is the product of the
+ * counts of its components, and each component is counted only once: its count is cached under
+ * its variables and its unsatisfied clauses, which determine the remaining clauses completely.
+ * The cache is kept across queries.
+ */
+public final class ComponentCachingCounter implements ModelCounter {
+
+  private static final int MAX_CACHE_SIZE = 1 << 20;
+
+  private static final int UNASSIGNED = -1;
+
+  private final int variableCount;
+
+  @Nonnull
+  private final int[][] clauses;
+
+  /**
+   * The clauses that contain each variable.
+   */
+  @Nonnull
+  private final int[][] occurrences;
+
+  @Nonnull
+  private final Map<ComponentKey, BigInteger> cache;
+
+  /**
+   * The value of each variable: 1 if selected, 0 if deselected, or {@link #UNASSIGNED}.
+   */
+  @Nonnull
+  private final int[] values;
+
+  @Nonnull
+  private final int[] trail;
+
+  private int trailSize;
+
+  /**
+   * Marks the variables and clauses that have been visited by the current decomposition.
+   */
+  @Nonnull
+  private final int[] variableMarks;
+
+  @Nonnull
+  private final int[] clauseMarks;
+
+  private int mark;
+
+  /**
+   * Counts the occurrences of each variable within a component when choosing a branch.
+   */
+  @Nonnull
+  private final int[] scores;
+
+  private ComponentCachingCounter(int variableCount, int[][] clauses, int[][] occurrences) {
+    this.variableCount = variableCount;
+    this.clauses = clauses;
+    this.occurrences = occurrences;
+    cache = new LinkedHashMap<ComponentKey, BigInteger>() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Entry<ComponentKey, BigInteger> eldest) {
+        return size() > MAX_CACHE_SIZE;
+      }
+    };
+    values = new int[variableCount];
+    Arrays.fill(values, UNASSIGNED);
+    trail = new int[variableCount];
+    variableMarks = new int[variableCount];
+    clauseMarks = new int[clauses.length];
+    scores = new int[variableCount];
+  }
+
+  @Nonnull
+  public static ComponentCachingCounter from(ClauseDatabase clauseDatabase) {
+    int variableCount = clauseDatabase.getVariableCount();
+    int[][] clauses = new int[clauseDatabase.getClauseCount()][];
+    int[] occurrenceCounts = new int[variableCount];
+    for (int i = 0; i < clauses.length; i++) {
+      clauses[i] = clauseDatabase.getClause(i);
+      for (int lit : clauses[i]) {
+        occurrenceCounts[variable(lit)]++;
+      }
+    }
+    int[][] occurrences = new int[variableCount][];
+    for (int v = 0; v < variableCount; v++) {
+      occurrences[v] = new int[occurrenceCounts[v]];
+      occurrenceCounts[v] = 0;
+    }
+    for (int i = 0; i < clauses.length; i++) {
+      for (int lit : clauses[i]) {
+        int v = variable(lit);
+        occurrences[v][occurrenceCounts[v]] = i;
+        occurrenceCounts[v]++;
+      }
+    }
+    return new ComponentCachingCounter(variableCount, clauses, occurrences);
+  }
+
+  @Nonnull
+  @Override
+  public BigInteger countConfigurations(Configuration partialConfig) {
+    return countModels(partialConfig.indices().map(i -> literal(i, false)).toArray());
+  }
+
+  /**
+   * Counts the models in which all given literals are true.
+   */
+  @Nonnull
+  BigInteger countModels(int... assumptions) {
+    BigInteger count = assignRoot(assumptions)
+                       ? countComponents(allVariables())
+                       : BigInteger.ZERO;
+    undoUntil(0);
+    return count;
+  }
+
+  @Nonnull
+  private int[] allVariables() {
+    int[] variables = new int[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      variables[v] = v;
+    }
+    return variables;
+  }
+
+  /**
+   * Assigns the unit clauses and the given literals, and propagates them.
+   *
+   * @return False if there is no model.
+   */
+  private boolean assignRoot(int[] assumptions) {
+    for (int[] clause : clauses) {
+      if (clause.length == 0 || (clause.length == 1 && !assign(clause[0]))) {
+        return false;
+      }
+    }
+    for (int lit : assumptions) {
+      if (!assign(lit)) {
+        return false;
+      }
+    }
+    return propagate(0);
+  }
+
+  private boolean isTrue(int lit) {
+    return values[variable(lit)] == (isNegated(lit) ? 0 : 1);
+  }
+
+  private boolean isUnassigned(int v) {
+    return values[v] == UNASSIGNED;
+  }
+
+  /**
+   * Makes the given literal true.
+   *
+   * @return False if the literal is already false.
+   */
+  private boolean assign(int lit) {
+    int v = variable(lit);
+    if (!isUnassigned(v)) {
+      return isTrue(lit);
+    }
+    values[v] = isNegated(lit) ? 0 : 1;
+    trail[trailSize] = v;
+    trailSize++;
+    return true;
+  }
+
+  private void undoUntil(int trailPosition) {
+    while (trailSize > trailPosition) {
+      trailSize--;
+      values[trail[trailSize]] = UNASSIGNED;
+    }
+  }
+
+  /**
+   * Propagates the assignments on the trail from the given position on.
+   *
+   * @return False if a clause has become unsatisfiable.
+   */
+  private boolean propagate(int trailPosition) {
+    for (int head = trailPosition; head < trailSize; head++) {
+      for (int clause : occurrences[trail[head]]) {
+        int unassignedLiteral = -1;
+        int unassignedCount = 0;
+        boolean isSatisfied = false;
+        for (int lit : clauses[clause]) {
+          if (isUnassigned(variable(lit))) {
+            unassignedLiteral = lit;
+            unassignedCount++;
+          } else if (isTrue(lit)) {
+            isSatisfied = true;
+            break;
+          }
+        }
+        if (isSatisfied || unassignedCount > 1) {
+          continue;
+        }
+        if (unassignedCount == 0 || !assign(unassignedLiteral)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean isSatisfied(int clause) {
+    for (int lit : clauses[clause]) {
+      if (isTrue(lit)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Multiplies the counts of the components that the unassigned variables among the given ones
+   * form.
+   */
+  @Nonnull
+  private BigInteger countComponents(int[] variables) {
+    List<Component> components = decompose(variables);
+    int freeVariableCount = 0;
+    BigInteger count = BigInteger.ONE;
+    for (Component component : components) {
+      if (component.clauses.length == 0) {
+        // an unconstrained variable
+        freeVariableCount++;
+        continue;
+      }
+      BigInteger componentCount = countComponent(component);
+      if (componentCount.signum() == 0) {
+        return BigInteger.ZERO;
+      }
+      count = count.multiply(componentCount);
+    }
+    return count.shiftLeft(freeVariableCount);
+  }
+
+  /**
+   * Splits the unassigned variables among the given ones into components that are connected by
+   * unsatisfied clauses.
+   */
+  @Nonnull
+  private List<Component> decompose(int[] variables) {
+    mark++;
+    List<Component> components = new ArrayList<>();
+    int[] componentVariables = new int[variables.length];
+    List<Integer> componentClauses = new ArrayList<>();
+    for (int start : variables) {
+      if (!isUnassigned(start) || variableMarks[start] == mark) {
+        continue;
+      }
+      // breadth-first search over the unsatisfied clauses
+      int size = 0;
+      componentClauses.clear();
+      componentVariables[size] = start;
+      size++;
+      variableMarks[start] = mark;
+      for (int head = 0; head < size; head++) {
+        for (int clause : occurrences[componentVariables[head]]) {
+          if (clauseMarks[clause] == mark || isSatisfied(clause)) {
+            continue;
+          }
+          clauseMarks[clause] = mark;
+          componentClauses.add(clause);
+          for (int lit : clauses[clause]) {
+            int v = variable(lit);
+            if (isUnassigned(v) && variableMarks[v] != mark) {
+              variableMarks[v] = mark;
+              componentVariables[size] = v;
+              size++;
+            }
+          }
+        }
+      }
+      int[] sortedVariables = Arrays.copyOf(componentVariables, size);
+      Arrays.sort(sortedVariables);
+      int[] sortedClauses = componentClauses.stream()
+                                            .mapToInt(Integer::intValue)
+                                            .sorted()
+                                            .toArray();
+      components.add(new Component(sortedVariables, sortedClauses));
+    }
+    return components;
+  }
+
+  @Nonnull
+  private BigInteger countComponent(Component component) {
+    ComponentKey key = new ComponentKey(component);
+    BigInteger cachedCount = cache.get(key);
+    if (cachedCount != null) {
+      return cachedCount;
+    }
+    int branch = chooseBranch(component);
+    BigInteger count = BigInteger.ZERO;
+    for (int lit : new int[]{literal(branch, false), literal(branch, true)}) {
+      int trailPosition = trailSize;
+      if (assign(lit) && propagate(trailPosition)) {
+        count = count.add(countComponents(component.variables));
+      }
+      undoUntil(trailPosition);
+    }
+    cache.put(key, count);
+    return count;
+  }
+
+  /**
+   * Returns the variable that occurs in the most clauses of the given component.
+   */
+  private int chooseBranch(Component component) {
+    for (int clause : component.clauses) {
+      for (int lit : clauses[clause]) {
+        scores[variable(lit)]++;
+      }
+    }
+    int branch = component.variables[0];
+    for (int v : component.variables) {
+      if (scores[v] > scores[branch]) {
+        branch = v;
+      }
+    }
+    for (int clause : component.clauses) {
+      for (int lit : clauses[clause]) {
+        scores[variable(lit)] = 0;
+      }
+    }
+    return branch;
+  }
+
+  private static final class Component {
+
+    @Nonnull
+    final int[] variables;
+
+    @Nonnull
+    final int[] clauses;
+
+    Component(int[] variables, int[] clauses) {
+      this.variables = variables;
+      this.clauses = clauses;
+    }
+  }
+
+  /**
+   * Identifies a component by its variables and its unsatisfied clauses. All other literals of
+   * these clauses are false, so the key determines the remaining formula.
+   */
+  private static final class ComponentKey {
+
+    @Nonnull
+    private final int[] ids;
+
+    private final int hashCode;
+
+    ComponentKey(Component component) {
+      ids = new int[component.variables.length + component.clauses.length + 1];
+      ids[0] = component.variables.length;
+      System.arraycopy(component.variables, 0, ids, 1, component.variables.length);
+      System.arraycopy(component.clauses, 0, ids, component.variables.length + 1,
+                       component.clauses.length);
+      hashCode = Arrays.hashCode(ids);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ComponentKey)) {
+        return false;
+      }
+      //noinspection QuestionableName
+      ComponentKey that = (ComponentKey) o;
+      return hashCode == that.hashCode && Arrays.equals(ids, that.ids);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
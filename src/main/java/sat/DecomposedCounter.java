@@ -0,0 +1,72 @@
+package sat;
+
+import static spl_conqueror.ClauseDatabase.literal;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.ModelComponent;
+import spl_conqueror.ModelCounter;
+import spl_conqueror.SimplifiedModel;
+
+/**
+ * Counts the configurations of a simplified variability model by counting the models of each of
+ * its components on its own and multiplying the counts. Each component has a counter of its own,
+ * so the components are counted in parallel and the cache of a component is not displaced by the
+ * others. Fixed and merged options do not change the number of configurations.
+ */
+public final class DecomposedCounter implements ModelCounter {
+
+  @Nonnull
+  private final SimplifiedModel simplifiedModel;
+
+  @Nonnull
+  private final List<ComponentCachingCounter> counters;
+
+  private DecomposedCounter(SimplifiedModel simplifiedModel,
+                            List<ComponentCachingCounter> counters) {
+    this.simplifiedModel = simplifiedModel;
+    this.counters = counters;
+  }
+
+  @Nonnull
+  public static DecomposedCounter from(SimplifiedModel simplifiedModel) {
+    List<ComponentCachingCounter> counters = new ArrayList<>();
+    for (ModelComponent component : simplifiedModel.getComponents()) {
+      counters.add(ComponentCachingCounter.from(component.getClauseDatabase()));
+    }
+    return new DecomposedCounter(simplifiedModel, counters);
+  }
+
+  @Nonnull
+  @Override
+  public BigInteger countConfigurations(Configuration partialConfig) {
+    // distribute the selected options among the components
+    List<List<Integer>> assumptions = new ArrayList<>(counters.size());
+    for (int c = 0; c < counters.size(); c++) {
+      assumptions.add(new ArrayList<>());
+    }
+    for (int i = partialConfig.nextSelectedIndex(0);
+         i >= 0;
+         i = partialConfig.nextSelectedIndex(i + 1)) {
+      int v = simplifiedModel.getVariable(i);
+      if (v == SimplifiedModel.DESELECTED) {
+        return BigInteger.ZERO;
+      }
+      if (v != SimplifiedModel.SELECTED) {
+        assumptions.get(simplifiedModel.getComponent(v))
+                   .add(literal(simplifiedModel.getLocalVariable(v), false));
+      }
+    }
+    return IntStream.range(0, counters.size())
+                    .parallel()
+                    .mapToObj(c -> counters.get(c).countModels(
+                        assumptions.get(c).stream().mapToInt(Integer::intValue).toArray()))
+                    .reduce(BigInteger.ONE, BigInteger::multiply);
+  }
+}
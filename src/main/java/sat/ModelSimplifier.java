@@ -0,0 +1,302 @@
+package sat;
+
+import static spl_conqueror.ClauseDatabase.isNegated;
+import static spl_conqueror.ClauseDatabase.literal;
+import static spl_conqueror.ClauseDatabase.variable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.SimplifiedModel;
+
+/**
+ * Simplifies the clauses of a variability model before they are handed to a solver. The options
+ * whose value is the same in all models (core and dead options) are fixed, the options that have
+ * the same value in all models (atomic sets) are merged, and clauses that are subsumed by other
+ * clauses are dropped.
+ * <p>
+ * Both kinds of options are found with the SAT solver, guided by the models found so far: an
+ * option can only be fixed if it has the same value in all of them, and two options can only be
+ * merged if they agree in all of them. Each model that refutes a candidate usually rules out
+ * further candidates as well, which saves solver calls.
+ */
+public final class ModelSimplifier {
+
+  private static final int FREE = 0;
+
+  @Nonnull
+  private final ClauseDatabase clauseDatabase;
+
+  @Nonnull
+  private final CdclSolver solver;
+
+  private final int variableCount;
+
+  /**
+   * The models that have been found so far.
+   */
+  @Nonnull
+  private final List<boolean[]> models = new ArrayList<>();
+
+  /**
+   * The value of each variable: 1 if it is selected in all models, -1 if it is deselected in all
+   * models, and {@link #FREE} otherwise.
+   */
+  @Nonnull
+  private final int[] fixedValues;
+
+  /**
+   * The variable that represents the atomic set of each variable.
+   */
+  @Nonnull
+  private final int[] representatives;
+
+  private ModelSimplifier(ClauseDatabase clauseDatabase) {
+    this.clauseDatabase = clauseDatabase;
+    solver = CdclSolver.from(clauseDatabase);
+    variableCount = clauseDatabase.getVariableCount();
+    fixedValues = new int[variableCount];
+    representatives = new int[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      representatives[v] = v;
+    }
+  }
+
+  /**
+   * Simplifies the given clauses.
+   *
+   * @return The simplified model, or null if the clauses are unsatisfiable.
+   */
+  @Nullable
+  public static SimplifiedModel simplify(ClauseDatabase clauseDatabase) {
+    ModelSimplifier simplifier = new ModelSimplifier(clauseDatabase);
+    if (!simplifier.solve()) {
+      return null;
+    }
+    simplifier.findFixedVariables();
+    simplifier.findAtomicSets();
+    return simplifier.build();
+  }
+
+  /**
+   * Searches for a model under the given assumptions and records it.
+   */
+  private boolean solve(int... assumptions) {
+    if (!solver.solve(assumptions)) {
+      return false;
+    }
+    boolean[] model = new boolean[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      model[v] = solver.getModelValue(v);
+    }
+    models.add(model);
+    return true;
+  }
+
+  private boolean hasSameValueInAllModels(int v) {
+    boolean value = models.get(0)[v];
+    for (boolean[] model : models) {
+      if (model[v] != value) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void findFixedVariables() {
+    for (int v = 0; v < variableCount; v++) {
+      if (!hasSameValueInAllModels(v)) {
+        continue;
+      }
+      boolean value = models.get(0)[v];
+      // a variable is fixed if it cannot take the other value
+      if (!solve(literal(v, value))) {
+        fixedValues[v] = value ? 1 : -1;
+        solver.addClause(literal(v, !value));
+      }
+    }
+  }
+
+  private void findAtomicSets() {
+    Deque<List<Integer>> groups = new ArrayDeque<>();
+    List<Integer> freeVariables = new ArrayList<>();
+    for (int v = 0; v < variableCount; v++) {
+      if (fixedValues[v] == FREE) {
+        freeVariables.add(v);
+      }
+    }
+    if (freeVariables.size() > 1) {
+      groups.push(freeVariables);
+    }
+    while (!groups.isEmpty()) {
+      List<Integer> group = groups.pop();
+      int representative = group.get(0);
+      List<Integer> remaining = new ArrayList<>(group.subList(1, group.size()));
+      while (!remaining.isEmpty()) {
+        int member = remaining.remove(0);
+        if (agreeInAllModels(representative, member)
+            && !findDistinguishingModel(representative, member)) {
+          representatives[member] = representative;
+          continue;
+        }
+        // the members that disagree with the representative form a new group, which keeps the
+        // order of the variables
+        List<Integer> separated = new ArrayList<>();
+        separated.add(member);
+        remaining.removeIf(v -> {
+          if (!agreeInAllModels(representative, v)) {
+            separated.add(v);
+            return true;
+          }
+          return false;
+        });
+        if (separated.size() > 1) {
+          groups.push(separated);
+        }
+      }
+    }
+  }
+
+  private boolean agreeInAllModels(int v, int w) {
+    for (boolean[] model : models) {
+      if (model[v] != model[w]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Searches for a model in which the given variables have different values.
+   *
+   * @return False if the variables are equivalent.
+   */
+  private boolean findDistinguishingModel(int v, int w) {
+    return solve(literal(v, false), literal(w, true)) || solve(literal(v, true), literal(w, false));
+  }
+
+  @Nonnull
+  private SimplifiedModel build() {
+    int[] optionToVariable = new int[variableCount];
+    int[] variableToOption = new int[variableCount];
+    int simplifiedVariableCount = 0;
+    for (int v = 0; v < variableCount; v++) {
+      if (fixedValues[v] != FREE) {
+        optionToVariable[v] = fixedValues[v] > 0 ? SimplifiedModel.SELECTED
+                                                 : SimplifiedModel.DESELECTED;
+      } else if (representatives[v] == v) {
+        optionToVariable[v] = simplifiedVariableCount;
+        variableToOption[simplifiedVariableCount] = v;
+        simplifiedVariableCount++;
+      } else {
+        // representatives have smaller indices than their members
+        optionToVariable[v] = optionToVariable[representatives[v]];
+      }
+    }
+    List<int[]> clauses = new ArrayList<>();
+    for (int i = 0; i < clauseDatabase.getClauseCount(); i++) {
+      int[] clause = simplifyClause(clauseDatabase.getClause(i), optionToVariable);
+      if (clause != null) {
+        clauses.add(clause);
+      }
+    }
+    return new SimplifiedModel(optionToVariable,
+                               Arrays.copyOf(variableToOption, simplifiedVariableCount),
+                               ClauseDatabase.of(simplifiedVariableCount,
+                                                 removeSubsumedClauses(
+                                                     clauses, simplifiedVariableCount)));
+  }
+
+  /**
+   * Translates the given clause to the simplified variables.
+   *
+   * @return The sorted clause, or null if it is satisfied by a fixed variable or a tautology.
+   */
+  @Nullable
+  private int[] simplifyClause(int[] clause, int[] optionToVariable) {
+    int[] literals = new int[clause.length];
+    int length = 0;
+    for (int lit : clause) {
+      int v = optionToVariable[variable(lit)];
+      if (v == SimplifiedModel.SELECTED || v == SimplifiedModel.DESELECTED) {
+        if ((v == SimplifiedModel.SELECTED) != isNegated(lit)) {
+          return null;
+        }
+      } else {
+        literals[length] = literal(v, isNegated(lit));
+        length++;
+      }
+    }
+    int[] sorted = Arrays.copyOf(literals, length);
+    Arrays.sort(sorted);
+    length = 0;
+    for (int lit : sorted) {
+      if (length > 0 && sorted[length - 1] == lit) {
+        continue;
+      }
+      if (length > 0 && sorted[length - 1] == ClauseDatabase.negate(lit)) {
+        return null;
+      }
+      sorted[length] = lit;
+      length++;
+    }
+    return Arrays.copyOf(sorted, length);
+  }
+
+  /**
+   * Drops the clauses that contain all literals of another clause. Shorter clauses are kept
+   * first, so a clause can only be subsumed by a clause that has been kept before.
+   */
+  @Nonnull
+  private static List<int[]> removeSubsumedClauses(List<int[]> clauses, int variableCount) {
+    List<int[]> sorted = new ArrayList<>(clauses);
+    sorted.sort(Comparator.comparingInt((int[] clause) -> clause.length));
+    List<List<int[]>> occurrences = new ArrayList<>(2 * variableCount);
+    for (int i = 0; i < 2 * variableCount; i++) {
+      occurrences.add(new ArrayList<>());
+    }
+    boolean[] isMarked = new boolean[2 * variableCount];
+    List<int[]> kept = new ArrayList<>();
+    for (int[] clause : sorted) {
+      for (int lit : clause) {
+        isMarked[lit] = true;
+      }
+      boolean isSubsumed = false;
+      for (int i = 0; i < clause.length && !isSubsumed; i++) {
+        for (int[] other : occurrences.get(clause[i])) {
+          if (containsMarkedLiteralsOnly(other, isMarked)) {
+            isSubsumed = true;
+            break;
+          }
+        }
+      }
+      for (int lit : clause) {
+        isMarked[lit] = false;
+      }
+      if (!isSubsumed) {
+        kept.add(clause);
+        for (int lit : clause) {
+          occurrences.get(lit).add(clause);
+        }
+      }
+    }
+    return kept;
+  }
+
+  private static boolean containsMarkedLiteralsOnly(int[] clause, boolean[] isMarked) {
+    for (int lit : clause) {
+      if (!isMarked[lit]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
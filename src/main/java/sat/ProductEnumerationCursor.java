@@ -0,0 +1,182 @@
+package sat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.ModelComponent;
+import spl_conqueror.SimplifiedModel;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * Pages through the configurations of a simplified variability model as the cartesian product of
+ * the models of its components. Each component has a solver of its own, which enumerates its
+ * models lazily, when the product reaches them for the first time. The models of the inner
+ * components are kept to be combined again, while the outermost component, the largest one, is
+ * only enumerated once and never kept. Thus, the solvers only search the models of the
+ * components instead of the configurations of the whole model.
+ */
+final class ProductEnumerationCursor implements EnumerationCursor {
+
+  @Nonnull
+  private final VariabilityModel vm;
+
+  @Nonnull
+  private final SimplifiedModel simplifiedModel;
+
+  /**
+   * The components ordered from the outermost to the innermost position of the product.
+   */
+  @Nonnull
+  private final List<ModelComponent> components;
+
+  @Nonnull
+  private final CdclSolver[] solvers;
+
+  /**
+   * The models of each component that have been found so far. The list of the outermost
+   * component stays empty.
+   */
+  @Nonnull
+  private final List<List<boolean[]>> models;
+
+  /**
+   * Whether all models of a component have been found.
+   */
+  @Nonnull
+  private final boolean[] isComplete;
+
+  /**
+   * The position of the current model of each inner component in {@link #models}.
+   */
+  @Nonnull
+  private final int[] positions;
+
+  @Nonnull
+  private final boolean[][] currentModels;
+
+  private boolean isStarted;
+
+  private boolean isExhausted;
+
+  ProductEnumerationCursor(VariabilityModel vm, SimplifiedModel simplifiedModel, long seed) {
+    this.vm = vm;
+    this.simplifiedModel = simplifiedModel;
+    components = new ArrayList<>(simplifiedModel.getComponents());
+    components.sort(Comparator.comparingInt(
+        (ModelComponent component) -> component.getVariables().length).reversed());
+    int componentCount = components.size();
+    solvers = new CdclSolver[componentCount];
+    models = new ArrayList<>(componentCount);
+    for (int c = 0; c < componentCount; c++) {
+      solvers[c] = CdclSolver.from(components.get(c).getClauseDatabase());
+      solvers[c].setSeed(seed);
+      models.add(new ArrayList<>());
+    }
+    isComplete = new boolean[componentCount];
+    positions = new int[componentCount];
+    currentModels = new boolean[componentCount][];
+  }
+
+  @Override
+  public int next(int k, Consumer<Configuration> consumer) {
+    int count = 0;
+    while (count < k && !isExhausted) {
+      if (advance()) {
+        consumer.accept(toConfiguration());
+        count++;
+      } else {
+        isExhausted = true;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Moves to the next combination of models, like an odometer whose innermost component changes
+   * fastest.
+   *
+   * @return False if all combinations have been visited.
+   */
+  private boolean advance() {
+    if (!isStarted) {
+      isStarted = true;
+      for (int c = 0; c < components.size(); c++) {
+        if (!fetchModel(c)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int c = components.size() - 1; c > 0; c--) {
+      List<boolean[]> componentModels = models.get(c);
+      if (positions[c] + 1 < componentModels.size()) {
+        positions[c]++;
+        currentModels[c] = componentModels.get(positions[c]);
+        return true;
+      }
+      if (!isComplete[c] && fetchModel(c)) {
+        positions[c]++;
+        return true;
+      }
+      // start over with the first model and carry over to the next outer component
+      positions[c] = 0;
+      currentModels[c] = componentModels.get(0);
+    }
+    return !components.isEmpty() && fetchModel(0);
+  }
+
+  /**
+   * Searches for the next model of the given component and makes it the current one.
+   *
+   * @return False if all models of the component have been found.
+   */
+  private boolean fetchModel(int c) {
+    CdclSolver solver = solvers[c];
+    if (!solver.nextModel()) {
+      isComplete[c] = true;
+      return false;
+    }
+    boolean[] model = new boolean[components.get(c).getVariables().length];
+    for (int v = 0; v < model.length; v++) {
+      model[v] = solver.getModelValue(v);
+    }
+    if (c > 0) {
+      models.get(c).add(model);
+    }
+    currentModels[c] = model;
+    return true;
+  }
+
+  @Nonnull
+  private Configuration toConfiguration() {
+    Configuration.Builder builder = new Configuration.Builder(vm);
+    for (int i = 0; i < vm.getOptionCount(); i++) {
+      if (simplifiedModel.getVariable(i) == SimplifiedModel.SELECTED) {
+        builder.select(i);
+      }
+    }
+    for (int c = 0; c < components.size(); c++) {
+      for (int option : components.get(c).getOptions()) {
+        int v = simplifiedModel.getVariable(option);
+        if (currentModels[c][simplifiedModel.getLocalVariable(v)]) {
+          builder.select(option);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public void close() {
+    isExhausted = true;
+    for (CdclSolver solver : solvers) {
+      solver.endEnumeration();
+    }
+  }
+}
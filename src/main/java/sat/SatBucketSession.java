@@ -0,0 +1,114 @@
+package sat;
+
+import static sat.SatHelper.createBlockingClause;
+import static sat.SatHelper.findSolution;
+import static sat.SatHelper.selectFeatures;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.BucketSession;
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+
+final class SatBucketSession implements BucketSession {
+
+  @Nonnull
+  private final Map<Integer, Collection<Configuration>> buckets = new HashMap<>();
+
+  @Nonnull
+  private final SatConstraintSystemContext context;
+
+  SatBucketSession(SatConstraintSystemContext context) {
+    this.context = context;
+  }
+
+  @Nullable
+  @Override
+  public Configuration generateConfig(int selectedOptionsCount,
+                                      List<Configuration> featureRanking) {
+    Collection<Configuration> excludedConfigs =
+        buckets.computeIfAbsent(selectedOptionsCount, n -> new HashSet<>());
+    Configuration config = generateConfig(selectedOptionsCount,
+                                          featureRanking,
+                                          excludedConfigs);
+    if (config != null) {
+      excludedConfigs.add(config);
+    }
+    return config;
+  }
+
+  @Nullable
+  private Configuration generateConfig(int selectedOptionsCount,
+                                       Iterable<Configuration> featureRanking,
+                                       Iterable<Configuration> excludedConfigs) {
+    context.markCheckpoint();
+    try {
+      CdclSolver solver = context.getSolver();
+
+      // there should be exactly selectedOptionsCount features selected
+      int[] literals = new int[context.getVariableCount()];
+      long[] ones = new long[literals.length];
+      long[] minusOnes = new long[literals.length];
+      for (int i = 0; i < literals.length; i++) {
+        literals[i] = ClauseDatabase.literal(i, false);
+        ones[i] = 1;
+        minusOnes[i] = -1;
+      }
+      solver.addAtMost(literals, ones, selectedOptionsCount);
+      solver.addAtMost(literals, minusOnes, -selectedOptionsCount);
+
+      // excluded configurations should not be considered as a solution
+      Configuration allOptions = allOptions();
+      for (Configuration excludedConfig : excludedConfigs) {
+        solver.addClause(createBlockingClause(excludedConfig, allOptions));
+      }
+
+      // if we have a feature ranking, we can use it to approximate the optimal solution
+      Configuration approximateOptimal = getSmallWeightConfig(featureRanking);
+      return approximateOptimal == null ? findSolution(context) : approximateOptimal;
+    } finally {
+      // cleanup, the solver is shared with all other queries
+      context.resetToLastCheckpoint();
+    }
+  }
+
+  @Nonnull
+  private Configuration allOptions() {
+    Configuration.Builder builder = new Configuration.Builder(context.getVariabilityModel());
+    for (int i = 0; i < context.getVariableCount(); i++) {
+      builder.select(i);
+    }
+    return builder.build();
+  }
+
+  @Nullable
+  private Configuration getSmallWeightConfig(Iterable<Configuration> featureRanking) {
+    for (Configuration candidates : featureRanking) {
+      context.markCheckpoint();
+      Configuration config;
+      try {
+        // force features to be selected
+        selectFeatures(context, candidates);
+
+        // check if satisfiable
+        config = findSolution(context);
+      } finally {
+        // cleanup
+        context.resetToLastCheckpoint();
+      }
+
+      // stop if solution has been found
+      if (config != null) {
+        return config;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,63 @@
+package sat;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * Holds the SAT solver of a variability model. The variable of each binary option is its index
+ * (see {@link spl_conqueror.BinaryOption#getIndex()}).
+ * <p>
+ * The satisfiability checker, the variant generator and the bucket sessions share this solver,
+ * so the clauses learned from the model itself by one query are kept for all later queries.
+ * <p>
+ * The solver is built on the original clauses, not on the simplified model of the variability
+ * model. Assumptions, the weights of at-most constraints, blocking clauses and the cardinality
+ * constraints of bucket sessions all refer to options, which would otherwise have to be mapped
+ * to merged variables and checked against fixed options. The solver learns the core and dead
+ * options as facts at the root level itself and keeps them across queries, so simplifying the
+ * clauses first would save little. Only the enumeration of all configurations uses the
+ * components of the simplified model.
+ */
+final class SatConstraintSystemContext {
+
+  @Nonnull
+  private final VariabilityModel vm;
+
+  @Nonnull
+  private final CdclSolver solver;
+
+  private SatConstraintSystemContext(VariabilityModel vm, CdclSolver solver) {
+    this.vm = vm;
+    this.solver = solver;
+  }
+
+  @Nonnull
+  static SatConstraintSystemContext from(VariabilityModel vm) {
+    ClauseDatabase clauses = vm.getClauseDatabase();
+    return new SatConstraintSystemContext(vm, CdclSolver.from(clauses));
+  }
+
+  @Nonnull
+  CdclSolver getSolver() {
+    return solver;
+  }
+
+  int getVariableCount() {
+    return solver.getVariableCount();
+  }
+
+  @Nonnull
+  VariabilityModel getVariabilityModel() {
+    return vm;
+  }
+
+  void markCheckpoint() {
+    solver.push();
+  }
+
+  void resetToLastCheckpoint() {
+    solver.pop();
+  }
+}
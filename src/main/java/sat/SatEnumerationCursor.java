@@ -0,0 +1,49 @@
+package sat;
+
+import static sat.SatHelper.toConfiguration;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * Pages through the models of a solver of its own. The solver keeps the trail of the depth-first
+ * enumeration between pages (see {@link CdclSolver#nextModel()}).
+ */
+final class SatEnumerationCursor implements EnumerationCursor {
+
+  @Nonnull
+  private final SatConstraintSystemContext context;
+
+  private boolean isExhausted;
+
+  SatEnumerationCursor(VariabilityModel vm, long seed) {
+    context = SatConstraintSystemContext.from(vm);
+    context.getSolver().setSeed(seed);
+  }
+
+  @Override
+  public int next(int k, Consumer<Configuration> consumer) {
+    CdclSolver solver = context.getSolver();
+    int count = 0;
+    while (count < k && !isExhausted) {
+      if (solver.nextModel()) {
+        consumer.accept(toConfiguration(context));
+        count++;
+      } else {
+        isExhausted = true;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void close() {
+    isExhausted = true;
+    context.getSolver().endEnumeration();
+  }
+}
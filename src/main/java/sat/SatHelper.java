@@ -0,0 +1,140 @@
+package sat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+
+final class SatHelper {
+
+  private SatHelper() {
+  }
+
+  static void selectFeatures(SatConstraintSystemContext context, Configuration selectedOptions) {
+    CdclSolver solver = context.getSolver();
+    for (int i = selectedOptions.nextSelectedIndex(0);
+         i >= 0;
+         i = selectedOptions.nextSelectedIndex(i + 1)) {
+      solver.addClause(ClauseDatabase.literal(i, false));
+    }
+  }
+
+  /**
+   * Creates a clause that is violated by exactly the given selection of the given options.
+   */
+  @Nonnull
+  static int[] createBlockingClause(Configuration config, Configuration options) {
+    int[] clause = new int[options.size()];
+    int length = 0;
+    for (int i = options.nextSelectedIndex(0); i >= 0; i = options.nextSelectedIndex(i + 1)) {
+      clause[length] = ClauseDatabase.literal(i, config.contains(i));
+      length++;
+    }
+    return clause;
+  }
+
+  @Nonnull
+  static Configuration toConfiguration(SatConstraintSystemContext context) {
+    CdclSolver solver = context.getSolver();
+    Configuration.Builder config = new Configuration.Builder(context.getVariabilityModel());
+    for (int i = 0; i < context.getVariableCount(); i++) {
+      if (solver.getModelValue(i)) {
+        config.select(i);
+      }
+    }
+    return config.build();
+  }
+
+  @Nullable
+  static Configuration findSolution(SatConstraintSystemContext context) {
+    return context.getSolver().solve() ? toConfiguration(context) : null;
+  }
+
+  /**
+   * Passes up to <code>limit</code> solutions (all if <code>limit <= 0</code>) to the given
+   * consumer as soon as they are found.
+   */
+  static void forEachSolution(SatConstraintSystemContext context,
+                              int limit,
+                              Consumer<Configuration> consumer) {
+    int[] count = { 0 };
+    context.getSolver().enumerateModels(() -> {
+      consumer.accept(toConfiguration(context));
+      count[0]++;
+      return limit <= 0 || count[0] < limit;
+    });
+  }
+
+  @Nonnull
+  static Collection<Configuration> findAllSolutions(SatConstraintSystemContext context,
+                                                    int limit) {
+    List<Configuration> solutions = new ArrayList<>();
+    forEachSolution(context, limit, solutions::add);
+    return solutions;
+  }
+
+  /**
+   * Finds a configuration that minimizes the sum of the weights of the selected options by
+   * repeatedly asking for a configuration with a smaller sum.
+   */
+  @Nullable
+  static Configuration findOptimalSolution(SatConstraintSystemContext context,
+                                           IntUnaryOperator weightingFunction) {
+    CdclSolver solver = context.getSolver();
+    int[] literals = new int[context.getVariableCount()];
+    long[] weights = new long[literals.length];
+    for (int i = 0; i < literals.length; i++) {
+      literals[i] = ClauseDatabase.literal(i, false);
+      weights[i] = weightingFunction.applyAsInt(i);
+    }
+    Configuration optimalConfig = null;
+    int checkpoints = 0;
+    while (solver.solve()) {
+      optimalConfig = toConfiguration(context);
+      long cost = 0;
+      for (int i = optimalConfig.nextSelectedIndex(0);
+           i >= 0;
+           i = optimalConfig.nextSelectedIndex(i + 1)) {
+        cost += weights[i];
+      }
+      context.markCheckpoint();
+      checkpoints++;
+      solver.addAtMost(literals, weights, cost - 1);
+    }
+    for (int i = 0; i < checkpoints; i++) {
+      context.resetToLastCheckpoint();
+    }
+    return optimalConfig;
+  }
+
+  @Nonnull
+  static Collection<Configuration> findAllOptimalSolutions(SatConstraintSystemContext context,
+                                                           IntUnaryOperator weightingFunction) {
+    Configuration optimalConfig = findOptimalSolution(context, weightingFunction);
+    if (optimalConfig == null) {
+      return new ArrayList<>(0);
+    }
+    int[] literals = new int[context.getVariableCount()];
+    long[] weights = new long[literals.length];
+    long optimalCost = 0;
+    for (int i = 0; i < literals.length; i++) {
+      literals[i] = ClauseDatabase.literal(i, false);
+      weights[i] = weightingFunction.applyAsInt(i);
+      if (optimalConfig.contains(i)) {
+        optimalCost += weights[i];
+      }
+    }
+    context.markCheckpoint();
+    context.getSolver().addAtMost(literals, weights, optimalCost);
+    Collection<Configuration> optimalConfigs = findAllSolutions(context, -1);
+    context.resetToLastCheckpoint();
+    return optimalConfigs;
+  }
+}
@@ -0,0 +1,55 @@
+package sat;
+
+import javax.annotation.Nonnull;
+
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+import spl_conqueror.SatisfiabilityChecker;
+
+/**
+ * Checks configurations by solving under assumptions. Nothing is added to the solver, so the
+ * clauses learned by one check speed up all subsequent checks.
+ */
+final class SatSatisfiabilityChecker implements SatisfiabilityChecker {
+
+  @Nonnull
+  private final SatConstraintSystemContext context;
+
+  SatSatisfiabilityChecker(SatConstraintSystemContext context) {
+    this.context = context;
+  }
+
+  @Nonnull
+  private static int[] selectFeatures(Configuration selectedOptions) {
+    int[] assumptions = new int[selectedOptions.size()];
+    int length = 0;
+    for (int i = selectedOptions.nextSelectedIndex(0);
+         i >= 0;
+         i = selectedOptions.nextSelectedIndex(i + 1)) {
+      assumptions[length] = ClauseDatabase.literal(i, false);
+      length++;
+    }
+    return assumptions;
+  }
+
+  @Nonnull
+  private static int[] selectFeaturesAndDeselectAllOthers(SatConstraintSystemContext context,
+                                                          Configuration selectedOptions) {
+    int[] assumptions = new int[context.getVariableCount()];
+    for (int i = 0; i < assumptions.length; i++) {
+      assumptions[i] = ClauseDatabase.literal(i, !selectedOptions.contains(i));
+    }
+    return assumptions;
+  }
+
+  @Override
+  public boolean isValid(Configuration selectedOptions, boolean isPartialConfiguration) {
+    // feature selection
+    int[] assumptions = isPartialConfiguration
+                        ? selectFeatures(selectedOptions)
+                        : selectFeaturesAndDeselectAllOthers(context, selectedOptions);
+
+    // check if configuration is valid
+    return context.getSolver().solve(assumptions);
+  }
+}
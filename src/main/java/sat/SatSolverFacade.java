@@ -0,0 +1,69 @@
+package sat;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.SatisfiabilityChecker;
+import spl_conqueror.SolverFacade;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+import utilities.SolverParameterKeys;
+
+/**
+ * Solves queries with a CDCL SAT solver that works directly on the clauses of the variability
+ * model.
+ */
+public final class SatSolverFacade implements SolverFacade {
+
+  @Nonnull
+  private final SatConstraintSystemContext context;
+
+  @Nullable
+  private SatSatisfiabilityChecker satisfiabilityChecker;
+
+  @Nullable
+  private SatVariantGenerator variantGenerator;
+
+  private int seed = 1;
+
+  public SatSolverFacade(VariabilityModel vm) {
+    context = SatConstraintSystemContext.from(vm);
+    applyParameters();
+  }
+
+  @Nonnull
+  @Override
+  public SatisfiabilityChecker getSatisfiabilityChecker() {
+    if (satisfiabilityChecker == null) {
+      satisfiabilityChecker = new SatSatisfiabilityChecker(context);
+    }
+    return satisfiabilityChecker;
+  }
+
+  @Nonnull
+  @Override
+  public VariantGenerator getVariantGenerator() {
+    if (variantGenerator == null) {
+      variantGenerator = new SatVariantGenerator(context);
+      applyParameters();
+    }
+    return variantGenerator;
+  }
+
+  @Override
+  public void setParameters(Map<String, String> parameters) {
+    if (parameters.containsKey(SolverParameterKeys.RANDOM_SEED)) {
+      seed = Integer.parseInt(parameters.get(SolverParameterKeys.RANDOM_SEED));
+    }
+    applyParameters();
+  }
+
+  private void applyParameters() {
+    context.getSolver().setSeed(seed);
+    if (variantGenerator != null) {
+      variantGenerator.setSeed(seed);
+    }
+  }
+}
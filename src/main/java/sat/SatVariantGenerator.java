@@ -0,0 +1,189 @@
+package sat;
+
+import static sat.SatHelper.createBlockingClause;
+import static sat.SatHelper.findAllOptimalSolutions;
+import static sat.SatHelper.findOptimalSolution;
+import static sat.SatHelper.forEachSolution;
+import static sat.SatHelper.selectFeatures;
+import static sat.SatHelper.toConfiguration;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import spl_conqueror.Backbone;
+import spl_conqueror.BinaryOption;
+import spl_conqueror.BucketSession;
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.SimplifiedModel;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+import utilities.Tuple;
+
+class SatVariantGenerator implements VariantGenerator {
+
+  @Nonnull
+  private final SatConstraintSystemContext context;
+
+  private int seed = 1;
+
+  SatVariantGenerator(SatConstraintSystemContext context) {
+    this.context = context;
+  }
+
+  void setSeed(int seed) {
+    this.seed = seed;
+  }
+
+  @Nullable
+  @Override
+  public Configuration findMinimizedConfig(Configuration config,
+                                           Configuration unwantedOptions) {
+    context.markCheckpoint();
+
+    selectFeatures(context, config);
+
+    // Since we are minimizing, unwanted options which are not part of the original configuration
+    // get a large weight. All other options are assigned 1 as weight.
+    Configuration optimalConfig = findOptimalSolution(
+        context,
+        index -> unwantedOptions.contains(index) && !config.contains(index) ? 100 : 1);
+
+    // cleanup
+    context.resetToLastCheckpoint();
+    return optimalConfig;
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Configuration> findAllMaximizedConfigs(Configuration config,
+                                                           Configuration unwantedOptions) {
+    context.markCheckpoint();
+
+    selectFeatures(context, config);
+
+    // The more options selected, the smaller the cost. Unwanted options which are not part of the
+    // original configuration get a large weight.
+    Collection<Configuration> optimalConfigs = findAllOptimalSolutions(
+        context,
+        index -> unwantedOptions.contains(index) && !config.contains(index) ? 100 : -1);
+
+    // cleanup
+    context.resetToLastCheckpoint();
+    return optimalConfigs;
+  }
+
+  @Override
+  public void generateUpToNConfigs(int n, Consumer<Configuration> consumer) {
+    context.markCheckpoint();
+
+    // find solutions
+    forEachSolution(context, n, consumer);
+
+    // cleanup
+    context.resetToLastCheckpoint();
+  }
+
+  @Nullable
+  @Override
+  public Tuple<Configuration, Configuration> generateConfigWithoutOption(
+      Configuration config, BinaryOption optionToRemove) {
+    context.markCheckpoint();
+
+    // forbid the selection of this configuration option
+    context.getSolver().addClause(ClauseDatabase.literal(optionToRemove.getIndex(), true));
+
+    // prefer options of the original configuration and avoid all others
+    Configuration optimalConfig = findOptimalSolution(context,
+                                                      index -> config.contains(index)
+                                                               ? -1000
+                                                               : 1000);
+    Tuple<Configuration, Configuration> result;
+    if (optimalConfig == null) {
+      result = null;
+    } else {
+      // adding the options that have been removed from the original configuration
+      Configuration removedElements = config.difference(optimalConfig);
+      result = new Tuple<>(optimalConfig, removedElements);
+    }
+
+    // cleanup
+    context.resetToLastCheckpoint();
+    return result;
+  }
+
+  /**
+   * Enumerates the selections of the considered options only: each selection that has been found
+   * is excluded by a clause over the considered options before the next one is searched.
+   */
+  @Override
+  public void generateAllVariants(Configuration optionsToConsider,
+                                  Consumer<Configuration> consumer) {
+    context.markCheckpoint();
+
+    CdclSolver solver = context.getSolver();
+    while (solver.solve()) {
+      Configuration variant = toConfiguration(context).intersection(optionsToConsider);
+      if (!variant.isEmpty()) {
+        consumer.accept(variant);
+      }
+      if (!solver.addClause(createBlockingClause(variant, optionsToConsider))) {
+        break;
+      }
+    }
+
+    // cleanup
+    context.resetToLastCheckpoint();
+  }
+
+  /**
+   * Solves under assumptions only, so nothing is added to the solver and the clauses learned by
+   * each call speed up the following ones.
+   */
+  @Nullable
+  @Override
+  public Tuple<Configuration, Configuration> propagate(Configuration config) {
+    return Backbone.compute(context.getVariabilityModel(), config, this::findExtension);
+  }
+
+  @Nullable
+  private Configuration findExtension(Configuration selected, Configuration deselected) {
+    int[] assumptions = new int[selected.size() + deselected.size()];
+    int length = 0;
+    for (int i = selected.nextSelectedIndex(0); i >= 0; i = selected.nextSelectedIndex(i + 1)) {
+      assumptions[length] = ClauseDatabase.literal(i, false);
+      length++;
+    }
+    for (int i = deselected.nextSelectedIndex(0);
+         i >= 0;
+         i = deselected.nextSelectedIndex(i + 1)) {
+      assumptions[length] = ClauseDatabase.literal(i, true);
+      length++;
+    }
+    return context.getSolver().solve(assumptions) ? toConfiguration(context) : null;
+  }
+
+  /**
+   * Enumerates the configurations as the product of the models of the components if the model
+   * has been simplified.
+   */
+  @Nonnull
+  @Override
+  public EnumerationCursor openEnumeration() {
+    VariabilityModel vm = context.getVariabilityModel();
+    SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
+    return simplifiedModel == null
+           ? new SatEnumerationCursor(vm, seed)
+           : new ProductEnumerationCursor(vm, simplifiedModel, seed);
+  }
+
+  @Nonnull
+  @Override
+  public BucketSession createBucketSession() {
+    return new SatBucketSession(context);
+  }
+}
@@ -0,0 +1,4 @@
+@ParametersAreNonnullByDefault
+package sat;
+
+import javax.annotation.ParametersAreNonnullByDefault;
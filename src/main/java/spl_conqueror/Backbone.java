@@ -0,0 +1,73 @@
+package spl_conqueror;
+
+import javax.annotation.Nullable;
+
+import spl_conqueror.ProjectedEnumeration.ExtensionFinder;
+import utilities.Tuple;
+
+/**
+ * Computes the backbone of a variability model conditioned on a partial configuration: the
+ * options that are selected in every valid configuration containing it and the options that are
+ * selected in none of them.
+ * <p>
+ * The backbone is computed from one valid configuration, the witness. Only the options on which
+ * all configurations found so far agree are candidates, and each candidate is tested by one
+ * satisfiability call that flips its value in the witness. If there is such a configuration, all
+ * candidates on which it differs from the witness are ruled out at once. Otherwise, the candidate
+ * belongs to the backbone and its value is assumed by all later calls. Calls that contradict the
+ * implication index of the model are answered without the solver.
+ */
+public final class Backbone {
+
+  private Backbone() {
+  }
+
+  /**
+   * Returns the options that are selected in every valid configuration containing the given
+   * configuration, followed by the options that are selected in none of them, or null if there
+   * is no such configuration.
+   */
+  @Nullable
+  public static Tuple<Configuration, Configuration> compute(VariabilityModel vm,
+                                                            Configuration config,
+                                                            ExtensionFinder finder) {
+    ImplicationIndex index = vm.getImplicationIndex();
+    Configuration deselected = Configuration.empty(vm);
+    if (index.isContradictory(config)) {
+      return null;
+    }
+    Configuration witness = finder.findExtension(config, deselected);
+    if (witness == null) {
+      return null;
+    }
+    Configuration selected = config;
+    boolean[] isRuledOut = new boolean[vm.getOptionCount()];
+    for (int i = 0; i < isRuledOut.length; i++) {
+      if (isRuledOut[i] || selected.contains(i)) {
+        continue;
+      }
+      Configuration option = new Configuration.Builder(vm).select(i).build();
+      boolean isSelected = witness.contains(i);
+      Configuration flippedSelected = isSelected ? selected : selected.union(option);
+      Configuration flippedDeselected = isSelected ? deselected.union(option) : deselected;
+      Configuration other = index.isContradictory(flippedSelected, flippedDeselected)
+                            ? null
+                            : finder.findExtension(flippedSelected, flippedDeselected);
+      if (other == null) {
+        if (isSelected) {
+          selected = selected.union(option);
+        } else {
+          deselected = deselected.union(option);
+        }
+      } else {
+        // options on which the two configurations differ cannot belong to the backbone
+        for (int j = i + 1; j < isRuledOut.length; j++) {
+          if (other.contains(j) != witness.contains(j)) {
+            isRuledOut[j] = true;
+          }
+        }
+      }
+    }
+    return new Tuple<>(selected, deselected);
+  }
+}
@@ -26,6 +26,8 @@ public final class BinaryOption {
   @Nonnull
   private final String name;
 
+  private final int index;
+
   private final boolean isOptional;
 
   @Nonnull
@@ -48,8 +50,9 @@ public final class BinaryOption {
 
   private boolean hasFinalizedInitialization;
 
-  public BinaryOption(Element element) {
+  BinaryOption(Element element, int index) {
     name = element.elementTextTrim("name");
+    this.index = index;
     isOptional = element.elementTextTrim("optional").equals("True");
     parentName = nullIfEmpty(element.elementTextTrim("parent"));
     impliedOptionsNames = new ArrayList<>();
@@ -69,8 +72,9 @@ public final class BinaryOption {
     hasFinalizedInitialization = false;
   }
 
-  private BinaryOption() {
+  private BinaryOption(int index) {
     name = ROOT_NAME;
+    this.index = index;
     isOptional = false;
     parentName = null;
     impliedOptionsNames = new ArrayList<>();
@@ -81,8 +85,8 @@ public final class BinaryOption {
   }
 
   @Nonnull
-  public static BinaryOption createRoot() {
-    return new BinaryOption();
+  static BinaryOption createRoot(int index) {
+    return new BinaryOption(index);
   }
 
   @Nullable
@@ -131,6 +135,14 @@ public final class BinaryOption {
     return name;
   }
 
+  /**
+   * The position of this option in the variability model. Indices are assigned when the model is
+   * loaded and range from 0 (inclusive) to the number of options (exclusive).
+   */
+  public int getIndex() {
+    return index;
+  }
+
   public boolean isOptional() {
     return isOptional;
   }
@@ -1,7 +1,6 @@
 package spl_conqueror;
 
 import java.util.List;
-import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -13,9 +12,8 @@ public interface BucketSession {
    * @param selectedOptionsCount The number of features that should be selected.
    * @param featureRanking       The ranking of certain feature combinations.
    *
-   * @return A list of binary options.
+   * @return A configuration or null if there is none.
    */
   @Nullable
-  Set<BinaryOption> generateConfig(int selectedOptionsCount,
-                                   List<Set<BinaryOption>> featureRanking);
+  Configuration generateConfig(int selectedOptionsCount, List<Configuration> featureRanking);
 }
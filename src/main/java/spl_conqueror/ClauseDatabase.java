@@ -0,0 +1,284 @@
+package spl_conqueror;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The constraints of a variability model in conjunctive normal form.
+ * Each binary option is represented by the variable with the same index (see
+ * {@link BinaryOption#getIndex()}). A literal is encoded as an integer: the selection of the
+ * option with index <code>i</code> is <code>2 * i</code>, its deselection is
+ * <code>2 * i + 1</code>. The clauses are stored consecutively in one array of literals.
+ */
+public final class ClauseDatabase {
+
+  @Nonnull
+  private static final Pattern CONJUNCTION = Pattern.compile("&");
+
+  @Nonnull
+  private static final Pattern DISJUNCTION = Pattern.compile("\\|");
+
+  private final int variableCount;
+
+  @Nonnull
+  private final int[] literals;
+
+  /**
+   * The position of the first literal of each clause in {@link #literals}, followed by the total
+   * number of literals.
+   */
+  @Nonnull
+  private final int[] clauseStarts;
+
+  private ClauseDatabase(int variableCount, int[] literals, int[] clauseStarts) {
+    this.variableCount = variableCount;
+    this.literals = literals;
+    this.clauseStarts = clauseStarts;
+  }
+
+  public static int literal(int variable, boolean isNegated) {
+    return isNegated ? (variable << 1) | 1 : variable << 1;
+  }
+
+  public static int variable(int literal) {
+    return literal >>> 1;
+  }
+
+  public static boolean isNegated(int literal) {
+    return (literal & 1) != 0;
+  }
+
+  public static int negate(int literal) {
+    return literal ^ 1;
+  }
+
+  /**
+   * Translates the options and cross-tree constraints of the given variability model into
+   * clauses.
+   */
+  @Nonnull
+  static ClauseDatabase compile(VariabilityModel vm) {
+    Compiler compiler = new Compiler(vm);
+    compiler.processBinaryOptions();
+    compiler.processBinaryConstraints();
+    return compiler.build();
+  }
+
+  /**
+   * Creates a database of the given clauses, which must not contain a variable twice.
+   */
+  @Nonnull
+  public static ClauseDatabase of(int variableCount, List<int[]> clauses) {
+    int literalCount = 0;
+    for (int[] clause : clauses) {
+      literalCount += clause.length;
+    }
+    int[] literals = new int[literalCount];
+    int[] clauseStarts = new int[clauses.size() + 1];
+    int position = 0;
+    for (int i = 0; i < clauses.size(); i++) {
+      int[] clause = clauses.get(i);
+      clauseStarts[i] = position;
+      System.arraycopy(clause, 0, literals, position, clause.length);
+      position += clause.length;
+    }
+    clauseStarts[clauses.size()] = position;
+    return new ClauseDatabase(variableCount, literals, clauseStarts);
+  }
+
+  /**
+   * Returns the number of variables, which equals the number of binary options unless the
+   * database has been simplified (see {@link SimplifiedModel}).
+   */
+  public int getVariableCount() {
+    return variableCount;
+  }
+
+  public int getClauseCount() {
+    return clauseStarts.length - 1;
+  }
+
+  /**
+   * Returns the position of the first literal of the given clause.
+   *
+   * @see #getLiteral(int)
+   */
+  public int getClauseStart(int clause) {
+    return clauseStarts[clause];
+  }
+
+  /**
+   * Returns the position after the last literal of the given clause.
+   *
+   * @see #getLiteral(int)
+   */
+  public int getClauseEnd(int clause) {
+    return clauseStarts[clause + 1];
+  }
+
+  public int getClauseLength(int clause) {
+    return clauseStarts[clause + 1] - clauseStarts[clause];
+  }
+
+  /**
+   * Returns the literal at the given position, which ranges from {@link #getClauseStart(int)}
+   * (inclusive) to {@link #getClauseEnd(int)} (exclusive) for the literals of a clause.
+   */
+  public int getLiteral(int position) {
+    return literals[position];
+  }
+
+  @Nonnull
+  public int[] getClause(int clause) {
+    return Arrays.copyOfRange(literals, clauseStarts[clause], clauseStarts[clause + 1]);
+  }
+
+  private static final class Compiler {
+
+    @Nonnull
+    private final VariabilityModel vm;
+
+    @Nonnull
+    private final List<int[]> clauses = new ArrayList<>();
+
+    Compiler(VariabilityModel vm) {
+      this.vm = vm;
+    }
+
+    private static int selected(BinaryOption option) {
+      return literal(option.getIndex(), false);
+    }
+
+    private static int deselected(BinaryOption option) {
+      return literal(option.getIndex(), true);
+    }
+
+    private void addClause(int... clause) {
+      int[] sorted = clause.clone();
+      Arrays.sort(sorted);
+      int length = 0;
+      for (int lit : sorted) {
+        if (length > 0 && sorted[length - 1] == lit) {
+          continue;
+        }
+        if (length > 0 && sorted[length - 1] == negate(lit)) {
+          // tautologies are always satisfied
+          return;
+        }
+        sorted[length] = lit;
+        length++;
+      }
+      clauses.add(Arrays.copyOf(sorted, length));
+    }
+
+    void processBinaryOptions() {
+      Collection<BinaryOption> processedAlternatives = new HashSet<>();
+      for (BinaryOption option : vm.getBinaryOptions()) {
+        addVariableConstraints(option);
+        processAlternativeOptions(processedAlternatives, option);
+        processExcludedOptionsAsCrossTreeConstraints(option);
+        processImpliedOptions(option);
+      }
+    }
+
+    private void addVariableConstraints(BinaryOption option) {
+      if (option.isRoot()) {
+        addClause(selected(option));
+      } else if (option.getParent() != null) {
+        BinaryOption parent = option.getParent();
+        addClause(deselected(option), selected(parent));
+        if (option.isMandatory() && !option.hasExcludedOptions()) {
+          addClause(deselected(parent), selected(option));
+        }
+      } else {
+        throw new IllegalArgumentException(option.getName() + " has no parent");
+      }
+    }
+
+    /**
+     * If the parent of an alternative group is selected, exactly one option of the group has to
+     * be selected.
+     */
+    private void processAlternativeOptions(Collection<BinaryOption> processedAlternatives,
+                                           BinaryOption option) {
+      List<BinaryOption> options = option.collectAlternativeOptions();
+      if (options.isEmpty() || processedAlternatives.contains(option)) {
+        return;
+      }
+      int[] group = new int[options.size() + 1];
+      group[0] = option.getIndex();
+      for (int i = 1; i < group.length; i++) {
+        group[i] = options.get(i - 1).getIndex();
+      }
+      int[] atLeastOne = new int[group.length + 1];
+      atLeastOne[0] = deselected(option.getParent());
+      for (int i = 0; i < group.length; i++) {
+        atLeastOne[i + 1] = literal(group[i], false);
+      }
+      addClause(atLeastOne);
+      for (int i = 0; i < group.length; i++) {
+        for (int j = i + 1; j < group.length; j++) {
+          addClause(literal(group[i], true), literal(group[j], true));
+        }
+      }
+      processedAlternatives.addAll(options);
+    }
+
+    private void processExcludedOptionsAsCrossTreeConstraints(BinaryOption option) {
+      for (List<BinaryOption> excludedOptions : option.getNonAlternativeExcludedOptions()) {
+        for (BinaryOption excludedOption : excludedOptions) {
+          addClause(deselected(option), deselected(excludedOption));
+        }
+      }
+    }
+
+    private void processImpliedOptions(BinaryOption option) {
+      for (List<BinaryOption> impliedOptions : option.getImpliedOptions()) {
+        int[] clause = new int[impliedOptions.size() + 1];
+        clause[0] = deselected(option);
+        for (int i = 0; i < impliedOptions.size(); i++) {
+          clause[i + 1] = selected(impliedOptions.get(i));
+        }
+        addClause(clause);
+      }
+    }
+
+    /**
+     * Handle global cross-tree constraints involving multiple options.
+     * The constraints should be in conjunctive normal form.
+     */
+    void processBinaryConstraints() {
+      for (String constraint : vm.getBinaryConstraints()) {
+        boolean and = constraint.contains("&");
+        String[] terms = and ? CONJUNCTION.split(constraint) : DISJUNCTION.split(constraint);
+        int[] termLiterals = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+          String optionName = terms[i].trim();
+          if (optionName.startsWith("!")) {
+            termLiterals[i] = deselected(vm.getBinaryOption(optionName.substring(1)));
+          } else {
+            termLiterals[i] = selected(vm.getBinaryOption(optionName));
+          }
+        }
+        if (and) {
+          for (int termLiteral : termLiterals) {
+            addClause(termLiteral);
+          }
+        } else {
+          addClause(termLiterals);
+        }
+      }
+    }
+
+    @Nonnull
+    ClauseDatabase build() {
+      return of(vm.getOptionCount(), clauses);
+    }
+  }
+}
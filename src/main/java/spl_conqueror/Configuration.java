@@ -0,0 +1,210 @@
+package spl_conqueror;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An immutable set of selected binary options. The selection is stored as a bit set over the
+ * indices of the options (see {@link BinaryOption#getIndex()}), so that a configuration occupies
+ * one bit per option of the variability model.
+ */
+public final class Configuration {
+
+  private static final int ADDRESS_BITS_PER_WORD = 6;
+
+  @Nonnull
+  private final long[] words;
+
+  private Configuration(long[] words) {
+    this.words = words;
+  }
+
+  static int wordIndex(int index) {
+    return index >>> ADDRESS_BITS_PER_WORD;
+  }
+
+  static int wordCount(int optionCount) {
+    return wordIndex(optionCount + Long.SIZE - 1);
+  }
+
+  @Nonnull
+  public static Configuration empty(VariabilityModel vm) {
+    return new Configuration(new long[wordCount(vm.getOptionCount())]);
+  }
+
+  @Nonnull
+  public static Configuration of(VariabilityModel vm, Iterable<BinaryOption> options) {
+    Builder builder = new Builder(vm);
+    for (BinaryOption option : options) {
+      builder.select(option);
+    }
+    return builder.build();
+  }
+
+  public boolean contains(BinaryOption option) {
+    return contains(option.getIndex());
+  }
+
+  public boolean contains(int index) {
+    return (words[wordIndex(index)] & (1L << index)) != 0;
+  }
+
+  /**
+   * Returns the number of selected options.
+   */
+  public int size() {
+    int size = 0;
+    for (long word : words) {
+      size += Long.bitCount(word);
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index of the first selected option that occurs on or after the given index, or -1
+   * if there is no such option.
+   */
+  public int nextSelectedIndex(int fromIndex) {
+    int wordIndex = wordIndex(fromIndex);
+    if (wordIndex >= words.length) {
+      return -1;
+    }
+    long word = words[wordIndex] & (-1L << fromIndex);
+    while (true) {
+      if (word != 0) {
+        return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+      }
+      wordIndex++;
+      if (wordIndex == words.length) {
+        return -1;
+      }
+      word = words[wordIndex];
+    }
+  }
+
+  /**
+   * Returns the indices of all selected options in ascending order.
+   */
+  @Nonnull
+  public IntStream indices() {
+    return BitSet.valueOf(words).stream();
+  }
+
+  @Nonnull
+  public List<BinaryOption> toBinaryOptions(VariabilityModel vm) {
+    return indices().mapToObj(vm::getBinaryOption).collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the options that are selected in this configuration and in the given one.
+   */
+  @Nonnull
+  public Configuration intersection(Configuration other) {
+    long[] result = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] & other.words[i];
+    }
+    return new Configuration(result);
+  }
+
+  /**
+   * Returns the options that are selected in this configuration, but not in the given one.
+   */
+  @Nonnull
+  public Configuration difference(Configuration other) {
+    long[] result = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] & ~other.words[i];
+    }
+    return new Configuration(result);
+  }
+
+  @Nonnull
+  public Configuration union(Configuration other) {
+    long[] result = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] | other.words[i];
+    }
+    return new Configuration(result);
+  }
+
+  public int getWordCount() {
+    return words.length;
+  }
+
+  /**
+   * Returns the selection of the options with indices from <code>64 * wordIndex</code> to
+   * <code>64 * wordIndex + 63</code>.
+   */
+  public long getWord(int wordIndex) {
+    return words[wordIndex];
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Configuration)) {
+      return false;
+    }
+    //noinspection QuestionableName
+    Configuration that = (Configuration) o;
+    return Arrays.equals(words, that.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return BitSet.valueOf(words).toString();
+  }
+
+  /**
+   * Collects selected options of a configuration. A builder must not be used anymore once
+   * {@link #build()} has been called.
+   */
+  public static final class Builder {
+
+    @Nonnull
+    private final long[] words;
+
+    public Builder(VariabilityModel vm) {
+      words = new long[wordCount(vm.getOptionCount())];
+    }
+
+    @Nonnull
+    public Builder select(BinaryOption option) {
+      return select(option.getIndex());
+    }
+
+    @Nonnull
+    public Builder select(int index) {
+      words[wordIndex(index)] |= 1L << index;
+      return this;
+    }
+
+    @Nonnull
+    public Configuration build() {
+      return new Configuration(words);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package spl_conqueror;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Checks complete configurations against the clauses of a variability model without any search.
+ * Each clause is stored as two bit masks over the option indices: the options that satisfy the
+ * clause when selected and the ones that satisfy it when deselected. A configuration satisfies
+ * the clause if one of the masks intersects its selected or deselected options, respectively.
+ * <p>
+ * Batches of up to 64 configurations are validated bit-sliced: one word per option holds the
+ * selection of that option in every configuration of the batch, so that each clause is
+ * evaluated for the whole batch by a few bitwise operations.
+ */
+public final class ConfigurationValidator {
+
+  @Nonnull
+  private final ClauseDatabase clauses;
+
+  private final int wordCount;
+
+  private final int clauseCount;
+
+  /**
+   * The selected literals of each clause, <code>wordCount</code> words per clause.
+   */
+  @Nonnull
+  private final long[] positiveMasks;
+
+  /**
+   * The deselected literals of each clause, <code>wordCount</code> words per clause.
+   */
+  @Nonnull
+  private final long[] negativeMasks;
+
+  private ConfigurationValidator(ClauseDatabase clauses,
+                                 int wordCount,
+                                 int clauseCount,
+                                 long[] positiveMasks,
+                                 long[] negativeMasks) {
+    this.clauses = clauses;
+    this.wordCount = wordCount;
+    this.clauseCount = clauseCount;
+    this.positiveMasks = positiveMasks;
+    this.negativeMasks = negativeMasks;
+  }
+
+  @Nonnull
+  static ConfigurationValidator compile(ClauseDatabase clauses) {
+    int wordCount = Configuration.wordCount(clauses.getVariableCount());
+    int clauseCount = clauses.getClauseCount();
+    long[] positiveMasks = new long[clauseCount * wordCount];
+    long[] negativeMasks = new long[clauseCount * wordCount];
+    for (int clause = 0; clause < clauseCount; clause++) {
+      for (int i = clauses.getClauseStart(clause); i < clauses.getClauseEnd(clause); i++) {
+        int literal = clauses.getLiteral(i);
+        int variable = ClauseDatabase.variable(literal);
+        int position = clause * wordCount + Configuration.wordIndex(variable);
+        if (ClauseDatabase.isNegated(literal)) {
+          negativeMasks[position] |= 1L << variable;
+        } else {
+          positiveMasks[position] |= 1L << variable;
+        }
+      }
+    }
+    return new ConfigurationValidator(clauses,
+                                      wordCount,
+                                      clauseCount,
+                                      positiveMasks,
+                                      negativeMasks);
+  }
+
+  /**
+   * Returns whether the given configuration is valid if all options that it does not contain are
+   * deselected.
+   */
+  public boolean isValid(Configuration config) {
+    int base = 0;
+    for (int clause = 0; clause < clauseCount; clause++) {
+      long satisfied = 0;
+      for (int i = 0; i < wordCount; i++) {
+        long word = config.getWord(i);
+        satisfied |= word & positiveMasks[base + i] | ~word & negativeMasks[base + i];
+      }
+      if (satisfied == 0) {
+        return false;
+      }
+      base += wordCount;
+    }
+    return true;
+  }
+
+  /**
+   * Validates a batch of up to 64 complete configurations in bit-sliced form.
+   *
+   * @param slices Bit <code>j</code> of <code>slices[i]</code> is set if the option with index
+   *               <code>i</code> is selected in configuration <code>j</code> of the batch.
+   * @return A mask in which bit <code>j</code> is set if configuration <code>j</code> is valid.
+   */
+  public long isValid(long[] slices) {
+    long valid = -1L;
+    for (int clause = 0; clause < clauseCount && valid != 0; clause++) {
+      long satisfied = 0;
+      for (int i = clauses.getClauseStart(clause); i < clauses.getClauseEnd(clause); i++) {
+        int literal = clauses.getLiteral(i);
+        long slice = slices[ClauseDatabase.variable(literal)];
+        satisfied |= ClauseDatabase.isNegated(literal) ? ~slice : slice;
+      }
+      valid &= satisfied;
+    }
+    return valid;
+  }
+
+  /**
+   * Validates the given complete configurations in batches of 64.
+   *
+   * @return The positions of the valid configurations.
+   */
+  @Nonnull
+  public BitSet areValid(List<Configuration> configs) {
+    BitSet result = new BitSet(configs.size());
+    long[] slices = new long[clauses.getVariableCount()];
+    for (int start = 0; start < configs.size(); start += Long.SIZE) {
+      int batchSize = Math.min(Long.SIZE, configs.size() - start);
+      for (int j = 0; j < batchSize; j++) {
+        Configuration config = configs.get(start + j);
+        for (int w = 0; w < wordCount; w++) {
+          long word = config.getWord(w);
+          while (word != 0) {
+            slices[w * Long.SIZE + Long.numberOfTrailingZeros(word)] |= 1L << j;
+            word &= word - 1;
+          }
+        }
+      }
+      long valid = isValid(slices);
+      for (int j = 0; j < batchSize; j++) {
+        if ((valid & (1L << j)) != 0) {
+          result.set(start + j);
+        }
+      }
+      Arrays.fill(slices, 0);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,137 @@
+package spl_conqueror;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Enumerates configurations in parallel by splitting them into disjoint cubes. A cube fixes the
+ * values of a few split options, and the cubes cover all combinations of these values. Each cube
+ * is enumerated by a task of its own in a fork-join pool, so each task needs a solver instance of
+ * its own. The results of the tasks are passed to a single consumer, one at a time.
+ * <p>
+ * The split options are the options that occur in the most clauses, since fixing them
+ * simplifies the remaining problem the most. Core and dead options are never split, and only one
+ * option of each atomic set is, because the other cubes would be empty.
+ */
+public final class CubeSplitting {
+
+  /**
+   * The number of cubes per thread, so that the threads are kept busy if some cubes are much
+   * easier than others.
+   */
+  private static final int CUBES_PER_THREAD = 4;
+
+  private CubeSplitting() {
+  }
+
+  /**
+   * Splits the configurations into cubes over the given candidates and passes each configuration
+   * that the enumerator finds to the given consumer.
+   */
+  public static void forEachInParallel(VariabilityModel vm,
+                                       Configuration candidates,
+                                       int parallelism,
+                                       CubeEnumerator enumerator,
+                                       Consumer<Configuration> consumer) {
+    int[] splitOptions = chooseSplitOptions(vm, candidates, parallelism * CUBES_PER_THREAD);
+    Object lock = new Object();
+    Consumer<Configuration> mergingConsumer = config -> {
+      synchronized (lock) {
+        consumer.accept(config);
+      }
+    };
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int cube = 0; cube < 1 << splitOptions.length; cube++) {
+      Configuration.Builder selected = new Configuration.Builder(vm);
+      Configuration.Builder deselected = new Configuration.Builder(vm);
+      for (int i = 0; i < splitOptions.length; i++) {
+        if ((cube & (1 << i)) != 0) {
+          selected.select(splitOptions[i]);
+        } else {
+          deselected.select(splitOptions[i]);
+        }
+      }
+      Configuration cubeSelected = selected.build();
+      Configuration cubeDeselected = deselected.build();
+      tasks.add(ForkJoinTask.adapt(
+          () -> enumerator.enumerate(cubeSelected, cubeDeselected, mergingConsumer)));
+    }
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Splits all valid configurations into cubes and passes each configuration that the enumerator
+   * finds to the given consumer.
+   */
+  public static void forEachInParallel(VariabilityModel vm,
+                                       int parallelism,
+                                       CubeEnumerator enumerator,
+                                       Consumer<Configuration> consumer) {
+    Configuration.Builder allOptions = new Configuration.Builder(vm);
+    for (int i = 0; i < vm.getOptionCount(); i++) {
+      allOptions.select(i);
+    }
+    forEachInParallel(vm, allOptions.build(), parallelism, enumerator, consumer);
+  }
+
+  /**
+   * Returns as many split options among the candidates as are needed for the given number of
+   * cubes.
+   */
+  @Nonnull
+  private static int[] chooseSplitOptions(VariabilityModel vm,
+                                          Configuration candidates,
+                                          int cubeCount) {
+    ClauseDatabase clauseDatabase = vm.getClauseDatabase();
+    int[] occurrenceCounts = new int[vm.getOptionCount()];
+    for (int i = 0; i < clauseDatabase.getClauseCount(); i++) {
+      for (int lit : clauseDatabase.getClause(i)) {
+        occurrenceCounts[ClauseDatabase.variable(lit)]++;
+      }
+    }
+    SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
+    List<Integer> splitOptions = new ArrayList<>();
+    candidates.indices().forEach(i -> {
+      if (simplifiedModel == null) {
+        splitOptions.add(i);
+        return;
+      }
+      int v = simplifiedModel.getVariable(i);
+      if (v >= 0 && simplifiedModel.getRepresentative(v) == i) {
+        splitOptions.add(i);
+      }
+    });
+    splitOptions.sort(Comparator.comparingInt((Integer i) -> occurrenceCounts[i]).reversed());
+    int splitCount = 0;
+    while (1 << splitCount < cubeCount && splitCount < splitOptions.size()) {
+      splitCount++;
+    }
+    return splitOptions.subList(0, splitCount).stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Enumerates the configurations of one cube.
+   */
+  @FunctionalInterface
+  public interface CubeEnumerator {
+
+    /**
+     * Passes the configurations that select all options of <code>selected</code> and none of
+     * <code>deselected</code> to the given consumer.
+     */
+    void enumerate(Configuration selected,
+                   Configuration deselected,
+                   Consumer<Configuration> consumer);
+  }
+}
@@ -0,0 +1,24 @@
+package spl_conqueror;
+
+import java.util.function.Consumer;
+
+/**
+ * An enumeration of the valid configurations of a variability model that is consumed page by
+ * page. The search state of the solver is kept between pages, so each page only costs the
+ * configurations it contains.
+ */
+public interface EnumerationCursor {
+
+  /**
+   * Passes up to k further configurations to the given consumer. Less than k configurations are
+   * passed if the enumeration is exhausted.
+   *
+   * @return The number of configurations that have been passed to the consumer.
+   */
+  int next(int k, Consumer<Configuration> consumer);
+
+  /**
+   * Releases the search state. The cursor must not be used anymore afterwards.
+   */
+  void close();
+}
@@ -0,0 +1,213 @@
+package spl_conqueror;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Rejects partial configurations that contradict the binary relations between options without
+ * any search. The clauses of a variability model with at most two literals (parent options,
+ * single implied and excluded options, alternative groups and the root) form an implication
+ * graph over literals. For each literal, its transitive closure is stored as two bit masks over
+ * the option indices: the options that are forced to be selected and the ones that are forced to
+ * be deselected. Literals that imply no other literal are their own closure and get no masks.
+ * <p>
+ * A partial configuration is contradictory if the union of the closures of its literals forces
+ * an option to be both selected and deselected. The check only costs one pass over the masks of
+ * each given option. It is not complete: a configuration that is not contradictory may still be
+ * invalid because of longer clauses, so a solver has to decide these cases.
+ */
+public final class ImplicationIndex {
+
+  /**
+   * Marks a literal that implies no other literal.
+   */
+  private static final int NO_ROW = -1;
+
+  private final int wordCount;
+
+  /**
+   * The row of the masks of each literal, or {@link #NO_ROW}.
+   */
+  @Nonnull
+  private final int[] literalToRow;
+
+  /**
+   * The options forced to be selected by the literal of each row, <code>wordCount</code> words
+   * per row.
+   */
+  @Nonnull
+  private final long[] selectedMasks;
+
+  /**
+   * The options forced to be deselected by the literal of each row, <code>wordCount</code> words
+   * per row.
+   */
+  @Nonnull
+  private final long[] deselectedMasks;
+
+  /**
+   * The options forced to be selected by the unit clauses.
+   */
+  @Nonnull
+  private final long[] coreSelected;
+
+  /**
+   * The options forced to be deselected by the unit clauses.
+   */
+  @Nonnull
+  private final long[] coreDeselected;
+
+  private ImplicationIndex(int wordCount,
+                           int[] literalToRow,
+                           long[] selectedMasks,
+                           long[] deselectedMasks,
+                           long[] coreSelected,
+                           long[] coreDeselected) {
+    this.wordCount = wordCount;
+    this.literalToRow = literalToRow;
+    this.selectedMasks = selectedMasks;
+    this.deselectedMasks = deselectedMasks;
+    this.coreSelected = coreSelected;
+    this.coreDeselected = coreDeselected;
+  }
+
+  @Nonnull
+  static ImplicationIndex compile(ClauseDatabase clauses) {
+    int literalCount = 2 * clauses.getVariableCount();
+    List<List<Integer>> implications = new ArrayList<>(literalCount);
+    for (int literal = 0; literal < literalCount; literal++) {
+      implications.add(new ArrayList<>(2));
+    }
+    List<Integer> units = new ArrayList<>();
+    for (int clause = 0; clause < clauses.getClauseCount(); clause++) {
+      int start = clauses.getClauseStart(clause);
+      if (clauses.getClauseLength(clause) == 1) {
+        units.add(clauses.getLiteral(start));
+      } else if (clauses.getClauseLength(clause) == 2) {
+        // (a | b) is equivalent to (!a -> b) and (!b -> a)
+        int a = clauses.getLiteral(start);
+        int b = clauses.getLiteral(start + 1);
+        implications.get(ClauseDatabase.negate(a)).add(b);
+        implications.get(ClauseDatabase.negate(b)).add(a);
+      }
+    }
+
+    int[] literalToRow = new int[literalCount];
+    int rowCount = 0;
+    for (int literal = 0; literal < literalCount; literal++) {
+      if (implications.get(literal).isEmpty()) {
+        literalToRow[literal] = NO_ROW;
+      } else {
+        literalToRow[literal] = rowCount;
+        rowCount++;
+      }
+    }
+
+    int wordCount = Configuration.wordCount(clauses.getVariableCount());
+    long[] selectedMasks = new long[rowCount * wordCount];
+    long[] deselectedMasks = new long[rowCount * wordCount];
+    int[] visited = new int[literalCount];
+    Arrays.fill(visited, -1);
+    int[] stack = new int[literalCount];
+    for (int literal = 0; literal < literalCount; literal++) {
+      if (literalToRow[literal] == NO_ROW) {
+        continue;
+      }
+      // depth-first search over the implications, the literal itself is part of its closure
+      int size = 0;
+      stack[size] = literal;
+      size++;
+      visited[literal] = literal;
+      int base = literalToRow[literal] * wordCount;
+      while (size > 0) {
+        size--;
+        int implied = stack[size];
+        int variable = ClauseDatabase.variable(implied);
+        long[] masks = ClauseDatabase.isNegated(implied) ? deselectedMasks : selectedMasks;
+        masks[base + Configuration.wordIndex(variable)] |= 1L << variable;
+        for (int next : implications.get(implied)) {
+          if (visited[next] != literal) {
+            visited[next] = literal;
+            stack[size] = next;
+            size++;
+          }
+        }
+      }
+    }
+
+    long[] coreSelected = new long[wordCount];
+    long[] coreDeselected = new long[wordCount];
+    ImplicationIndex index = new ImplicationIndex(wordCount,
+                                                  literalToRow,
+                                                  selectedMasks,
+                                                  deselectedMasks,
+                                                  coreSelected,
+                                                  coreDeselected);
+    // the core masks are shared with the index and filled in place
+    for (int unit : units) {
+      index.addClosure(unit, coreSelected, coreDeselected);
+    }
+    return index;
+  }
+
+  /**
+   * Returns true if there is no valid configuration that selects all options of the given
+   * configuration. A return value of false is not conclusive.
+   */
+  public boolean isContradictory(Configuration selected) {
+    return isContradictory(selected, null);
+  }
+
+  /**
+   * Returns true if there is no valid configuration that selects all options of
+   * <code>selected</code> and none of <code>deselected</code>. A return value of false is not
+   * conclusive.
+   */
+  public boolean isContradictory(Configuration selected, @Nullable Configuration deselected) {
+    long[] forcedSelected = coreSelected.clone();
+    long[] forcedDeselected = coreDeselected.clone();
+    addClosures(selected, false, forcedSelected, forcedDeselected);
+    if (deselected != null) {
+      addClosures(deselected, true, forcedSelected, forcedDeselected);
+    }
+    for (int i = 0; i < wordCount; i++) {
+      if ((forcedSelected[i] & forcedDeselected[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addClosures(Configuration options,
+                           boolean isNegated,
+                           long[] forcedSelected,
+                           long[] forcedDeselected) {
+    for (int w = 0; w < wordCount; w++) {
+      long word = options.getWord(w);
+      while (word != 0) {
+        int variable = w * Long.SIZE + Long.numberOfTrailingZeros(word);
+        addClosure(ClauseDatabase.literal(variable, isNegated), forcedSelected, forcedDeselected);
+        word &= word - 1;
+      }
+    }
+  }
+
+  private void addClosure(int literal, long[] forcedSelected, long[] forcedDeselected) {
+    int row = literalToRow[literal];
+    if (row == NO_ROW) {
+      int variable = ClauseDatabase.variable(literal);
+      long[] forced = ClauseDatabase.isNegated(literal) ? forcedDeselected : forcedSelected;
+      forced[Configuration.wordIndex(variable)] |= 1L << variable;
+      return;
+    }
+    int base = row * wordCount;
+    for (int i = 0; i < wordCount; i++) {
+      forcedSelected[i] |= selectedMasks[base + i];
+      forcedDeselected[i] |= deselectedMasks[base + i];
+    }
+  }
+}
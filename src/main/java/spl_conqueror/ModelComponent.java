@@ -0,0 +1,51 @@
+package spl_conqueror;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A connected component of a {@link SimplifiedModel}: a set of variables that are connected by
+ * clauses, together with the clauses over them. No clause connects two components, so the
+ * models of a simplified model are exactly the combinations of the models of its components.
+ */
+public final class ModelComponent {
+
+  /**
+   * The variables of the simplified model that belong to this component, in ascending order.
+   */
+  @Nonnull
+  private final int[] variables;
+
+  /**
+   * The indices of the options whose variable belongs to this component, in ascending order.
+   */
+  @Nonnull
+  private final int[] options;
+
+  @Nonnull
+  private final ClauseDatabase clauseDatabase;
+
+  ModelComponent(int[] variables, int[] options, ClauseDatabase clauseDatabase) {
+    this.variables = variables;
+    this.options = options;
+    this.clauseDatabase = clauseDatabase;
+  }
+
+  @Nonnull
+  public int[] getVariables() {
+    return variables;
+  }
+
+  @Nonnull
+  public int[] getOptions() {
+    return options;
+  }
+
+  /**
+   * Returns the clauses of this component. Their variables are the positions of the variables of
+   * the simplified model in {@link #getVariables()}.
+   */
+  @Nonnull
+  public ClauseDatabase getClauseDatabase() {
+    return clauseDatabase;
+  }
+}
@@ -0,0 +1,18 @@
+package spl_conqueror;
+
+import java.math.BigInteger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Counts the valid configurations of a variability model without enumerating them.
+ */
+public interface ModelCounter {
+
+  /**
+   * Returns the number of valid configurations that select all options of the given partial
+   * configuration.
+   */
+  @Nonnull
+  BigInteger countConfigurations(Configuration partialConfig);
+}
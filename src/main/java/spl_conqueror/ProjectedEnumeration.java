@@ -0,0 +1,226 @@
+package spl_conqueror;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Enumerates the valid selections of a subset of the binary options without enumerating the
+ * valid configurations of the whole variability model. The enumeration branches on the
+ * considered options only. Each partial assignment is checked for extensibility by one
+ * satisfiability call, whose result serves as a witness for the branch that agrees with it. Thus,
+ * the number of calls grows with the number of projected selections instead of the number of
+ * valid configurations.
+ * <p>
+ * If the model has been simplified, the considered options are grouped by the components of the
+ * simplified model. The selections of each group are enumerated on their own, since they do not
+ * constrain each other, and the selections of the considered options are their cartesian
+ * product. Thus, the calls grow with the sum instead of the product of the selections of the
+ * groups.
+ */
+public final class ProjectedEnumeration {
+
+  @Nonnull
+  private final ExtensionFinder finder;
+
+  @Nonnull
+  private final Consumer<Configuration> consumer;
+
+  /**
+   * The indices of the considered options.
+   */
+  @Nonnull
+  private final int[] options;
+
+  /**
+   * The configuration that only selects the option with the same position in {@link #options}.
+   */
+  @Nonnull
+  private final Configuration[] singletons;
+
+  private ProjectedEnumeration(VariabilityModel vm,
+                               int[] options,
+                               ExtensionFinder finder,
+                               Consumer<Configuration> consumer) {
+    this.finder = finder;
+    this.consumer = consumer;
+    this.options = options;
+    singletons = new Configuration[options.length];
+    for (int i = 0; i < options.length; i++) {
+      singletons[i] = new Configuration.Builder(vm).select(options[i]).build();
+    }
+  }
+
+  /**
+   * Passes each valid selection of the considered options to the given consumer exactly once.
+   * The empty selection is omitted.
+   */
+  public static void forEachProjection(VariabilityModel vm,
+                                       Configuration optionsToConsider,
+                                       ExtensionFinder finder,
+                                       Consumer<Configuration> consumer) {
+    enumerateProjections(vm, optionsToConsider, finder, selected -> {
+      if (!selected.isEmpty()) {
+        consumer.accept(selected);
+      }
+    });
+  }
+
+  /**
+   * Like {@link #forEachProjection(VariabilityModel, Configuration, ExtensionFinder, Consumer)},
+   * but splits the selections into cubes over the considered options (see
+   * {@link CubeSplitting}), which are enumerated in parallel. Each cube gets a finder of its own.
+   */
+  public static void forEachProjectionInParallel(VariabilityModel vm,
+                                                 Configuration optionsToConsider,
+                                                 Supplier<ExtensionFinder> finders,
+                                                 int parallelism,
+                                                 Consumer<Configuration> consumer) {
+    CubeSplitting.forEachInParallel(
+        vm, optionsToConsider, parallelism, (cubeSelected, cubeDeselected, cubeConsumer) -> {
+          ExtensionFinder finder = finders.get();
+          enumerateProjections(
+              vm,
+              optionsToConsider.difference(cubeSelected).difference(cubeDeselected),
+              (selected, deselected) -> finder.findExtension(selected.union(cubeSelected),
+                                                             deselected.union(cubeDeselected)),
+              selected -> {
+                Configuration projection = selected.union(cubeSelected);
+                if (!projection.isEmpty()) {
+                  cubeConsumer.accept(projection);
+                }
+              });
+        }, consumer);
+  }
+
+  /**
+   * Passes each valid selection of the considered options to the given consumer exactly once,
+   * including the empty one.
+   */
+  private static void enumerateProjections(VariabilityModel vm,
+                                           Configuration optionsToConsider,
+                                           ExtensionFinder solverFinder,
+                                           Consumer<Configuration> consumer) {
+    // branches that contradict the implication index are pruned without invoking the solver
+    ImplicationIndex index = vm.getImplicationIndex();
+    ExtensionFinder finder = (selected, deselected) -> {
+      if (index.isContradictory(selected, deselected)) {
+        return null;
+      }
+      return solverFinder.findExtension(selected, deselected);
+    };
+    Configuration empty = Configuration.empty(vm);
+    Configuration witness = finder.findExtension(empty, empty);
+    if (witness == null) {
+      return;
+    }
+    SimplifiedModel simplifiedModel = vm.getSimplifiedModel();
+    if (simplifiedModel == null) {
+      new ProjectedEnumeration(vm, optionsToConsider.indices().toArray(), finder, consumer)
+          .enumerate(0, empty, empty, witness);
+      return;
+    }
+    // group the considered options by their component, core options are always selected and
+    // dead options never
+    Configuration.Builder coreOptions = new Configuration.Builder(vm);
+    List<List<Integer>> groups = new ArrayList<>();
+    for (int i = 0; i < simplifiedModel.getComponents().size(); i++) {
+      groups.add(new ArrayList<>());
+    }
+    optionsToConsider.indices().forEach(i -> {
+      int v = simplifiedModel.getVariable(i);
+      if (v == SimplifiedModel.SELECTED) {
+        coreOptions.select(i);
+      } else if (v != SimplifiedModel.DESELECTED) {
+        groups.get(simplifiedModel.getComponent(v)).add(i);
+      }
+    });
+    List<List<Configuration>> selections = new ArrayList<>();
+    for (List<Integer> group : groups) {
+      if (!group.isEmpty()) {
+        List<Configuration> groupSelections = new ArrayList<>();
+        new ProjectedEnumeration(vm,
+                                 group.stream().mapToInt(Integer::intValue).toArray(),
+                                 finder,
+                                 groupSelections::add).enumerate(0, empty, empty, witness);
+        selections.add(groupSelections);
+      }
+    }
+    forEachCombination(coreOptions.build(), selections, consumer);
+  }
+
+  /**
+   * Passes each union of the given selection and one selection of each list to the given
+   * consumer.
+   */
+  private static void forEachCombination(Configuration selection,
+                                         List<List<Configuration>> selections,
+                                         Consumer<Configuration> consumer) {
+    int[] positions = new int[selections.size()];
+    while (true) {
+      Configuration combination = selection;
+      for (int i = 0; i < positions.length; i++) {
+        combination = combination.union(selections.get(i).get(positions[i]));
+      }
+      consumer.accept(combination);
+      // advance like an odometer
+      int i = positions.length - 1;
+      while (i >= 0 && positions[i] + 1 == selections.get(i).size()) {
+        positions[i] = 0;
+        i--;
+      }
+      if (i < 0) {
+        return;
+      }
+      positions[i]++;
+    }
+  }
+
+  /**
+   * Enumerates the selections of the options from the given depth on.
+   *
+   * @param witness A valid configuration that agrees with the current assignment.
+   */
+  private void enumerate(int depth,
+                         Configuration selected,
+                         Configuration deselected,
+                         Configuration witness) {
+    if (depth == options.length) {
+      consumer.accept(selected);
+      return;
+    }
+    Configuration withOption = selected.union(singletons[depth]);
+    Configuration withoutOption = deselected.union(singletons[depth]);
+    if (witness.contains(options[depth])) {
+      enumerate(depth + 1, withOption, deselected, witness);
+      Configuration other = finder.findExtension(selected, withoutOption);
+      if (other != null) {
+        enumerate(depth + 1, selected, withoutOption, other);
+      }
+    } else {
+      enumerate(depth + 1, selected, withoutOption, witness);
+      Configuration other = finder.findExtension(withOption, deselected);
+      if (other != null) {
+        enumerate(depth + 1, withOption, deselected, other);
+      }
+    }
+  }
+
+  /**
+   * Extends a partial assignment of binary options to a valid configuration.
+   */
+  @FunctionalInterface
+  public interface ExtensionFinder {
+
+    /**
+     * Returns a valid configuration that selects all options of <code>selected</code> and none
+     * of <code>deselected</code>, or <code>null</code> if there is none.
+     */
+    @Nullable
+    Configuration findExtension(Configuration selected, Configuration deselected);
+  }
+}
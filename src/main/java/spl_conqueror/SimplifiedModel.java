@@ -0,0 +1,223 @@
+package spl_conqueror;
+
+import static spl_conqueror.ClauseDatabase.isNegated;
+import static spl_conqueror.ClauseDatabase.literal;
+import static spl_conqueror.ClauseDatabase.variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The constraints of a variability model after options whose value is fixed have been removed
+ * and options that are always selected together have been merged. Each remaining variable stands
+ * for a set of options, which is represented by the option with the smallest index. The clauses
+ * only refer to the remaining variables, and no clause is subsumed by another one.
+ * <p>
+ * The variables are split into the connected components of the clauses when the model is
+ * created, so that each component can be solved on its own.
+ */
+public final class SimplifiedModel {
+
+  /**
+   * Marks an option that is selected in every valid configuration (a core option).
+   */
+  public static final int SELECTED = -1;
+
+  /**
+   * Marks an option that is deselected in every valid configuration (a dead option).
+   */
+  public static final int DESELECTED = -2;
+
+  /**
+   * The variable of each option, or {@link #SELECTED} or {@link #DESELECTED}.
+   */
+  @Nonnull
+  private final int[] optionToVariable;
+
+  /**
+   * The option that represents each variable.
+   */
+  @Nonnull
+  private final int[] variableToOption;
+
+  @Nonnull
+  private final ClauseDatabase clauseDatabase;
+
+  @Nonnull
+  private final List<ModelComponent> components;
+
+  /**
+   * The position of the component of each variable in {@link #components}.
+   */
+  @Nonnull
+  private final int[] variableToComponent;
+
+  /**
+   * The variable of each variable within its component.
+   */
+  @Nonnull
+  private final int[] localVariables;
+
+  public SimplifiedModel(int[] optionToVariable,
+                         int[] variableToOption,
+                         ClauseDatabase clauseDatabase) {
+    this.optionToVariable = optionToVariable;
+    this.variableToOption = variableToOption;
+    this.clauseDatabase = clauseDatabase;
+    variableToComponent = new int[variableToOption.length];
+    localVariables = new int[variableToOption.length];
+    components = Collections.unmodifiableList(decompose());
+  }
+
+  /**
+   * Splits the variables into the connected components of the clauses with a union-find
+   * structure. The components are ordered by their smallest variable.
+   */
+  @Nonnull
+  private List<ModelComponent> decompose() {
+    int variableCount = variableToOption.length;
+    int[] parents = new int[variableCount];
+    for (int v = 0; v < variableCount; v++) {
+      parents[v] = v;
+    }
+    for (int i = 0; i < clauseDatabase.getClauseCount(); i++) {
+      int[] clause = clauseDatabase.getClause(i);
+      for (int j = 1; j < clause.length; j++) {
+        int root = findRoot(parents, variable(clause[0]));
+        int other = findRoot(parents, variable(clause[j]));
+        // the smaller variable becomes the root, so that each root is the smallest variable
+        parents[Math.max(root, other)] = Math.min(root, other);
+      }
+    }
+    int[] variableCounts = new int[variableCount];
+    int componentCount = 0;
+    for (int v = 0; v < variableCount; v++) {
+      int root = findRoot(parents, v);
+      if (root == v) {
+        variableToComponent[v] = componentCount;
+        componentCount++;
+      } else {
+        variableToComponent[v] = variableToComponent[root];
+      }
+      int component = variableToComponent[v];
+      localVariables[v] = variableCounts[component];
+      variableCounts[component]++;
+    }
+    int[][] variables = new int[componentCount][];
+    for (int c = 0; c < componentCount; c++) {
+      variables[c] = new int[variableCounts[c]];
+    }
+    for (int v = 0; v < variableCount; v++) {
+      variables[variableToComponent[v]][localVariables[v]] = v;
+    }
+    List<List<int[]>> clauses = new ArrayList<>(componentCount);
+    for (int c = 0; c < componentCount; c++) {
+      clauses.add(new ArrayList<>());
+    }
+    for (int i = 0; i < clauseDatabase.getClauseCount(); i++) {
+      int[] clause = clauseDatabase.getClause(i);
+      if (clause.length == 0) {
+        continue;
+      }
+      int[] localClause = new int[clause.length];
+      for (int j = 0; j < clause.length; j++) {
+        localClause[j] = literal(localVariables[variable(clause[j])], isNegated(clause[j]));
+      }
+      clauses.get(variableToComponent[variable(clause[0])]).add(localClause);
+    }
+    int[][] options = new int[componentCount][];
+    int[] optionCounts = new int[componentCount];
+    for (int v : optionToVariable) {
+      if (v >= 0) {
+        optionCounts[variableToComponent[v]]++;
+      }
+    }
+    for (int c = 0; c < componentCount; c++) {
+      options[c] = new int[optionCounts[c]];
+    }
+    Arrays.fill(optionCounts, 0);
+    for (int i = 0; i < optionToVariable.length; i++) {
+      if (optionToVariable[i] >= 0) {
+        int component = variableToComponent[optionToVariable[i]];
+        options[component][optionCounts[component]] = i;
+        optionCounts[component]++;
+      }
+    }
+    List<ModelComponent> result = new ArrayList<>(componentCount);
+    for (int c = 0; c < componentCount; c++) {
+      result.add(new ModelComponent(variables[c],
+                                    options[c],
+                                    ClauseDatabase.of(variableCounts[c], clauses.get(c))));
+    }
+    return result;
+  }
+
+  private static int findRoot(int[] parents, int v) {
+    int root = v;
+    while (parents[root] != root) {
+      root = parents[root];
+    }
+    // path compression
+    while (parents[v] != root) {
+      int next = parents[v];
+      parents[v] = root;
+      v = next;
+    }
+    return root;
+  }
+
+  /**
+   * Returns the variable of the option with the given index, or {@link #SELECTED} or
+   * {@link #DESELECTED} if the value of the option is fixed.
+   */
+  public int getVariable(int optionIndex) {
+    return optionToVariable[optionIndex];
+  }
+
+  public int getVariableCount() {
+    return variableToOption.length;
+  }
+
+  /**
+   * Returns the index of the option that represents the given variable.
+   */
+  public int getRepresentative(int variable) {
+    return variableToOption[variable];
+  }
+
+  /**
+   * Returns the simplified clauses, whose variables range from 0 to
+   * {@link #getVariableCount()} (exclusive).
+   */
+  @Nonnull
+  public ClauseDatabase getClauseDatabase() {
+    return clauseDatabase;
+  }
+
+  /**
+   * Returns the connected components of the clauses. Each variable belongs to exactly one
+   * component.
+   */
+  @Nonnull
+  public List<ModelComponent> getComponents() {
+    return components;
+  }
+
+  /**
+   * Returns the position of the component of the given variable in {@link #getComponents()}.
+   */
+  public int getComponent(int variable) {
+    return variableToComponent[variable];
+  }
+
+  /**
+   * Returns the variable that stands for the given variable in the clauses of its component.
+   */
+  public int getLocalVariable(int variable) {
+    return localVariables[variable];
+  }
+}
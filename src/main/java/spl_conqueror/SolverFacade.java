@@ -3,6 +3,7 @@ package spl_conqueror;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public interface SolverFacade {
 
@@ -12,5 +13,14 @@ public interface SolverFacade {
   @Nonnull
   VariantGenerator getVariantGenerator();
 
+  /**
+   * Returns a model counter that works on the solver's own representation of the variability
+   * model, or null if the solver has none.
+   */
+  @Nullable
+  default ModelCounter getModelCounter() {
+    return null;
+  }
+
   void setParameters(Map<String, String> parameters);
 }
@@ -4,6 +4,7 @@ import org.dom4j.Element;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Central model to store all configuration options and their constraints.
@@ -23,23 +25,43 @@ public final class VariabilityModel {
   @Nonnull
   private final Map<String, BinaryOption> binaryOptions;
 
+  @Nonnull
+  private final List<BinaryOption> binaryOptionsByIndex;
+
   @Nonnull
   private final List<String> binaryConstraints;
 
   @Nonnull
   private final String rootName;
 
+  @Nonnull
+  private final ClauseDatabase clauseDatabase;
+
+  @Nonnull
+  private final ConfigurationValidator configurationValidator;
+
+  /**
+   * Compiled on first use, because its size grows quadratically with the number of options.
+   */
+  @Nullable
+  private ImplicationIndex implicationIndex;
+
+  @Nullable
+  private SimplifiedModel simplifiedModel;
+
   public VariabilityModel(Element element) {
     name = element.attributeValue("name");
     binaryOptions = new HashMap<>();
+    List<BinaryOption> options = new ArrayList<>();
     Iterator<Element> it = element.element("binaryOptions").elementIterator();
     Collection<BinaryOption> topLevelOptions = new ArrayList<>();
     while (it.hasNext()) {
-      BinaryOption option = new BinaryOption(it.next());
+      BinaryOption option = new BinaryOption(it.next(), options.size());
       if (option.isTopLevel()) {
         topLevelOptions.add(option);
       }
       binaryOptions.put(option.getName(), option);
+      options.add(option);
     }
     List<BinaryOption> possibleRootOptions = topLevelOptions.stream()
                                                             .filter(BinaryOption::isRoot)
@@ -47,8 +69,9 @@ public final class VariabilityModel {
     if (possibleRootOptions.size() == 1) {
       rootName = possibleRootOptions.get(0).getName();
     } else {
-      BinaryOption root = BinaryOption.createRoot();
+      BinaryOption root = BinaryOption.createRoot(options.size());
       binaryOptions.put(BinaryOption.ROOT_NAME, root);
+      options.add(root);
       rootName = BinaryOption.ROOT_NAME;
     }
     binaryConstraints = new ArrayList<>();
@@ -63,12 +86,22 @@ public final class VariabilityModel {
         }
       }
     }
-    binaryOptions.values().forEach(opt -> opt.finalizeInitialization(this));
+    binaryOptionsByIndex = Collections.unmodifiableList(options);
+    binaryOptionsByIndex.forEach(opt -> opt.finalizeInitialization(this));
+    clauseDatabase = ClauseDatabase.compile(this);
+    configurationValidator = ConfigurationValidator.compile(clauseDatabase);
   }
 
+  /**
+   * Returns all binary options ordered by their index.
+   */
   @Nonnull
   public List<BinaryOption> getBinaryOptions() {
-    return new ArrayList<>(binaryOptions.values());
+    return binaryOptionsByIndex;
+  }
+
+  public int getOptionCount() {
+    return binaryOptionsByIndex.size();
   }
 
   @Nonnull
@@ -86,6 +119,48 @@ public final class VariabilityModel {
     return binaryConstraints;
   }
 
+  /**
+   * Returns all constraints of this model in conjunctive normal form. The clauses are compiled
+   * once when the model is loaded.
+   */
+  @Nonnull
+  public ClauseDatabase getClauseDatabase() {
+    return clauseDatabase;
+  }
+
+  /**
+   * Returns a validator that checks complete configurations without invoking a solver.
+   */
+  @Nonnull
+  public ConfigurationValidator getConfigurationValidator() {
+    return configurationValidator;
+  }
+
+  /**
+   * Returns an index that rejects contradictory partial configurations without invoking a
+   * solver.
+   */
+  @Nonnull
+  public synchronized ImplicationIndex getImplicationIndex() {
+    if (implicationIndex == null) {
+      implicationIndex = ImplicationIndex.compile(clauseDatabase);
+    }
+    return implicationIndex;
+  }
+
+  /**
+   * Returns the simplified constraints of this model, or null if the model has not been
+   * simplified.
+   */
+  @Nullable
+  public SimplifiedModel getSimplifiedModel() {
+    return simplifiedModel;
+  }
+
+  public void setSimplifiedModel(@Nullable SimplifiedModel simplifiedModel) {
+    this.simplifiedModel = simplifiedModel;
+  }
+
   @Nonnull
   public BinaryOption getBinaryOption(String optionName) {
     if (!binaryOptions.containsKey(optionName)) {
@@ -93,4 +168,9 @@ public final class VariabilityModel {
     }
     return binaryOptions.get(optionName);
   }
+
+  @Nonnull
+  public BinaryOption getBinaryOption(int index) {
+    return binaryOptionsByIndex.get(index);
+  }
 }
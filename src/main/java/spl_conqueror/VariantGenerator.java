@@ -1,7 +1,8 @@
 package spl_conqueror;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -22,8 +23,7 @@ public interface VariantGenerator {
    * @return The valid configuration (or null if there is none) that satisfies the VM and the goal.
    */
   @Nullable
-  Set<BinaryOption> findMinimizedConfig(Set<BinaryOption> config,
-                                        Set<BinaryOption> unwantedOptions);
+  Configuration findMinimizedConfig(Configuration config, Configuration unwantedOptions);
 
   /**
    * Based on a given (partial) configuration, we search for all largest (in terms of selected
@@ -38,8 +38,8 @@ public interface VariantGenerator {
    * none)
    */
   @Nonnull
-  Collection<Set<BinaryOption>> findAllMaximizedConfigs(Set<BinaryOption> config,
-                                                        Set<BinaryOption> unwantedOptions);
+  Collection<Configuration> findAllMaximizedConfigs(Configuration config,
+                                                    Configuration unwantedOptions);
 
   /**
    * Generates up to n solutions of the variability model.
@@ -49,11 +49,23 @@ public interface VariantGenerator {
    *
    * @param n The number of solutions to obtain.
    *
-   * @return A list of configurations, in which a configuration is a list of selected binary
-   * options.
+   * @return A list of configurations.
    */
   @Nonnull
-  Collection<Set<BinaryOption>> generateUpToNConfigs(int n);
+  default Collection<Configuration> generateUpToNConfigs(int n) {
+    Collection<Configuration> configs = new ArrayList<>();
+    generateUpToNConfigs(n, configs::add);
+    return configs;
+  }
+
+  /**
+   * Like {@link #generateUpToNConfigs(int)}, but passes each solution to the given consumer as
+   * soon as it has been found instead of collecting all solutions first.
+   *
+   * @param n        The number of solutions to obtain.
+   * @param consumer Receives the configurations.
+   */
+  void generateUpToNConfigs(int n, Consumer<Configuration> consumer);
 
   /**
    * The method aims at finding a configuration which is similar to the given configuration, but
@@ -69,8 +81,8 @@ public interface VariantGenerator {
    * returned if no valid configuration exists.
    */
   @Nullable
-  Tuple<Set<BinaryOption>, Set<BinaryOption>> generateConfigWithoutOption(
-      Set<BinaryOption> config, BinaryOption optionToRemove);
+  Tuple<Configuration, Configuration> generateConfigWithoutOption(Configuration config,
+                                                                 BinaryOption optionToRemove);
 
   /**
    * Generates all valid combinations of all configuration options in the variability model.
@@ -78,10 +90,44 @@ public interface VariantGenerator {
    * @param optionsToConsider The options that should be considered. All other options are
    *                          ignored.
    *
-   * @return Returns a list of binary options.
+   * @return Returns a list of partial configurations.
+   */
+  @Nonnull
+  default Collection<Configuration> generateAllVariants(Configuration optionsToConsider) {
+    Collection<Configuration> variants = new ArrayList<>();
+    generateAllVariants(optionsToConsider, variants::add);
+    return variants;
+  }
+
+  /**
+   * Like {@link #generateAllVariants(Configuration)}, but passes each partial configuration to
+   * the given consumer as soon as it has been found. Each partial configuration is passed once.
+   *
+   * @param optionsToConsider The options that should be considered. All other options are
+   *                          ignored.
+   * @param consumer          Receives the partial configurations.
+   */
+  void generateAllVariants(Configuration optionsToConsider, Consumer<Configuration> consumer);
+
+  /**
+   * Computes the backbone of the variability model conditioned on the given (partial)
+   * configuration.
+   *
+   * @param config The binary options that are selected.
+   *
+   * @return A tuple consisting of the options that are selected in every valid configuration
+   * containing the given configuration and the options that are selected in none of them. Null
+   * is returned if no valid configuration contains the given configuration.
+   */
+  @Nullable
+  Tuple<Configuration, Configuration> propagate(Configuration config);
+
+  /**
+   * Starts an enumeration of all valid configurations that can be continued page by page. The
+   * enumeration uses its own solver instance, so it is not affected by other queries.
    */
   @Nonnull
-  Collection<Set<BinaryOption>> generateAllVariants(Set<BinaryOption> optionsToConsider);
+  EnumerationCursor openEnumeration();
 
   @Nonnull
   BucketSession createBucketSession();
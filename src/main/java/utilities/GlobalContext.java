@@ -1,10 +1,18 @@
 package utilities;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import ddnnf.Ddnnf;
 import option_coding.OptionCoding;
 import spl_conqueror.BucketSession;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.ModelCounter;
 import spl_conqueror.SolverFacade;
 import spl_conqueror.VariabilityModel;
 
@@ -22,6 +30,30 @@ public final class GlobalContext {
   @Nullable
   private BucketSession bucketSession;
 
+  @Nullable
+  private ModelCounter modelCounter;
+
+  /**
+   * The solver parameters that have been set so far, which also apply to commands that do not
+   * depend on the selected solver.
+   */
+  @Nonnull
+  private final Map<String, String> solverParameters = new HashMap<>();
+
+  @Nullable
+  private Ddnnf ddnnf;
+
+  /**
+   * Where the compiled d-DNNF of the variability model is saved.
+   */
+  @Nullable
+  private Path ddnnfPath;
+
+  @Nonnull
+  private final Map<Integer, EnumerationCursor> cursors = new HashMap<>();
+
+  private int nextCursorId = 1;
+
   @Nonnull
   public OptionCoding getOptionCoding() {
     if (optionCoding == null) {
@@ -58,6 +90,10 @@ public final class GlobalContext {
     return solverFacade;
   }
 
+  public boolean hasSolverFacade() {
+    return solverFacade != null;
+  }
+
   public void setSolverFacade(SolverFacade solverFacade) {
     if (this.solverFacade == null
         || !this.solverFacade.getClass().equals(solverFacade.getClass())) {
@@ -65,6 +101,15 @@ public final class GlobalContext {
     }
   }
 
+  @Nullable
+  public String getSolverParameter(String key) {
+    return solverParameters.get(key);
+  }
+
+  public void addSolverParameters(Map<String, String> parameters) {
+    solverParameters.putAll(parameters);
+  }
+
   @Nullable
   public BucketSession getBucketSession() {
     return bucketSession;
@@ -73,4 +118,64 @@ public final class GlobalContext {
   public void setBucketSession(@Nullable BucketSession bucketSession) {
     this.bucketSession = bucketSession;
   }
+
+  @Nullable
+  public ModelCounter getModelCounter() {
+    return modelCounter;
+  }
+
+  public void setModelCounter(@Nullable ModelCounter modelCounter) {
+    this.modelCounter = modelCounter;
+  }
+
+  public boolean hasDdnnf() {
+    return ddnnf != null;
+  }
+
+  /**
+   * Returns the d-DNNF of the variability model. It is compiled on first use and saved, so that
+   * it can be mapped when the model is loaded again.
+   */
+  @Nonnull
+  public Ddnnf getDdnnf() {
+    if (ddnnf == null) {
+      ddnnf = Ddnnf.compile(getVariabilityModel());
+      if (ddnnfPath != null) {
+        try {
+          ddnnf.save(ddnnfPath);
+        } catch (IOException ignored) {
+          // the saved circuit is only a cache
+        }
+      }
+    }
+    return ddnnf;
+  }
+
+  public void setDdnnf(@Nullable Ddnnf ddnnf) {
+    this.ddnnf = ddnnf;
+  }
+
+  public void setDdnnfPath(@Nullable Path ddnnfPath) {
+    this.ddnnfPath = ddnnfPath;
+  }
+
+  /**
+   * Registers the given cursor and returns its id.
+   */
+  public int addCursor(EnumerationCursor cursor) {
+    int id = nextCursorId;
+    nextCursorId++;
+    cursors.put(id, cursor);
+    return id;
+  }
+
+  @Nullable
+  public EnumerationCursor getCursor(int id) {
+    return cursors.get(id);
+  }
+
+  @Nullable
+  public EnumerationCursor removeCursor(int id) {
+    return cursors.remove(id);
+  }
 }
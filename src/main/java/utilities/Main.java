@@ -5,9 +5,15 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 
+import bdd.BddSolverFacade;
 import choco_solver.ChocoSolverFacade;
+import commands.CheckSatisfiabilityBatchCommand;
 import commands.CheckSatisfiabilityCommand;
 import commands.ClearBucketCacheCommand;
+import commands.CloseEnumerationCommand;
+import commands.CountByCardinalityCommand;
+import commands.CountConfigsCommand;
+import commands.EstimateCountCommand;
 import commands.FindAllMaximizedConfigsCommand;
 import commands.FindMinimizedConfigCommand;
 import commands.GenerateAllVariantsCommand;
@@ -15,10 +21,16 @@ import commands.GenerateConfigFromBucketCommand;
 import commands.GenerateConfigWithoutOptionCommand;
 import commands.GenerateUpToNConfigsCommand;
 import commands.LoadVMCommand;
+import commands.NextCommand;
+import commands.OpenEnumerationCommand;
+import commands.OptionFrequenciesCommand;
+import commands.PropagateCommand;
+import commands.SampleUniformCommand;
 import commands.SelectOptionCodingCommand;
 import commands.SelectSolverCommand;
 import commands.SetSolverParametersCommand;
 import jacop.JaCoPSolverFacade;
+import sat.SatSolverFacade;
 
 public final class Main {
 
@@ -39,10 +51,13 @@ public final class Main {
     SelectSolverCommand selectSolverCommand = new SelectSolverCommand(context);
     selectSolverCommand.registerSolver("choco", ChocoSolverFacade::new);
     selectSolverCommand.registerSolver("jacop", JaCoPSolverFacade::new);
+    selectSolverCommand.registerSolver("sat", SatSolverFacade::new);
+    selectSolverCommand.registerSolver("bdd", BddSolverFacade::new);
     shell.registerCommand(selectSolverCommand, "select-solver");
     shell.registerCommand(new SetSolverParametersCommand(context), "set-solver-parameters");
     shell.registerCommand(new SelectOptionCodingCommand(context), "select-option-coding");
     shell.registerCommand(new CheckSatisfiabilityCommand(context), "check-sat");
+    shell.registerCommand(new CheckSatisfiabilityBatchCommand(context), "check-sat-batch");
     shell.registerCommand(new FindMinimizedConfigCommand(context), "find-minimized-config");
     shell.registerCommand(new FindAllMaximizedConfigsCommand(context),
                           "find-all-maximized-configs");
@@ -50,9 +65,18 @@ public final class Main {
     shell.registerCommand(new GenerateConfigWithoutOptionCommand(context),
                           "generate-config-without-option");
     shell.registerCommand(new GenerateAllVariantsCommand(context), "generate-all-variants");
+    shell.registerCommand(new PropagateCommand(context), "propagate");
     shell.registerCommand(new GenerateConfigFromBucketCommand(context),
                           "generate-config-from-bucket");
     shell.registerCommand(new ClearBucketCacheCommand(context), "clear-bucket-cache");
+    shell.registerCommand(new CountConfigsCommand(context), "count-configs");
+    shell.registerCommand(new EstimateCountCommand(context), "estimate-count");
+    shell.registerCommand(new CountByCardinalityCommand(context), "count-by-cardinality");
+    shell.registerCommand(new OptionFrequenciesCommand(context), "option-frequencies");
+    shell.registerCommand(new OpenEnumerationCommand(context), "open-enumeration");
+    shell.registerCommand(new NextCommand(context), "next");
+    shell.registerCommand(new CloseEnumerationCommand(context), "close");
+    shell.registerCommand(new SampleUniformCommand(context), "sample-uniform");
     shell.execute();
   }
 }
@@ -0,0 +1,139 @@
+package utilities;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Collects the response of a {@link ShellCommand}. Commands may write their response in parts as
+ * soon as they are available. The parts are buffered and passed on to the output channel
+ * whenever the buffer exceeds the chunk size. A response is terminated by a line separator, so a
+ * client can read it as one line regardless of how many chunks it has been written in.
+ */
+public final class ResponseWriter {
+
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+  /**
+   * The initial capacity of the buffer, which suffices for most responses. The buffer grows up to
+   * the chunk size when a response needs it.
+   */
+  private static final int INITIAL_CAPACITY = 256;
+
+  @Nonnull
+  private static final String CONFIG_SEPARATOR = ";";
+
+  @Nonnull
+  private final Appendable out;
+
+  private final int chunkSize;
+
+  @Nonnull
+  private final StringBuilder buffer;
+
+  private boolean isEmpty = true;
+
+  private boolean hasFlushed;
+
+  private int configCount;
+
+  @Nullable
+  private String error;
+
+  public ResponseWriter(Appendable out, int chunkSize) {
+    this.out = out;
+    this.chunkSize = chunkSize;
+    buffer = new StringBuilder(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Prepares this writer for the next response. The buffer is kept unless a single large part has
+   * grown it far beyond the chunk size.
+   */
+  public void reset() {
+    buffer.setLength(0);
+    if (buffer.capacity() / 2 > chunkSize) {
+      buffer.trimToSize();
+    }
+    isEmpty = true;
+    hasFlushed = false;
+    configCount = 0;
+    error = null;
+  }
+
+  public void write(CharSequence text) {
+    buffer.append(text);
+    isEmpty = false;
+    if (buffer.length() >= chunkSize) {
+      flush();
+    }
+  }
+
+  /**
+   * Writes an encoded configuration, separated from the configurations that have been written
+   * before.
+   */
+  public void writeConfiguration(CharSequence config) {
+    if (configCount > 0) {
+      buffer.append(CONFIG_SEPARATOR);
+    }
+    configCount++;
+    write(config);
+  }
+
+  /**
+   * Replaces the response by the given error message. The part of the response that has already
+   * been passed on to the output channel cannot be taken back (see {@link #hasFlushed()}), only
+   * the buffered rest is discarded.
+   */
+  public void writeError(String message) {
+    buffer.setLength(0);
+    error = message;
+  }
+
+  /**
+   * Returns whether a part of the response has already been passed on to the output channel.
+   */
+  public boolean hasFlushed() {
+    return hasFlushed;
+  }
+
+  /**
+   * Returns whether nothing has been written so far.
+   */
+  public boolean isEmpty() {
+    return isEmpty;
+  }
+
+  @Nullable
+  public String getError() {
+    return error;
+  }
+
+  /**
+   * Passes the buffered part of the response on to the output channel.
+   */
+  public void flush() {
+    try {
+      out.append(buffer);
+      if (out instanceof Flushable) {
+        ((Flushable) out).flush();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.setLength(0);
+    hasFlushed = true;
+  }
+
+  /**
+   * Writes the remaining response followed by the terminator.
+   */
+  public void finish() {
+    buffer.append(System.lineSeparator());
+    flush();
+  }
+}
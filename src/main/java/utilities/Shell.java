@@ -26,10 +26,17 @@ public final class Shell {
   @Nonnull
   private final Map<String, ShellCommand> commands = new HashMap<>();
 
+  /**
+   * Collects the responses of all commands, so that its buffer is only allocated once.
+   */
+  @Nonnull
+  private final ResponseWriter writer;
+
   public Shell(BufferedReader in, PrintStream out, PrintStream err) {
     this.in = in;
     this.out = out;
     this.err = err;
+    writer = new ResponseWriter(out, ResponseWriter.DEFAULT_CHUNK_SIZE);
   }
 
   public void registerCommand(ShellCommand command, String commandString) {
@@ -48,12 +55,18 @@ public final class Shell {
       String argsString = tokens.length > 1 ? tokens[1].trim() : "";
       if (commands.containsKey(commandString)) {
         ShellCommand command = commands.get(commandString);
-        String response = command.execute(argsString);
-        if (response.startsWith(ShellCommand.ERROR_PREFIX)) {
-          err.println(response.substring(ShellCommand.ERROR_PREFIX.length()));
-          shouldProcessInput = false;
+        writer.reset();
+        command.execute(argsString, writer);
+        String error = writer.getError();
+        if (error == null) {
+          writer.finish();
         } else {
-          out.println(response);
+          if (writer.hasFlushed()) {
+            // terminate the part that has been written, so that the client can read it
+            writer.finish();
+          }
+          err.println(error);
+          shouldProcessInput = false;
         }
       } else if (commandString.equals("exit")) {
         shouldProcessInput = false;
@@ -19,6 +19,37 @@ public abstract class ShellCommand {
   @Nonnull
   public abstract String execute(String argsString);
 
+  /**
+   * Executes the command and writes its response to the given writer. By default, the complete
+   * response of {@link #execute(String)} is written at once. Commands with large responses
+   * override this method to write parts of the response as soon as they are available.
+   */
+  public void execute(String argsString, ResponseWriter writer) {
+    String response = execute(argsString);
+    if (response.startsWith(ERROR_PREFIX)) {
+      writer.writeError(response.substring(ERROR_PREFIX.length()));
+    } else {
+      writer.write(response);
+    }
+  }
+
+  /**
+   * Collects the response of {@link #execute(String, ResponseWriter)} in memory. Commands that
+   * override that method can use this to implement {@link #execute(String)}.
+   */
+  @Nonnull
+  protected final String executeBuffered(String argsString) {
+    StringBuilder response = new StringBuilder();
+    ResponseWriter writer = new ResponseWriter(response, Integer.MAX_VALUE);
+    execute(argsString, writer);
+    String errorMessage = writer.getError();
+    if (errorMessage != null) {
+      return error(errorMessage);
+    }
+    writer.flush();
+    return response.toString();
+  }
+
   @SuppressWarnings("MethodMayBeStatic")
   protected final String error(String message) {
     return ERROR_PREFIX + message;
@@ -4,6 +4,8 @@ public final class SolverParameterKeys {
 
   public static final String RANDOM_SEED = "seed";
 
+  public static final String PARALLELISM = "parallelism";
+
   private SolverParameterKeys() {
   }
 }
@@ -0,0 +1,33 @@
+package bdd;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class BddCursorComparisonTest extends AbstractEnumerationComparisonTest {
+
+  private static final int PAGE_SIZE = 37;
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    EnumerationCursor cursor = new BddSolverFacade(vm).getVariantGenerator().openEnumeration();
+    List<Configuration> pages = new ArrayList<>();
+    int count;
+    do {
+      count = cursor.next(PAGE_SIZE, pages::add);
+      Assertions.assertTrue(count <= PAGE_SIZE);
+    } while (count == PAGE_SIZE);
+    Assertions.assertEquals(0, cursor.next(PAGE_SIZE, pages::add));
+    cursor.close();
+    Assertions.assertEquals(configs.size(), pages.size());
+    Assertions.assertEquals(new HashSet<>(configs), new HashSet<>(pages));
+  }
+}
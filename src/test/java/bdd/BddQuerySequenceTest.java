@@ -0,0 +1,14 @@
+package bdd;
+
+import spl_conqueror.SolverFacade;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractQuerySequenceTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class BddQuerySequenceTest extends AbstractQuerySequenceTest {
+
+  @Override
+  protected SolverFacade createFacade(VariabilityModel vm) {
+    return new BddSolverFacade(vm);
+  }
+}
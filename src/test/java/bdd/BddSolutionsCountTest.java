@@ -0,0 +1,20 @@
+package bdd;
+
+import java.util.Collection;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+import utilities.AbstractSolutionsCountTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class BddSolutionsCountTest extends AbstractSolutionsCountTest {
+
+  @Override
+  protected int countSolutions(VariabilityModel vm) {
+    BddConstraintSystemContext context = BddConstraintSystemContext.from(vm);
+    VariantGenerator vg = new BddVariantGenerator(context);
+    Collection<Configuration> solutions = vg.generateUpToNConfigs(-1);
+    return solutions.size();
+  }
+}
@@ -0,0 +1,20 @@
+package choco_solver;
+
+import java.util.Collection;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractSolutionsCountTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class ChocoParallelSolutionsCountTest extends AbstractSolutionsCountTest {
+
+  @Override
+  protected int countSolutions(VariabilityModel vm) {
+    ChocoConstraintSystemContext context = ChocoConstraintSystemContext.from(vm);
+    ChocoVariantGenerator vg = new ChocoVariantGenerator(context);
+    vg.setParallelism(4);
+    Collection<Configuration> solutions = vg.generateUpToNConfigs(-1);
+    return solutions.size();
+  }
+}
@@ -0,0 +1,14 @@
+package choco_solver;
+
+import spl_conqueror.SolverFacade;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractQuerySequenceTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class ChocoQuerySequenceTest extends AbstractQuerySequenceTest {
+
+  @Override
+  protected SolverFacade createFacade(VariabilityModel vm) {
+    return new ChocoSolverFacade(vm);
+  }
+}
@@ -1,9 +1,8 @@
 package choco_solver;
 
 import java.util.Collection;
-import java.util.Set;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariabilityModel;
 import spl_conqueror.VariantGenerator;
 import utilities.AbstractSolutionsCountTest;
@@ -15,7 +14,7 @@ final class ChocoSolutionsCountTest extends AbstractSolutionsCountTest {
   protected int countSolutions(VariabilityModel vm) {
     ChocoConstraintSystemContext context = ChocoConstraintSystemContext.from(vm);
     VariantGenerator vg = new ChocoVariantGenerator(context);
-    Collection<Set<BinaryOption>> solutions = vg.generateUpToNConfigs(-1);
+    Collection<Configuration> solutions = vg.generateUpToNConfigs(-1);
     return solutions.size();
   }
 }
@@ -0,0 +1,95 @@
+package ddnnf;
+
+import org.dom4j.DocumentException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.XMLUtils;
+
+final class DdnnfArtifactTest {
+
+  private static final String[] FEATURE_MODELS = {
+      "Apache_energy.xml", "brotli.xml", "Hipacc_bin.xml", "LLVM_energy.xml"
+  };
+
+  private static VariabilityModel loadModel(String featureModel) throws DocumentException {
+    return new VariabilityModel(XMLUtils.loadXML(
+        ClassLoader.getSystemResource("feature-models/" + featureModel)));
+  }
+
+  private static void assertSameCounts(VariabilityModel vm, Ddnnf expected, Ddnnf actual) {
+    Assertions.assertEquals(expected.getNodeCount(), actual.getNodeCount());
+    for (int i = -1; i < vm.getOptionCount(); i++) {
+      Configuration partialConfig = i < 0 ? Configuration.empty(vm)
+                                          : new Configuration.Builder(vm).select(i).build();
+      Assertions.assertEquals(expected.countConfigurations(partialConfig),
+                              actual.countConfigurations(partialConfig));
+      Assertions.assertEquals(Arrays.asList(expected.countByCardinality(partialConfig)),
+                              Arrays.asList(actual.countByCardinality(partialConfig)));
+    }
+  }
+
+  @Test
+  void testSaveAndMap() throws DocumentException, IOException {
+    Path directory = Files.createTempDirectory("ddnnf");
+    try {
+      for (String featureModel : FEATURE_MODELS) {
+        VariabilityModel vm = loadModel(featureModel);
+        Ddnnf ddnnf = Ddnnf.compile(vm);
+        Path path = directory.resolve(featureModel + ".nnf");
+        ddnnf.save(path);
+        Ddnnf mapped = Ddnnf.map(path, vm);
+        Assertions.assertNotNull(mapped, featureModel);
+        assertSameCounts(vm, ddnnf, mapped);
+
+        // saving again replaces the file
+        mapped.save(path);
+        Ddnnf remapped = Ddnnf.map(path, vm);
+        Assertions.assertNotNull(remapped, featureModel);
+        assertSameCounts(vm, ddnnf, remapped);
+        Files.delete(path);
+      }
+    } finally {
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void testRejectsStaleArtifacts() throws DocumentException, IOException {
+    VariabilityModel vm = loadModel("brotli.xml");
+    Path path = Files.createTempFile("ddnnf", ".nnf");
+    try {
+      Ddnnf.compile(vm).save(path);
+      byte[] bytes = Files.readAllBytes(path);
+
+      // a circuit of another model
+      for (String featureModel : FEATURE_MODELS) {
+        if (!"brotli.xml".equals(featureModel)) {
+          Assertions.assertNull(Ddnnf.map(path, loadModel(featureModel)), featureModel);
+        }
+      }
+
+      // a changed fingerprint, which is stored in the third word of the header
+      byte[] stale = bytes.clone();
+      stale[2 * Integer.BYTES + 3] ^= 1;
+      Files.write(path, stale);
+      Assertions.assertNull(Ddnnf.map(path, vm));
+
+      // a truncated file
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - Integer.BYTES));
+      Assertions.assertNull(Ddnnf.map(path, vm));
+
+      Files.write(path, bytes);
+      Assertions.assertNotNull(Ddnnf.map(path, vm));
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
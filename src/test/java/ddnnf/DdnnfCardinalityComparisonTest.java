@@ -0,0 +1,30 @@
+package ddnnf;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class DdnnfCardinalityComparisonTest extends AbstractEnumerationComparisonTest {
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    Ddnnf ddnnf = Ddnnf.compile(vm);
+    for (Configuration partialConfig : partialConfigs(vm)) {
+      long[] cardinalities = new long[vm.getOptionCount() + 1];
+      for (Configuration config : containing(configs, partialConfig)) {
+        cardinalities[config.size()]++;
+      }
+      BigInteger[] counts = ddnnf.countByCardinality(partialConfig);
+      for (int k = 0; k < cardinalities.length; k++) {
+        long count = k < counts.length ? counts[k].longValueExact() : 0;
+        Assertions.assertEquals(cardinalities[k], count, partialConfig + " k=" + k);
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package ddnnf;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class DdnnfFrequencyComparisonTest extends AbstractEnumerationComparisonTest {
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    Ddnnf ddnnf = Ddnnf.compile(vm);
+    for (Configuration partialConfig : partialConfigs(vm)) {
+      List<Configuration> expected = containing(configs, partialConfig);
+      long[] selections = new long[vm.getOptionCount()];
+      for (Configuration config : expected) {
+        config.indices().forEach(i -> selections[i]++);
+      }
+      BigDecimal[] frequencies = ddnnf.computeFrequencies(partialConfig);
+      if (expected.isEmpty()) {
+        Assertions.assertNull(frequencies, partialConfig.toString());
+        continue;
+      }
+      Assertions.assertNotNull(frequencies, partialConfig.toString());
+      for (int i = 0; i < selections.length; i++) {
+        Assertions.assertEquals((double) selections[i] / expected.size(),
+                                frequencies[i].doubleValue(),
+                                1.0e-9,
+                                partialConfig + " option " + i);
+      }
+    }
+  }
+}
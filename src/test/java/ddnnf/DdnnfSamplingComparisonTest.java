@@ -0,0 +1,83 @@
+package ddnnf;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import commands.SampleUniformCommand;
+import option_coding.OptionCoding;
+import option_coding.VariabilityModelIndexOptionCoding;
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+import utilities.GlobalContext;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class DdnnfSamplingComparisonTest extends AbstractEnumerationComparisonTest {
+
+  /**
+   * The expected number of draws of each configuration in the uniformity check.
+   */
+  private static final int DRAWS_PER_CONFIG = 50;
+
+  /**
+   * The largest number of configurations for which uniformity is checked.
+   */
+  private static final int MAX_CHECKED_CONFIGS = 3000;
+
+  private static final int SAMPLE_SIZE = 20;
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    Ddnnf ddnnf = Ddnnf.compile(vm);
+    Set<Configuration> validConfigs = new HashSet<>(configs);
+    Random random = new Random(42);
+
+    // samples contain the partial configuration and are valid
+    for (Configuration partialConfig : partialConfigs(vm)) {
+      boolean hasSamples = ddnnf.sample(vm, partialConfig, SAMPLE_SIZE, random, sample -> {
+        Assertions.assertTrue(validConfigs.contains(sample), sample.toString());
+        Assertions.assertEquals(partialConfig, sample.intersection(partialConfig));
+      });
+      Assertions.assertEquals(!containing(configs, partialConfig).isEmpty(), hasSamples);
+    }
+
+    // the number of draws of each configuration passes a chi-squared test for uniformity
+    if (configs.size() <= MAX_CHECKED_CONFIGS) {
+      Map<Configuration, Integer> draws = new HashMap<>();
+      ddnnf.sample(vm, Configuration.empty(vm), DRAWS_PER_CONFIG * configs.size(), random,
+                   sample -> draws.merge(sample, 1, Integer::sum));
+      Assertions.assertEquals(validConfigs, draws.keySet());
+      double chiSquared = 0;
+      for (int count : draws.values()) {
+        chiSquared += (double) (count - DRAWS_PER_CONFIG) * (count - DRAWS_PER_CONFIG)
+                      / DRAWS_PER_CONFIG;
+      }
+      // mean plus six standard deviations of the distribution
+      int degreesOfFreedom = configs.size() - 1;
+      double bound = degreesOfFreedom + 6 * Math.sqrt(2.0 * degreesOfFreedom);
+      Assertions.assertTrue(chiSquared <= bound, chiSquared + " > " + bound);
+    }
+
+    // sample-uniform writes the requested number of valid configurations, reproducibly per seed
+    GlobalContext context = new GlobalContext();
+    OptionCoding optionCoding = new VariabilityModelIndexOptionCoding(vm);
+    context.setVariabilityModel(vm);
+    context.setOptionCoding(optionCoding);
+    context.setDdnnf(ddnnf);
+    SampleUniformCommand command = new SampleUniformCommand(context);
+    String response = command.execute(SAMPLE_SIZE + " 7");
+    Assertions.assertEquals(response, command.execute(SAMPLE_SIZE + " 7"));
+    String[] samples = response.split(";");
+    Assertions.assertEquals(SAMPLE_SIZE, samples.length);
+    for (String sample : samples) {
+      Assertions.assertTrue(validConfigs.contains(optionCoding.decodeBinaryOptions(sample)),
+                            sample);
+    }
+  }
+}
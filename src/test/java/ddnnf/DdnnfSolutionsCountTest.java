@@ -0,0 +1,15 @@
+package ddnnf;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractSolutionsCountTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class DdnnfSolutionsCountTest extends AbstractSolutionsCountTest {
+
+  @Override
+  protected int countSolutions(VariabilityModel vm) {
+    Ddnnf ddnnf = Ddnnf.compile(vm);
+    return ddnnf.countConfigurations(Configuration.empty(vm)).intValueExact();
+  }
+}
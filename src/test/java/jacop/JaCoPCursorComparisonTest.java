@@ -0,0 +1,45 @@
+package jacop;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import sat.ModelSimplifier;
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class JaCoPCursorComparisonTest extends AbstractEnumerationComparisonTest {
+
+  private static final int PAGE_SIZE = 37;
+
+  private static List<Configuration> readPages(VariabilityModel vm) {
+    EnumerationCursor cursor = new JaCoPSolverFacade(vm).getVariantGenerator().openEnumeration();
+    List<Configuration> configs = new ArrayList<>();
+    int count;
+    do {
+      count = cursor.next(PAGE_SIZE, configs::add);
+      Assertions.assertTrue(count <= PAGE_SIZE);
+    } while (count == PAGE_SIZE);
+    Assertions.assertEquals(0, cursor.next(PAGE_SIZE, configs::add));
+    cursor.close();
+    return configs;
+  }
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    List<Configuration> pages = readPages(vm);
+    Assertions.assertEquals(configs.size(), pages.size());
+    Assertions.assertEquals(new HashSet<>(configs), new HashSet<>(pages));
+
+    // the constraints of a simplified model are posted instead of the original ones
+    vm.setSimplifiedModel(ModelSimplifier.simplify(vm.getClauseDatabase()));
+    List<Configuration> simplifiedPages = readPages(vm);
+    Assertions.assertEquals(configs.size(), simplifiedPages.size());
+    Assertions.assertEquals(new HashSet<>(configs), new HashSet<>(simplifiedPages));
+  }
+}
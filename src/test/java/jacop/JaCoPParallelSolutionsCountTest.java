@@ -0,0 +1,19 @@
+package jacop;
+
+import java.util.Collection;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractSolutionsCountTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class JaCoPParallelSolutionsCountTest extends AbstractSolutionsCountTest {
+
+  @Override
+  protected int countSolutions(VariabilityModel vm) {
+    JaCoPVariantGenerator vg = new JaCoPVariantGenerator(vm);
+    vg.setParallelism(4);
+    Collection<Configuration> solutions = vg.generateUpToNConfigs(-1);
+    return solutions.size();
+  }
+}
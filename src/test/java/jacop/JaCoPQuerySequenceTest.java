@@ -0,0 +1,14 @@
+package jacop;
+
+import spl_conqueror.SolverFacade;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractQuerySequenceTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class JaCoPQuerySequenceTest extends AbstractQuerySequenceTest {
+
+  @Override
+  protected SolverFacade createFacade(VariabilityModel vm) {
+    return new JaCoPSolverFacade(vm);
+  }
+}
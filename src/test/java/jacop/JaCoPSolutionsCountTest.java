@@ -1,9 +1,8 @@
 package jacop;
 
 import java.util.Collection;
-import java.util.Set;
 
-import spl_conqueror.BinaryOption;
+import spl_conqueror.Configuration;
 import spl_conqueror.VariabilityModel;
 import spl_conqueror.VariantGenerator;
 import utilities.AbstractSolutionsCountTest;
@@ -14,7 +13,7 @@ final class JaCoPSolutionsCountTest extends AbstractSolutionsCountTest {
   @Override
   protected int countSolutions(VariabilityModel vm) {
     VariantGenerator vg = new JaCoPVariantGenerator(vm);
-    Collection<Set<BinaryOption>> solutions = vg.generateUpToNConfigs(-1);
+    Collection<Configuration> solutions = vg.generateUpToNConfigs(-1);
     return solutions.size();
   }
 }
@@ -0,0 +1,84 @@
+package sat;
+
+import org.dom4j.DocumentException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import spl_conqueror.VariabilityModel;
+import utilities.XMLUtils;
+
+final class ApproximateCounterTest {
+
+  private static final double EPSILON = 0.8;
+
+  private static final double DELTA = 0.2;
+
+  private static final long[] SEEDS = {1, 2, 3};
+
+  private static void testCase(String featureModel, int expectedSolutionCount)
+      throws DocumentException {
+    VariabilityModel vm = new VariabilityModel(XMLUtils.loadXML(
+        ClassLoader.getSystemResource("feature-models/" + featureModel)));
+    ApproximateCounter counter = ApproximateCounter.from(vm.getClauseDatabase());
+    BigDecimal expected = BigDecimal.valueOf(expectedSolutionCount);
+    BigDecimal factor = BigDecimal.valueOf(1 + EPSILON);
+    for (long seed : SEEDS) {
+      counter.setSeed(seed);
+      BigInteger estimate = counter.estimateCount(EPSILON, DELTA);
+      String message = featureModel + " seed " + seed + ": " + estimate;
+      // the estimate lies within a factor of 1 + epsilon of the exact count
+      Assertions.assertTrue(new BigDecimal(estimate).multiply(factor).compareTo(expected) >= 0,
+                            message);
+      Assertions.assertTrue(new BigDecimal(estimate).compareTo(expected.multiply(factor)) <= 0,
+                            message);
+    }
+  }
+
+  @Test
+  void testApacheEnergy() throws DocumentException {
+    testCase("Apache_energy.xml", 580);
+  }
+
+  @Test
+  void testBerkeleyDBC() throws DocumentException {
+    testCase("BerkeleyDBC.xml", 2560);
+  }
+
+  @Test
+  void testBrotli() throws DocumentException {
+    testCase("brotli.xml", 180);
+  }
+
+  @Test
+  void testDuneBin() throws DocumentException {
+    testCase("Dune_bin.xml", 2304);
+  }
+
+  @Test
+  void testExastencilsEnergy() throws DocumentException {
+    testCase("exastencils_energy.xml", 86058);
+  }
+
+  @Test
+  void testHipaccBin() throws DocumentException {
+    testCase("Hipacc_bin.xml", 13485);
+  }
+
+  @Test
+  void testHSQLDBEnergy() throws DocumentException {
+    testCase("HSQLDB_energy.xml", 864);
+  }
+
+  @Test
+  void testLLVM() throws DocumentException {
+    testCase("LLVM.xml", 1024);
+  }
+
+  @Test
+  void testLLVMEnergy() throws DocumentException {
+    testCase("LLVM_energy.xml", 65536);
+  }
+}
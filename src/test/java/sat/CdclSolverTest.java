@@ -0,0 +1,196 @@
+package sat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import spl_conqueror.ClauseDatabase;
+
+final class CdclSolverTest {
+
+  private static final int VARIABLE_COUNT = 10;
+
+  private static final int INSTANCE_COUNT = 200;
+
+  private static int[] randomVariables(Random random) {
+    List<Integer> variables = new ArrayList<>();
+    for (int v = 0; v < VARIABLE_COUNT; v++) {
+      if (random.nextInt(3) > 0) {
+        variables.add(v);
+      }
+    }
+    return variables.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static boolean isTrue(int assignment, int literal) {
+    boolean value = (assignment >> ClauseDatabase.variable(literal) & 1) != 0;
+    return value != ClauseDatabase.isNegated(literal);
+  }
+
+  /**
+   * Adds random clauses, at-most and parity constraints over shared variables, so that conflicts
+   * of one constraint kind happen while the other one has counted the same literals, and compares
+   * the number of models and the answers under assumptions with a brute-force check.
+   */
+  @Test
+  void testAtMostAndXorConstraints() {
+    Random random = new Random(42);
+    for (int instance = 0; instance < INSTANCE_COUNT; instance++) {
+      List<int[]> clauses = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        int[] clause = new int[3];
+        for (int j = 0; j < clause.length; j++) {
+          clause[j] = ClauseDatabase.literal(random.nextInt(VARIABLE_COUNT), random.nextBoolean());
+        }
+        clauses.add(clause);
+      }
+      CdclSolver solver = CdclSolver.from(ClauseDatabase.of(VARIABLE_COUNT, clauses));
+      solver.setSeed(instance);
+
+      int[] atMostVariables = randomVariables(random);
+      int[] atMostLiterals = new int[atMostVariables.length];
+      long[] weights = new long[atMostVariables.length];
+      for (int i = 0; i < atMostVariables.length; i++) {
+        atMostLiterals[i] = ClauseDatabase.literal(atMostVariables[i], random.nextBoolean());
+        weights[i] = 1 + random.nextInt(3);
+      }
+      long bound = random.nextInt(6);
+      solver.addAtMost(atMostLiterals, weights, bound);
+      int[] xorVariables = randomVariables(random);
+      boolean isOdd = random.nextBoolean();
+      solver.addXor(xorVariables, isOdd);
+
+      boolean[] isModel = new boolean[1 << VARIABLE_COUNT];
+      int expectedCount = 0;
+      for (int assignment = 0; assignment < isModel.length; assignment++) {
+        boolean isValid = true;
+        for (int[] clause : clauses) {
+          boolean isSatisfied = false;
+          for (int literal : clause) {
+            isSatisfied |= isTrue(assignment, literal);
+          }
+          isValid &= isSatisfied;
+        }
+        long sum = 0;
+        for (int i = 0; i < atMostLiterals.length; i++) {
+          sum += isTrue(assignment, atMostLiterals[i]) ? weights[i] : 0;
+        }
+        boolean parity = false;
+        for (int variable : xorVariables) {
+          parity ^= (assignment >> variable & 1) != 0;
+        }
+        isModel[assignment] = isValid && sum <= bound && parity == isOdd;
+        expectedCount += isModel[assignment] ? 1 : 0;
+      }
+
+      String message = Integer.toString(instance);
+      for (int round = 0; round < 2; round++) {
+        for (int literal = 0; literal < 2 * VARIABLE_COUNT; literal++) {
+          boolean expected = false;
+          for (int assignment = 0; assignment < isModel.length; assignment++) {
+            expected |= isModel[assignment] && isTrue(assignment, literal);
+          }
+          Assertions.assertEquals(expected, solver.solve(literal), message + " " + literal);
+        }
+        int[] count = {0};
+        solver.enumerateModels(() -> {
+          int assignment = 0;
+          for (int v = 0; v < VARIABLE_COUNT; v++) {
+            assignment |= solver.getModelValue(v) ? 1 << v : 0;
+          }
+          Assertions.assertTrue(isModel[assignment], message);
+          count[0]++;
+          return true;
+        });
+        Assertions.assertEquals(expectedCount, count[0], message);
+      }
+    }
+  }
+
+  @Test
+  void testLearntFactsAcrossPushPop() {
+    int a = 0;
+    int b = 1;
+    int d = 2;
+    int x = 3;
+    int y = 4;
+    List<int[]> clauses = new ArrayList<>();
+    // (a | b) & (!a | b) implies b, which the solver has to learn
+    clauses.add(new int[]{ClauseDatabase.literal(a, false), ClauseDatabase.literal(b, false)});
+    clauses.add(new int[]{ClauseDatabase.literal(a, true), ClauseDatabase.literal(b, false)});
+    CdclSolver solver = CdclSolver.from(ClauseDatabase.of(5, clauses));
+    Assertions.assertFalse(solver.solve(ClauseDatabase.literal(b, true)));
+    Assertions.assertTrue(solver.isFixed(ClauseDatabase.literal(b, false)));
+
+    solver.push();
+    // d follows from b and a constraint of the scope, y is learned from constraints of the scope
+    solver.addClause(ClauseDatabase.literal(b, true), ClauseDatabase.literal(d, false));
+    solver.addClause(ClauseDatabase.literal(x, false), ClauseDatabase.literal(y, false));
+    solver.addClause(ClauseDatabase.literal(x, true), ClauseDatabase.literal(y, false));
+    Assertions.assertFalse(solver.solve(ClauseDatabase.literal(y, true)));
+    Assertions.assertTrue(solver.isFixed(ClauseDatabase.literal(d, false)));
+    Assertions.assertTrue(solver.isFixed(ClauseDatabase.literal(y, false)));
+    solver.pop();
+
+    // the fact learned before the scope is kept, the ones that depend on it are dropped
+    Assertions.assertTrue(solver.isFixed(ClauseDatabase.literal(b, false)));
+    Assertions.assertFalse(solver.isFixed(ClauseDatabase.literal(d, false)));
+    Assertions.assertFalse(solver.isFixed(ClauseDatabase.literal(y, false)));
+    Assertions.assertFalse(solver.solve(ClauseDatabase.literal(b, true)));
+    Assertions.assertTrue(solver.solve(ClauseDatabase.literal(d, true)));
+    Assertions.assertTrue(solver.solve(ClauseDatabase.literal(y, true)));
+  }
+
+  /**
+   * Solves random instances under each single assumption, before and after a scope with
+   * additional unit clauses, and compares the answers with a solver that has never seen the
+   * scope.
+   */
+  @Test
+  void testLearntClausesAcrossPushPop() {
+    int variableCount = 40;
+    Random random = new Random(42);
+    for (int instance = 0; instance < 20; instance++) {
+      List<int[]> clauses = new ArrayList<>();
+      for (int i = 0; i < 4 * variableCount; i++) {
+        int[] clause = new int[3];
+        for (int j = 0; j < clause.length; j++) {
+          clause[j] = ClauseDatabase.literal(random.nextInt(variableCount), random.nextBoolean());
+        }
+        clauses.add(clause);
+      }
+      ClauseDatabase clauseDatabase = ClauseDatabase.of(variableCount, clauses);
+      CdclSolver solver = CdclSolver.from(clauseDatabase);
+      boolean[] expected = new boolean[2 * variableCount];
+      for (int literal = 0; literal < expected.length; literal++) {
+        expected[literal] = CdclSolver.from(clauseDatabase).solve(literal);
+        Assertions.assertEquals(expected[literal], solver.solve(literal));
+      }
+
+      // an empty scope keeps all learned clauses
+      int learntCount = solver.getLearntCount();
+      solver.push();
+      solver.pop();
+      Assertions.assertEquals(learntCount, solver.getLearntCount());
+
+      solver.push();
+      for (int i = 0; i < 8; i++) {
+        solver.addClause(ClauseDatabase.literal(random.nextInt(variableCount),
+                                                random.nextBoolean()));
+      }
+      for (int literal = 0; literal < expected.length; literal++) {
+        solver.solve(literal);
+      }
+      solver.pop();
+
+      // nothing learned from the unit clauses may survive the scope
+      String message = Integer.toString(instance);
+      for (int literal = 0; literal < expected.length; literal++) {
+        Assertions.assertEquals(expected[literal], solver.solve(literal), message);
+      }
+    }
+  }
+}
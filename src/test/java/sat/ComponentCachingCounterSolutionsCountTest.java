@@ -0,0 +1,16 @@
+package sat;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.ModelCounter;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractSolutionsCountTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class ComponentCachingCounterSolutionsCountTest extends AbstractSolutionsCountTest {
+
+  @Override
+  protected int countSolutions(VariabilityModel vm) {
+    ModelCounter counter = ComponentCachingCounter.from(vm.getClauseDatabase());
+    return counter.countConfigurations(Configuration.empty(vm)).intValueExact();
+  }
+}
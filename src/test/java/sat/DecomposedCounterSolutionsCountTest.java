@@ -0,0 +1,21 @@
+package sat;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.SimplifiedModel;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractSolutionsCountTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class DecomposedCounterSolutionsCountTest extends AbstractSolutionsCountTest {
+
+  @Override
+  protected int countSolutions(VariabilityModel vm) {
+    SimplifiedModel simplifiedModel = ModelSimplifier.simplify(vm.getClauseDatabase());
+    if (simplifiedModel == null) {
+      return 0;
+    }
+    return DecomposedCounter.from(simplifiedModel)
+                            .countConfigurations(Configuration.empty(vm))
+                            .intValueExact();
+  }
+}
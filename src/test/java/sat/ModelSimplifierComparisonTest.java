@@ -0,0 +1,65 @@
+package sat;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import spl_conqueror.ClauseDatabase;
+import spl_conqueror.Configuration;
+import spl_conqueror.SatisfiabilityChecker;
+import spl_conqueror.SimplifiedModel;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class ModelSimplifierComparisonTest extends AbstractEnumerationComparisonTest {
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    SimplifiedModel simplifiedModel = ModelSimplifier.simplify(vm.getClauseDatabase());
+    Assertions.assertNotNull(simplifiedModel);
+
+    // the representative of each variable is the option with the smallest index that maps to it
+    for (int v = 0; v < simplifiedModel.getVariableCount(); v++) {
+      int representative = simplifiedModel.getRepresentative(v);
+      Assertions.assertEquals(v, simplifiedModel.getVariable(representative));
+      for (int i = 0; i < representative; i++) {
+        Assertions.assertTrue(simplifiedModel.getVariable(i) != v, "option " + i);
+      }
+    }
+
+    // core options cannot be deselected and dead options cannot be selected
+    CdclSolver solver = CdclSolver.from(vm.getClauseDatabase());
+    SatisfiabilityChecker checker = new SatSolverFacade(vm).getSatisfiabilityChecker();
+    for (int i = 0; i < vm.getOptionCount(); i++) {
+      boolean isCore = !solver.solve(ClauseDatabase.literal(i, true));
+      boolean isDead = !checker.isValid(new Configuration.Builder(vm).select(i).build(), true);
+      Assertions.assertEquals(isCore,
+                              simplifiedModel.getVariable(i) == SimplifiedModel.SELECTED,
+                              vm.getBinaryOption(i).getName());
+      Assertions.assertEquals(isDead,
+                              simplifiedModel.getVariable(i) == SimplifiedModel.DESELECTED,
+                              vm.getBinaryOption(i).getName());
+    }
+
+    // expanding the models of the simplified clauses yields the valid configurations
+    CdclSolver simplifiedSolver = CdclSolver.from(simplifiedModel.getClauseDatabase());
+    List<Configuration> expanded = new ArrayList<>(configs.size());
+    simplifiedSolver.enumerateModels(() -> {
+      Configuration.Builder config = new Configuration.Builder(vm);
+      for (int i = 0; i < vm.getOptionCount(); i++) {
+        int variable = simplifiedModel.getVariable(i);
+        if (variable == SimplifiedModel.SELECTED
+            || variable >= 0 && simplifiedSolver.getModelValue(variable)) {
+          config.select(i);
+        }
+      }
+      expanded.add(config.build());
+      return true;
+    });
+    Assertions.assertEquals(configs.size(), expanded.size());
+    Assertions.assertEquals(new HashSet<>(configs), new HashSet<>(expanded));
+  }
+}
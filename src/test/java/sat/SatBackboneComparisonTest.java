@@ -0,0 +1,41 @@
+package sat;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.List;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+import utilities.AbstractEnumerationComparisonTest;
+import utilities.Tuple;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class SatBackboneComparisonTest extends AbstractEnumerationComparisonTest {
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    VariantGenerator vg = new SatSolverFacade(vm).getVariantGenerator();
+    for (Configuration partialConfig : partialConfigs(vm)) {
+      List<Configuration> expected = containing(configs, partialConfig);
+      Tuple<Configuration, Configuration> backbone = vg.propagate(partialConfig);
+      if (expected.isEmpty()) {
+        Assertions.assertNull(backbone, partialConfig.toString());
+        continue;
+      }
+      Assertions.assertNotNull(backbone, partialConfig.toString());
+      Configuration.Builder selected = new Configuration.Builder(vm);
+      Configuration.Builder deselected = new Configuration.Builder(vm);
+      for (int i = 0; i < vm.getOptionCount(); i++) {
+        int option = i;
+        if (expected.stream().allMatch(config -> config.contains(option))) {
+          selected.select(i);
+        } else if (expected.stream().noneMatch(config -> config.contains(option))) {
+          deselected.select(i);
+        }
+      }
+      Assertions.assertEquals(selected.build(), backbone.getFirst(), partialConfig.toString());
+      Assertions.assertEquals(deselected.build(), backbone.getSecond(), partialConfig.toString());
+    }
+  }
+}
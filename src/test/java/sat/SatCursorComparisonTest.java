@@ -0,0 +1,44 @@
+package sat;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.EnumerationCursor;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class SatCursorComparisonTest extends AbstractEnumerationComparisonTest {
+
+  private static final int PAGE_SIZE = 37;
+
+  private static List<Configuration> readPages(VariabilityModel vm) {
+    EnumerationCursor cursor = new SatSolverFacade(vm).getVariantGenerator().openEnumeration();
+    List<Configuration> configs = new ArrayList<>();
+    int count;
+    do {
+      count = cursor.next(PAGE_SIZE, configs::add);
+      Assertions.assertTrue(count <= PAGE_SIZE);
+    } while (count == PAGE_SIZE);
+    Assertions.assertEquals(0, cursor.next(PAGE_SIZE, configs::add));
+    cursor.close();
+    return configs;
+  }
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    List<Configuration> pages = readPages(vm);
+    Assertions.assertEquals(configs.size(), pages.size());
+    Assertions.assertEquals(new HashSet<>(configs), new HashSet<>(pages));
+
+    // the components of a simplified model are enumerated by a product cursor
+    vm.setSimplifiedModel(ModelSimplifier.simplify(vm.getClauseDatabase()));
+    List<Configuration> productPages = readPages(vm);
+    Assertions.assertEquals(configs.size(), productPages.size());
+    Assertions.assertEquals(new HashSet<>(configs), new HashSet<>(productPages));
+  }
+}
@@ -0,0 +1,14 @@
+package sat;
+
+import spl_conqueror.SolverFacade;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractQuerySequenceTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class SatQuerySequenceTest extends AbstractQuerySequenceTest {
+
+  @Override
+  protected SolverFacade createFacade(VariabilityModel vm) {
+    return new SatSolverFacade(vm);
+  }
+}
@@ -0,0 +1,53 @@
+package sat;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.SatisfiabilityChecker;
+import spl_conqueror.VariabilityModel;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class SatSatisfiabilityCheckerComparisonTest extends AbstractEnumerationComparisonTest {
+
+  private static final int SAMPLE_SIZE = 200;
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    // one checker answers all queries, so no query may leave its assumptions behind
+    SatisfiabilityChecker checker = new SatSolverFacade(vm).getSatisfiabilityChecker();
+    Set<Configuration> validConfigs = new HashSet<>(configs);
+    Random random = new Random(42);
+    int optionCount = vm.getOptionCount();
+    for (Configuration partialConfig : partialConfigs(vm)) {
+      Assertions.assertEquals(!containing(configs, partialConfig).isEmpty(),
+                              checker.isValid(partialConfig, true),
+                              partialConfig.toString());
+    }
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      Configuration pair = new Configuration.Builder(vm).select(random.nextInt(optionCount))
+                                                        .select(random.nextInt(optionCount))
+                                                        .build();
+      Assertions.assertEquals(!containing(configs, pair).isEmpty(),
+                              checker.isValid(pair, true),
+                              pair.toString());
+
+      // a valid configuration and one that differs in a single option
+      Configuration config = configs.get(random.nextInt(configs.size()));
+      Assertions.assertTrue(checker.isValid(config, false), config.toString());
+      int index = random.nextInt(optionCount);
+      Configuration option = new Configuration.Builder(vm).select(index).build();
+      Configuration flipped = config.contains(index)
+                              ? config.difference(option)
+                              : config.union(option);
+      Assertions.assertEquals(validConfigs.contains(flipped),
+                              checker.isValid(flipped, false),
+                              flipped.toString());
+    }
+  }
+}
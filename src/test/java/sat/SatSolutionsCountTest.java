@@ -0,0 +1,20 @@
+package sat;
+
+import java.util.Collection;
+
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+import utilities.AbstractSolutionsCountTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class SatSolutionsCountTest extends AbstractSolutionsCountTest {
+
+  @Override
+  protected int countSolutions(VariabilityModel vm) {
+    SatConstraintSystemContext context = SatConstraintSystemContext.from(vm);
+    VariantGenerator vg = new SatVariantGenerator(context);
+    Collection<Configuration> solutions = vg.generateUpToNConfigs(-1);
+    return solutions.size();
+  }
+}
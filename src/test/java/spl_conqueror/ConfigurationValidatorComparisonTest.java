@@ -0,0 +1,84 @@
+package spl_conqueror;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import commands.CheckSatisfiabilityBatchCommand;
+import option_coding.VariabilityModelIndexOptionCoding;
+import utilities.AbstractEnumerationComparisonTest;
+import utilities.GlobalContext;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class ConfigurationValidatorComparisonTest extends AbstractEnumerationComparisonTest {
+
+  private static final int SAMPLE_SIZE = 2000;
+
+  /**
+   * The number of configurations passed to check-sat-batch, which spans three batches.
+   */
+  private static final int BATCH_SIZE = 150;
+
+  /**
+   * Returns all valid configurations followed by a sample of configurations that differ from a
+   * valid one in a single option, most of which are invalid.
+   */
+  private static List<Configuration> candidates(VariabilityModel vm,
+                                                List<Configuration> configs) {
+    List<Configuration> candidates = new ArrayList<>(configs);
+    Random random = new Random(42);
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      Configuration config = configs.get(random.nextInt(configs.size()));
+      int index = random.nextInt(vm.getOptionCount());
+      Configuration option = new Configuration.Builder(vm).select(index).build();
+      candidates.add(config.contains(index) ? config.difference(option) : config.union(option));
+    }
+    return candidates;
+  }
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    Set<Configuration> validConfigs = new HashSet<>(configs);
+    ConfigurationValidator validator = vm.getConfigurationValidator();
+    List<Configuration> candidates = candidates(vm, configs);
+    for (Configuration candidate : candidates) {
+      Assertions.assertEquals(validConfigs.contains(candidate),
+                              validator.isValid(candidate),
+                              candidate.toString());
+    }
+
+    // the batches of the bit-sliced validation must not depend on each other
+    Collections.shuffle(candidates, new Random(42));
+    BitSet valid = validator.areValid(candidates);
+    for (int i = 0; i < candidates.size(); i++) {
+      Assertions.assertEquals(validConfigs.contains(candidates.get(i)),
+                              valid.get(i),
+                              candidates.get(i).toString());
+    }
+
+    // check-sat-batch answers with one digit per configuration
+    GlobalContext context = new GlobalContext();
+    context.setVariabilityModel(vm);
+    context.setOptionCoding(new VariabilityModelIndexOptionCoding(vm));
+    List<Configuration> batch = candidates.stream()
+                                          .filter(config -> !config.isEmpty())
+                                          .limit(BATCH_SIZE)
+                                          .collect(Collectors.toList());
+    String argsString = "complete " + batch.stream()
+                                            .map(context.getOptionCoding()::encodeBinaryOptions)
+                                            .collect(Collectors.joining(";"));
+    String response = new CheckSatisfiabilityBatchCommand(context).execute(argsString);
+    Assertions.assertEquals(batch.size(), response.length());
+    for (int i = 0; i < batch.size(); i++) {
+      Assertions.assertEquals(validConfigs.contains(batch.get(i)) ? '1' : '0',
+                              response.charAt(i));
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package spl_conqueror;
+
+import org.dom4j.DocumentException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import sat.SatSolverFacade;
+import utilities.XMLUtils;
+
+final class ImplicationIndexTest {
+
+  private static final String[] FEATURE_MODELS = {
+      "Apache_energy.xml", "BerkeleyDBC.xml", "brotli.xml", "Dune_bin.xml",
+      "exastencils_energy.xml", "Hipacc_bin.xml", "HSQLDB_energy.xml", "LLVM.xml",
+      "LLVM_energy.xml"
+  };
+
+  private static List<VariabilityModel> loadModels() throws DocumentException {
+    List<VariabilityModel> models = new ArrayList<>(FEATURE_MODELS.length);
+    for (String featureModel : FEATURE_MODELS) {
+      models.add(new VariabilityModel(XMLUtils.loadXML(
+          ClassLoader.getSystemResource("feature-models/" + featureModel))));
+    }
+    return models;
+  }
+
+  private static Configuration of(VariabilityModel vm, BinaryOption... options) {
+    return Configuration.of(vm, Arrays.asList(options));
+  }
+
+  @Test
+  void testAcceptsValidConfigs() throws DocumentException {
+    for (VariabilityModel vm : loadModels()) {
+      ImplicationIndex index = vm.getImplicationIndex();
+      int[] count = {0};
+      new SatSolverFacade(vm).getVariantGenerator().generateUpToNConfigs(-1, config -> {
+        Configuration.Builder deselected = new Configuration.Builder(vm);
+        for (int i = 0; i < vm.getOptionCount(); i++) {
+          if (!config.contains(i)) {
+            deselected.select(i);
+          }
+        }
+        Assertions.assertFalse(index.isContradictory(config, deselected.build()),
+                               vm.getName() + " " + config);
+        Assertions.assertFalse(index.isContradictory(config), vm.getName() + " " + config);
+        count[0]++;
+      });
+      Assertions.assertTrue(count[0] > 0, vm.getName());
+    }
+  }
+
+  @Test
+  void testRejectsBinaryConflicts() throws DocumentException {
+    int conflictCount = 0;
+    for (VariabilityModel vm : loadModels()) {
+      ImplicationIndex index = vm.getImplicationIndex();
+      for (BinaryOption option : vm.getBinaryOptions()) {
+        // two alternatives of one group
+        for (BinaryOption alternative : option.collectAlternativeOptions()) {
+          Assertions.assertTrue(index.isContradictory(of(vm, option, alternative)),
+                                option + " " + alternative);
+          conflictCount++;
+        }
+        // an excluded pair
+        for (List<BinaryOption> excluded : option.getExcludedOptions()) {
+          if (excluded.size() == 1) {
+            Assertions.assertTrue(index.isContradictory(of(vm, option, excluded.get(0))),
+                                  option + " " + excluded);
+            conflictCount++;
+          }
+        }
+        // an option together with a deselected implied option
+        for (List<BinaryOption> implied : option.getImpliedOptions()) {
+          if (implied.size() == 1) {
+            Assertions.assertTrue(index.isContradictory(of(vm, option), of(vm, implied.get(0))),
+                                  option + " " + implied);
+            conflictCount++;
+          }
+        }
+        BinaryOption parent = option.getParent();
+        if (parent != null) {
+          Assertions.assertTrue(index.isContradictory(of(vm, option), of(vm, parent)),
+                                option + " " + parent);
+          conflictCount++;
+        }
+      }
+      Assertions.assertFalse(index.isContradictory(Configuration.of(
+          vm, Collections.singletonList(vm.getRoot()))), vm.getName());
+    }
+    Assertions.assertTrue(conflictCount > 0);
+  }
+}
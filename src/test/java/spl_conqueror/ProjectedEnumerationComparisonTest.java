@@ -0,0 +1,87 @@
+package spl_conqueror;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import sat.ModelSimplifier;
+import spl_conqueror.ProjectedEnumeration.ExtensionFinder;
+import utilities.AbstractEnumerationComparisonTest;
+
+@SuppressWarnings("JUnitTestCaseWithNoTests")
+final class ProjectedEnumerationComparisonTest extends AbstractEnumerationComparisonTest {
+
+  private static final int PROJECTION_COUNT = 5;
+
+  private static final int PROJECTION_SIZE = 8;
+
+  /**
+   * Answers each call with the first enumerated configuration that agrees with it.
+   */
+  private static ExtensionFinder finder(List<Configuration> configs) {
+    return (selected, deselected) -> {
+      for (Configuration config : configs) {
+        if (config.intersection(selected).equals(selected)
+            && config.intersection(deselected).isEmpty()) {
+          return config;
+        }
+      }
+      return null;
+    };
+  }
+
+  private static void assertProjections(Set<Configuration> expected,
+                                        List<Configuration> projections,
+                                        String message) {
+    Assertions.assertEquals(expected.size(), projections.size(), message);
+    Assertions.assertEquals(expected, new HashSet<>(projections), message);
+  }
+
+  @Override
+  protected void compare(VariabilityModel vm, List<Configuration> configs) {
+    Random random = new Random(42);
+    List<Configuration> projections = new ArrayList<>();
+    for (int p = 0; p < PROJECTION_COUNT; p++) {
+      Configuration.Builder builder = new Configuration.Builder(vm);
+      for (int i = 0; i < PROJECTION_SIZE; i++) {
+        builder.select(random.nextInt(vm.getOptionCount()));
+      }
+      projections.add(builder.build());
+    }
+
+    for (int round = 0; round < 2; round++) {
+      // the second round groups the options by the components of the simplified model
+      if (round == 1) {
+        vm.setSimplifiedModel(ModelSimplifier.simplify(vm.getClauseDatabase()));
+      }
+      for (Configuration optionsToConsider : projections) {
+        Set<Configuration> expected = new HashSet<>();
+        for (Configuration config : configs) {
+          expected.add(config.intersection(optionsToConsider));
+        }
+        expected.remove(Configuration.empty(vm));
+        String message = "round " + round + " " + optionsToConsider;
+
+        List<Configuration> sequential = new ArrayList<>();
+        ProjectedEnumeration.forEachProjection(vm,
+                                               optionsToConsider,
+                                               finder(configs),
+                                               sequential::add);
+        assertProjections(expected, sequential, message);
+
+        List<Configuration> parallel = Collections.synchronizedList(new ArrayList<>());
+        ProjectedEnumeration.forEachProjectionInParallel(vm,
+                                                         optionsToConsider,
+                                                         () -> finder(configs),
+                                                         2,
+                                                         parallel::add);
+        assertProjections(expected, parallel, message);
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package utilities;
+
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import sat.SatSolverFacade;
+import spl_conqueror.Configuration;
+import spl_conqueror.VariabilityModel;
+
+/**
+ * Compares the results of a query with the ones derived from all valid configurations of a
+ * model, which are enumerated by the SAT solver.
+ */
+public abstract class AbstractEnumerationComparisonTest {
+
+  /**
+   * Checks the query against the given valid configurations of the given model.
+   */
+  protected abstract void compare(VariabilityModel vm, List<Configuration> configs);
+
+  /**
+   * Returns the empty configuration and each configuration that only selects one option.
+   */
+  protected static List<Configuration> partialConfigs(VariabilityModel vm) {
+    List<Configuration> partialConfigs = new ArrayList<>();
+    partialConfigs.add(Configuration.empty(vm));
+    for (int i = 0; i < vm.getOptionCount(); i++) {
+      partialConfigs.add(new Configuration.Builder(vm).select(i).build());
+    }
+    return partialConfigs;
+  }
+
+  /**
+   * Returns the configurations that contain the given partial configuration.
+   */
+  protected static List<Configuration> containing(List<Configuration> configs,
+                                                  Configuration partialConfig) {
+    return configs.stream()
+                  .filter(config -> config.intersection(partialConfig).equals(partialConfig))
+                  .collect(Collectors.toList());
+  }
+
+  private void testCase(String featureModel, int expectedSolutionCount) {
+    URL url = ClassLoader.getSystemResource("feature-models/" + featureModel);
+    Element rootElement;
+    try {
+      rootElement = XMLUtils.loadXML(url);
+    } catch (DocumentException ex) {
+      Assertions.fail(ex);
+      return;
+    }
+    VariabilityModel vm = new VariabilityModel(rootElement);
+    List<Configuration> configs = new ArrayList<>(expectedSolutionCount);
+    new SatSolverFacade(vm).getVariantGenerator().generateUpToNConfigs(-1, configs::add);
+    Assertions.assertEquals(expectedSolutionCount, configs.size());
+    compare(vm, configs);
+  }
+
+  @Test
+  void testApacheEnergy() {
+    testCase("Apache_energy.xml", 580);
+  }
+
+  @Test
+  void testBerkeleyDBC() {
+    testCase("BerkeleyDBC.xml", 2560);
+  }
+
+  @Test
+  void testBrotli() {
+    testCase("brotli.xml", 180);
+  }
+
+  @Test
+  void testDuneBin() {
+    testCase("Dune_bin.xml", 2304);
+  }
+
+  @Test
+  void testExastencilsEnergy() {
+    testCase("exastencils_energy.xml", 86058);
+  }
+
+  @Test
+  void testHipaccBin() {
+    testCase("Hipacc_bin.xml", 13485);
+  }
+
+  @Test
+  void testHSQLDBEnergy() {
+    testCase("HSQLDB_energy.xml", 864);
+  }
+
+  @Test
+  void testLLVM() {
+    testCase("LLVM.xml", 1024);
+  }
+
+  @Test
+  void testLLVMEnergy() {
+    testCase("LLVM_energy.xml", 65536);
+  }
+}
@@ -0,0 +1,185 @@
+package utilities;
+
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import sat.ModelSimplifier;
+import spl_conqueror.BucketSession;
+import spl_conqueror.Configuration;
+import spl_conqueror.SolverFacade;
+import spl_conqueror.VariabilityModel;
+import spl_conqueror.VariantGenerator;
+
+/**
+ * Runs several queries one after another against one solver facade, like an SPL Conqueror
+ * session does, and compares the answers of the last query with the ones of a fresh facade.
+ */
+public abstract class AbstractQuerySequenceTest {
+
+  private static final String[] FEATURE_MODELS = {"Apache_energy.xml", "HSQLDB_energy.xml"};
+
+  protected abstract SolverFacade createFacade(VariabilityModel vm);
+
+  private static VariabilityModel loadModel(String featureModel) {
+    URL url = ClassLoader.getSystemResource("feature-models/" + featureModel);
+    Element rootElement;
+    try {
+      rootElement = XMLUtils.loadXML(url);
+    } catch (DocumentException ex) {
+      throw new AssertionError(ex);
+    }
+    VariabilityModel vm = new VariabilityModel(rootElement);
+    vm.setSimplifiedModel(ModelSimplifier.simplify(vm.getClauseDatabase()));
+    return vm;
+  }
+
+  private static Configuration root(VariabilityModel vm) {
+    return Configuration.of(vm, Collections.singletonList(vm.getRoot()));
+  }
+
+  /**
+   * Runs a minimization and a maximization, which leave the most state behind.
+   */
+  private static void optimize(SolverFacade facade, VariabilityModel vm) {
+    VariantGenerator vg = facade.getVariantGenerator();
+    Configuration empty = Configuration.empty(vm);
+    Assertions.assertNotNull(vg.findMinimizedConfig(root(vm), empty));
+    Assertions.assertFalse(vg.findAllMaximizedConfigs(root(vm), empty).isEmpty());
+  }
+
+  @Test
+  void testMaximizationThenMinimization() {
+    for (String featureModel : FEATURE_MODELS) {
+      VariabilityModel vm = loadModel(featureModel);
+      Configuration empty = Configuration.empty(vm);
+      VariantGenerator vg = createFacade(vm).getVariantGenerator();
+      Assertions.assertFalse(vg.findAllMaximizedConfigs(root(vm), empty).isEmpty());
+      Configuration minimized = vg.findMinimizedConfig(root(vm), empty);
+      Configuration expected = createFacade(vm).getVariantGenerator()
+                                               .findMinimizedConfig(root(vm), empty);
+      Assertions.assertNotNull(minimized);
+      Assertions.assertNotNull(expected);
+      Assertions.assertEquals(expected.size(), minimized.size(), featureModel);
+      Assertions.assertTrue(vm.getConfigurationValidator().isValid(minimized), featureModel);
+    }
+  }
+
+  @Test
+  void testOptimizationThenEnumeration() {
+    for (String featureModel : FEATURE_MODELS) {
+      VariabilityModel vm = loadModel(featureModel);
+      SolverFacade facade = createFacade(vm);
+      optimize(facade, vm);
+      int expected = createFacade(vm).getVariantGenerator().generateUpToNConfigs(-1).size();
+      Assertions.assertEquals(expected,
+                              facade.getVariantGenerator().generateUpToNConfigs(-1).size(),
+                              featureModel);
+      Assertions.assertEquals(2, facade.getVariantGenerator().generateUpToNConfigs(2).size());
+    }
+  }
+
+  @Test
+  void testOptimizationThenCheckSat() {
+    for (String featureModel : FEATURE_MODELS) {
+      VariabilityModel vm = loadModel(featureModel);
+      SolverFacade facade = createFacade(vm);
+      optimize(facade, vm);
+      SolverFacade fresh = createFacade(vm);
+      for (int i = 0; i < vm.getOptionCount(); i++) {
+        Configuration config = new Configuration.Builder(vm).select(vm.getRoot())
+                                                            .select(i)
+                                                            .build();
+        Assertions.assertEquals(fresh.getSatisfiabilityChecker().isValid(config, true),
+                                facade.getSatisfiabilityChecker().isValid(config, true),
+                                featureModel + " " + vm.getBinaryOption(i).getName());
+      }
+    }
+  }
+
+  @Test
+  void testOptimizationThenPropagate() {
+    for (String featureModel : FEATURE_MODELS) {
+      VariabilityModel vm = loadModel(featureModel);
+      SolverFacade facade = createFacade(vm);
+      optimize(facade, vm);
+      Tuple<Configuration, Configuration> expected = createFacade(vm).getVariantGenerator()
+                                                                      .propagate(root(vm));
+      Tuple<Configuration, Configuration> backbone = facade.getVariantGenerator()
+                                                           .propagate(root(vm));
+      Assertions.assertNotNull(expected);
+      Assertions.assertNotNull(backbone);
+      Assertions.assertEquals(expected.getFirst(), backbone.getFirst(), featureModel);
+      Assertions.assertEquals(expected.getSecond(), backbone.getSecond(), featureModel);
+    }
+  }
+
+  @Test
+  void testOptimizationThenBucket() {
+    for (String featureModel : FEATURE_MODELS) {
+      VariabilityModel vm = loadModel(featureModel);
+      SolverFacade facade = createFacade(vm);
+      optimize(facade, vm);
+      Configuration minimized = createFacade(vm).getVariantGenerator()
+                                                .findMinimizedConfig(root(vm),
+                                                                     Configuration.empty(vm));
+      Assertions.assertNotNull(minimized);
+      BucketSession bucketSession = facade.getVariantGenerator().createBucketSession();
+      Configuration config = bucketSession.generateConfig(minimized.size(),
+                                                          Collections.emptyList());
+      Assertions.assertNotNull(config, featureModel);
+      Assertions.assertEquals(minimized.size(), config.size(), featureModel);
+      Assertions.assertTrue(vm.getConfigurationValidator().isValid(config), featureModel);
+    }
+  }
+
+  @Test
+  void testBucketsAreFilledWithDistinctConfigs() {
+    for (String featureModel : FEATURE_MODELS) {
+      VariabilityModel vm = loadModel(featureModel);
+      Map<Integer, Set<Configuration>> expected = new HashMap<>();
+      createFacade(vm).getVariantGenerator().generateUpToNConfigs(
+          -1, config -> expected.computeIfAbsent(config.size(), n -> new HashSet<>()).add(config));
+      BucketSession bucketSession = createFacade(vm).getVariantGenerator()
+                                                    .createBucketSession();
+      for (int k = 0; k <= vm.getOptionCount(); k++) {
+        Set<Configuration> bucket = new HashSet<>();
+        Configuration config = bucketSession.generateConfig(k, Collections.emptyList());
+        while (config != null) {
+          Assertions.assertEquals(k, config.size(), featureModel);
+          Assertions.assertTrue(bucket.add(config), featureModel + " " + config);
+          config = bucketSession.generateConfig(k, Collections.emptyList());
+        }
+        Assertions.assertEquals(expected.getOrDefault(k, Collections.emptySet()),
+                                bucket,
+                                featureModel + " k=" + k);
+      }
+    }
+  }
+
+  @Test
+  void testExhaustedBucketThenQueries() {
+    for (String featureModel : FEATURE_MODELS) {
+      VariabilityModel vm = loadModel(featureModel);
+      SolverFacade facade = createFacade(vm);
+      BucketSession bucketSession = facade.getVariantGenerator().createBucketSession();
+      // no configuration selects all options, so the bucket is empty
+      int allOptions = vm.getOptionCount();
+      Assertions.assertNull(bucketSession.generateConfig(allOptions, Collections.emptyList()));
+      Assertions.assertNull(bucketSession.generateConfig(allOptions, Collections.emptyList()));
+      Assertions.assertTrue(facade.getSatisfiabilityChecker().isValid(root(vm), true));
+      int expected = createFacade(vm).getVariantGenerator().generateUpToNConfigs(-1).size();
+      Assertions.assertEquals(expected,
+                              facade.getVariantGenerator().generateUpToNConfigs(-1).size(),
+                              featureModel);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package utilities;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+final class ShellTest {
+
+  private static final String NL = System.lineSeparator();
+
+  /**
+   * Writes the given number of configurations and then reports an error if one is given.
+   */
+  private static final class WritingCommand extends ShellCommand {
+
+    private final int configCount;
+
+    @Nullable
+    private final String errorMessage;
+
+    WritingCommand(int configCount, @Nullable String errorMessage) {
+      super(new GlobalContext());
+      this.configCount = configCount;
+      this.errorMessage = errorMessage;
+    }
+
+    @Nonnull
+    @Override
+    public String execute(String argsString) {
+      return executeBuffered(argsString);
+    }
+
+    @Override
+    public void execute(String argsString, ResponseWriter writer) {
+      for (int i = 0; i < configCount; i++) {
+        writer.writeConfiguration(argsString);
+      }
+      if (errorMessage != null) {
+        writer.writeError(errorMessage);
+      }
+    }
+  }
+
+  private static String[] run(Shell shell, ByteArrayOutputStream out, ByteArrayOutputStream err)
+      throws IOException {
+    shell.execute();
+    return new String[]{out.toString(StandardCharsets.UTF_8.name()),
+                        err.toString(StandardCharsets.UTF_8.name())};
+  }
+
+  @Test
+  void testResponsesOfConsecutiveCommands() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    String input = "write a" + NL + "many b" + NL + "write c" + NL + "exit" + NL;
+    Shell shell = new Shell(new BufferedReader(new StringReader(input)),
+                            new PrintStream(out, true, StandardCharsets.UTF_8.name()),
+                            new PrintStream(err, true, StandardCharsets.UTF_8.name()));
+    shell.registerCommand(new WritingCommand(1, null), "write");
+    shell.registerCommand(new WritingCommand(3, null), "many");
+    String[] output = run(shell, out, err);
+    Assertions.assertEquals("a" + NL + "b;b;b" + NL + "c" + NL, output[0]);
+    Assertions.assertEquals("", output[1]);
+  }
+
+  @Test
+  void testErrorAfterPartialResponse() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    String input = "fail x" + NL + "write a" + NL;
+    Shell shell = new Shell(new BufferedReader(new StringReader(input)),
+                            new PrintStream(out, true, StandardCharsets.UTF_8.name()),
+                            new PrintStream(err, true, StandardCharsets.UTF_8.name()));
+    // enough configurations to exceed one chunk
+    int configCount = ResponseWriter.DEFAULT_CHUNK_SIZE;
+    shell.registerCommand(new WritingCommand(configCount, "failed"), "fail");
+    shell.registerCommand(new WritingCommand(1, null), "write");
+    String[] output = run(shell, out, err);
+    // the written part is terminated and the shell stops like after any other error
+    Assertions.assertTrue(output[0].startsWith("x;x;"));
+    Assertions.assertTrue(output[0].endsWith(NL));
+    Assertions.assertEquals(1, output[0].split(NL, -1).length - 1);
+    Assertions.assertEquals("failed" + NL, output[1]);
+  }
+}